@@ -1,5 +1,7 @@
 package com.swedenrosca;
 
+import com.swedenrosca.activity.ActivityEntry;
+import com.swedenrosca.activity.ActivityLog;
 import com.swedenrosca.controller.*;
 import com.swedenrosca.model.*;
 import com.swedenrosca.repository.*;
@@ -10,15 +12,20 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public class ApplicationRunner {
+    private static final DateTimeFormatter DISPLAY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int ACTIVITY_LOG_LIMIT = 50;
+
     private final Scanner scanner = new Scanner(System.in);
     private final SessionFactory sessionFactory = SingletonSessionFactory.getSessionFactory();
 
@@ -42,7 +49,9 @@ public class ApplicationRunner {
     private final PaymentPlanController paymentPlanController;
     private final PaymentOptionRepository paymentOptionRepository;
     private final MonthOptionRepository monthOptionRepository;
+    private final GroupFinancialsRepository groupFinancialsRepository;
     private final UserService userService;
+    private final StatisticsService statisticsService;
 
     public ApplicationRunner() {
         SessionFactory sessionFactory = SingletonSessionFactory.getSessionFactory();
@@ -57,12 +66,13 @@ public class ApplicationRunner {
         this.roundRepository = new RoundRepository();
         this.paymentOptionRepository = new PaymentOptionRepository();
         this.monthOptionRepository = new MonthOptionRepository();
+        this.groupFinancialsRepository = new GroupFinancialsRepository();
         
         // Initialize services
         MonthlyPaymentService monthlyPaymentService = new MonthlyPaymentService(monthlyPaymentRepository);
         PaymentService paymentService = new PaymentService(paymentRepository, groupRepository, participantRepository);
         RoundService roundService = new RoundService(roundRepository, groupRepository, participantRepository, userRepository);
-        GroupService groupService = new GroupService(sessionFactory, groupRepository, participantRepository, paymentPlanRepository, roundRepository, paymentRepository, userRepository);
+        GroupService groupService = new GroupService(sessionFactory, groupRepository, participantRepository, paymentPlanRepository, roundRepository, paymentRepository, userRepository, groupFinancialsRepository);
         this.userService = new UserService(sessionFactory, userRepository);
         ParticipantService participantService = new ParticipantService(participantRepository);
         PaymentPlanService paymentPlanService = new PaymentPlanService(sessionFactory, paymentPlanRepository);
@@ -90,8 +100,13 @@ public class ApplicationRunner {
             paymentOptionService
         );
 
+        ActivityLog.getInstance().start(Path.of("activity"));
+
         // Generate demo data
         this.demoDataGenerator.generateAllDemoData();
+
+        this.statisticsService = new StatisticsService(sessionFactory, paymentRepository, groupRepository, userRepository);
+        this.statisticsService.warmUp();
     }
 
     public void run() {
@@ -121,6 +136,10 @@ public class ApplicationRunner {
         } catch (Exception e) {
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            // The activity writer is a daemon thread: flush and sync its tail before the JVM exits
+            statisticsService.shutdown();
+            ActivityLog.getInstance().stop(5, TimeUnit.SECONDS);
         }
 
         System.out.println(" Goodbye!");
@@ -245,6 +264,12 @@ public class ApplicationRunner {
             System.out.println("9. View All Users");
             System.out.println("10. Decide monthly payment and months count");
 
+            System.out.println("\n=== Statistics ===");
+            System.out.println("11. Payment Statistics");
+            System.out.println("12. User Statistics");
+            System.out.println("13. System Statistics");
+            System.out.println("14. Activity Log");
+
             System.out.println("\n0. Logout");
             System.out.print("\nSelect an option: ");
 
@@ -263,6 +288,10 @@ public class ApplicationRunner {
                 case 8 -> manageRoundStatus();
                 case 9 -> viewAllUsers(session);
                 case 10 -> decideMonthlyPaymentAndMonthsCount();
+                case 11 -> paymentStatistics();
+                case 12 -> userStatistics();
+                case 13 -> systemStatistics();
+                case 14 -> activityLog();
                 default -> System.out.println("❌ Invalid option. Please try again.");
             }
         }
@@ -681,13 +710,23 @@ public class ApplicationRunner {
         }
     }
 
-//    private void paymentStatistics() {
-//        System.out.println("📊 Payment Statistics:");
-//        System.out.println("Total Paid: " + totalPayments + " SEK");
-//        System.out.println("Total Unpaid: " + totalUnpaid + " SEK");
-//        System.out.println("Paid: " + paidCount + ", Unpaid: " + unpaidCount);
-//        System.out.println("Average Payment: " + averagePayment + " SEK");
-//    }
+    private void paymentStatistics() {
+        PaymentStatistics statistics = statisticsService.getPaymentStatistics();
+        System.out.println("📊 Payment Statistics (as of " + statistics.getComputedAt().format(DISPLAY_TIME) + "):");
+        System.out.println("Total Paid: " + statistics.get(PaymentStatus.PAID).getAmount() + " SEK");
+        System.out.println("Total Unpaid: " + statistics.getUnpaidAmount() + " SEK");
+        System.out.println("Paid: " + statistics.get(PaymentStatus.PAID).getCount() + ", Unpaid: " + statistics.getUnpaidCount());
+        System.out.println("Average Payment: " + statistics.getAveragePayment() + " SEK");
+        System.out.println("Service Fees: " + statistics.get(PaymentStatus.PAID).getFees() + " SEK");
+        System.out.printf("Late Rate: %.1f%% (%d paid after the due date)%n",
+                statistics.getLateRate() * 100, statistics.getPaidLateCount());
+
+        System.out.printf("%-10s %-10s %-15s%n", "Status", "Count", "Amount");
+        for (PaymentStatus status : PaymentStatus.values()) {
+            PaymentTotals totals = statistics.get(status);
+            System.out.printf("%-10s %-10d %-15s%n", status, totals.getCount(), totals.getAmount());
+        }
+    }
 
     private void viewActiveRounds() {
         RoundRepository roundRepository = new RoundRepository();
@@ -733,15 +772,65 @@ public class ApplicationRunner {
     }
 
     private void userStatistics() {
-        System.out.println("User Statistics - Not implemented yet");
+        UserStatistics statistics = statisticsService.getUserStatistics();
+        System.out.println("📊 User Statistics (as of " + statistics.getComputedAt().format(DISPLAY_TIME) + "):");
+        System.out.printf("%-18s %-10s %-20s%n", "Role", "Users", "Active Participants");
+        for (Role role : Role.values()) {
+            System.out.printf("%-18s %-10d %-20d%n",
+                    role, statistics.getUsers(role), statistics.getActiveParticipants(role));
+        }
+        System.out.printf("%-18s %-10d %-20d%n",
+                "Total", statistics.getUserCount(), statistics.getActiveParticipantCount());
     }
 
     private void systemStatistics() {
-        System.out.println("System Statistics - Not implemented yet");
+        GroupStatistics groups = statisticsService.getGroupStatistics();
+        PaymentStatistics payments = statisticsService.getPaymentStatistics();
+        UserStatistics users = statisticsService.getUserStatistics();
+        System.out.println("📊 System Statistics (as of " + groups.getComputedAt().format(DISPLAY_TIME) + "):");
+        System.out.printf("%-20s %-10s %-15s%n", "Group Status", "Groups", "Total Amount");
+        for (GroupStatus status : GroupStatus.values()) {
+            System.out.printf("%-20s %-10d %-15s%n", status, groups.getCount(status), groups.getTotalAmount(status));
+        }
+        System.out.println("Groups: " + groups.getCount());
+        System.out.println("Users: " + users.getUserCount() + ", in active groups: " + users.getActiveParticipantCount());
+        System.out.println("Payments: " + payments.getCount() + ", collected: " + payments.get(PaymentStatus.PAID).getAmount() +
+                " SEK, outstanding: " + payments.getUnpaidAmount() + " SEK");
+        System.out.printf("Late Rate: %.1f%%%n", payments.getLateRate() * 100);
     }
 
     private void activityLog() {
-        System.out.println("Activity Log - Not implemented yet");
+        System.out.println("1. By User ID");
+        System.out.println("2. By Group ID");
+        System.out.print("Select an option: ");
+        int choice = scanner.nextInt();
+        System.out.print("Enter the ID: ");
+        long id = scanner.nextLong();
+        scanner.nextLine();
+
+        List<ActivityEntry> entries = switch (choice) {
+            case 1 -> ActivityLog.getInstance().findByUser(id, ACTIVITY_LOG_LIMIT);
+            case 2 -> ActivityLog.getInstance().findByGroup(id, ACTIVITY_LOG_LIMIT);
+            default -> null;
+        };
+        if (entries == null) {
+            System.out.println("❌ Invalid option.");
+            return;
+        }
+        if (entries.isEmpty()) {
+            System.out.println("No activity found.");
+            return;
+        }
+
+        System.out.printf("%-20s %-20s %-8s %-8s %s%n", "Time", "Activity", "User", "Group", "Details");
+        for (ActivityEntry entry : entries) {
+            System.out.printf("%-20s %-20s %-8s %-8s %s%n",
+                    entry.getOccurredAt().format(DISPLAY_TIME),
+                    entry.getType(),
+                    entry.getUserId() != null ? entry.getUserId() : "-",
+                    entry.getGroupId() != null ? entry.getGroupId() : "-",
+                    entry.getDetail());
+        }
     }
 
     private boolean handleNumericInput(String prompt, Consumer<Integer> action) {
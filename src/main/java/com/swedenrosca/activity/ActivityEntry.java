@@ -0,0 +1,48 @@
+package com.swedenrosca.activity;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * One line of the activity log: who did what in which group. User and group are null when they do not apply.
+ */
+public class ActivityEntry {
+    private final long timestamp;
+    private final ActivityType type;
+    private final Long userId;
+    private final Long groupId;
+    private final String detail;
+
+    public ActivityEntry(long timestamp, ActivityType type, Long userId, Long groupId, String detail) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.userId = userId;
+        this.groupId = groupId;
+        this.detail = detail != null ? detail : "";
+    }
+
+    /**
+     * Milliseconds since the epoch.
+     */
+    public long getTimestamp() { return timestamp; }
+    public ActivityType getType() { return type; }
+    public Long getUserId() { return userId; }
+    public Long getGroupId() { return groupId; }
+    public String getDetail() { return detail; }
+
+    public LocalDateTime getOccurredAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+
+    @Override
+    public String toString() {
+        return "ActivityEntry{" +
+                "occurredAt=" + getOccurredAt() +
+                ", type=" + type +
+                ", userId=" + userId +
+                ", groupId=" + groupId +
+                ", detail='" + detail + '\'' +
+                '}';
+    }
+}
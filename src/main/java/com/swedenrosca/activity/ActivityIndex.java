@@ -0,0 +1,50 @@
+package com.swedenrosca.activity;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Positions of the log entries per user or group id, in the order they were written.
+ */
+final class ActivityIndex {
+    private final Map<Long, Positions> positionsByKey = new HashMap<>();
+
+    synchronized void add(Long key, long position) {
+        if (key != null) {
+            positionsByKey.computeIfAbsent(key, k -> new Positions()).add(position);
+        }
+    }
+
+    /**
+     * The positions of the key's latest entries, newest first.
+     */
+    synchronized long[] latest(Long key, int limit) {
+        Positions positions = positionsByKey.get(key);
+        if (positions == null) {
+            return new long[0];
+        }
+        int count = Math.min(limit, positions.size);
+        long[] latest = new long[count];
+        for (int i = 0; i < count; i++) {
+            latest[i] = positions.values[positions.size - 1 - i];
+        }
+        return latest;
+    }
+
+    synchronized int keys() {
+        return positionsByKey.size();
+    }
+
+    private static final class Positions {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.swedenrosca.activity;
+
+import com.swedenrosca.event.DomainEvent;
+import com.swedenrosca.event.GroupActivated;
+import com.swedenrosca.event.GroupFilled;
+import com.swedenrosca.event.ParticipantJoined;
+import com.swedenrosca.event.PaymentPaid;
+import com.swedenrosca.event.RoundCompleted;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of who joined, paid or activated what. Services record their domain events after commit;
+ * recording only puts an entry in a lock-free ring buffer and never waits, and when the buffer is full the
+ * entry is dropped and counted. One writer thread drains the buffer in batches into the segment files and
+ * forces every batch to disk, so a crash loses at most the batch being written. Entries can be looked up
+ * by user or group through an index that is rebuilt from the files on start.
+ */
+public final class ActivityLog {
+    private static final Logger logger = LoggerFactory.getLogger(ActivityLog.class);
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final ActivityLog INSTANCE = new ActivityLog(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_SEGMENT_BYTES);
+
+    private final ActivityRingBuffer<ActivityEntry> buffer;
+    private final int batchSize;
+    private final long segmentBytes;
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile ActivitySegments segments;
+    private volatile boolean running;
+    private Thread writer;
+
+    public ActivityLog(int capacity, int batchSize, long segmentBytes) {
+        if (batchSize <= 0 || segmentBytes <= 0) {
+            throw new IllegalArgumentException("Batch size and segment size must be positive");
+        }
+        this.buffer = new ActivityRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public static ActivityLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Opens the log in the directory and starts the writer. Until then recording does nothing.
+     */
+    public synchronized void start(Path directory) {
+        if (running) {
+            return;
+        }
+        try {
+            segments = ActivitySegments.open(directory, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the activity log in " + directory, e);
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "activity-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writes what is still buffered, waiting up to the timeout, and closes the files.
+     */
+    public synchronized void stop(long timeout, TimeUnit unit) {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            logger.warn("Activity log writer still busy after {} {}; {} entries not written",
+                    timeout, unit, buffer.size());
+            return;
+        }
+        try {
+            segments.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the activity log: {}", e.toString());
+        }
+        logger.info("Activity log stopped: {}", statisticsSummary());
+    }
+
+    /**
+     * Records the event if it is one the activity log keeps. Never blocks; call it after the transaction committed.
+     */
+    public void record(DomainEvent event) {
+        if (!running) {
+            return;
+        }
+        ActivityEntry entry = toEntry(event);
+        if (entry == null) {
+            return;
+        }
+        if (buffer.offer(entry)) {
+            recorded.incrementAndGet();
+        } else if (dropped.incrementAndGet() % 1000 == 1) {
+            logger.warn("Activity log buffer full ({} entries); dropped {} so far", buffer.capacity(), dropped.get());
+        }
+    }
+
+    public void recordAll(Collection<? extends DomainEvent> events) {
+        for (DomainEvent event : events) {
+            record(event);
+        }
+    }
+
+    /**
+     * The user's latest entries that have been written, newest first.
+     */
+    public List<ActivityEntry> findByUser(Long userId, int limit) {
+        return find(userId, limit, true);
+    }
+
+    /**
+     * The group's latest entries that have been written, newest first.
+     */
+    public List<ActivityEntry> findByGroup(Long groupId, int limit) {
+        return find(groupId, limit, false);
+    }
+
+    public String statisticsSummary() {
+        ActivitySegments open = segments;
+        return String.format("Activity log: %d recorded, %d dropped, %d failed, %d queued, %d batches, %d entries in %d segments",
+                recorded.get(), dropped.get(), failed.get(), buffer.size(), batches.get(),
+                open != null ? open.getEntries() : 0, open != null ? open.getSegments() : 0);
+    }
+
+    private List<ActivityEntry> find(Long id, int limit, boolean byUser) {
+        ActivitySegments open = segments;
+        if (open == null || id == null || limit <= 0) {
+            return List.of();
+        }
+        try {
+            return byUser ? open.findByUser(id, limit) : open.findByGroup(id, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the activity log", e);
+        }
+    }
+
+    private void writeLoop() {
+        List<ActivityEntry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                segments.append(batch);
+                batches.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                failed.addAndGet(batch.size());
+                logger.error("Could not write {} activity log entries", batch.size(), e);
+            }
+        }
+    }
+
+    private static ActivityEntry toEntry(DomainEvent event) {
+        long timestamp = event.getOccurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (event instanceof ParticipantJoined joined) {
+            return new ActivityEntry(timestamp, ActivityType.PARTICIPANT_JOINED, joined.getUserId(), joined.getGroupId(),
+                    "turn " + joined.getTurnOrder());
+        }
+        if (event instanceof PaymentPaid paid) {
+            return new ActivityEntry(timestamp, ActivityType.PAYMENT_PAID, paid.getPayerId(), paid.getGroupId(),
+                    "payment " + paid.getPaymentId() + ", " + paid.getAmount() + " SEK");
+        }
+        if (event instanceof GroupActivated activated) {
+            return new ActivityEntry(timestamp, ActivityType.GROUP_ACTIVATED, null, activated.getGroupId(),
+                    activated.getRounds() + " rounds, " + activated.getPayments() + " payments");
+        }
+        if (event instanceof GroupFilled filled) {
+            return new ActivityEntry(timestamp, ActivityType.GROUP_FILLED, null, filled.getGroupId(),
+                    filled.getMembers() + " members");
+        }
+        if (event instanceof RoundCompleted completed) {
+            return new ActivityEntry(timestamp, ActivityType.ROUND_COMPLETED, completed.getWinnerUserId(),
+                    completed.getGroupId(), "round " + completed.getRoundId() + ", " + completed.getPayout() + " SEK paid out");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.swedenrosca.activity;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and one consumer. A producer claims a slot by moving the tail
+ * with a compare-and-set and then fills it; the consumer takes filled slots in order and stops at the first
+ * slot that is claimed but not filled yet. offer never waits: it fails when the buffer is full.
+ */
+final class ActivityRingBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    // Next slot to claim, moved by the producers
+    private final AtomicLong tail = new AtomicLong();
+    // Next slot to take, only written by the consumer
+    private volatile long head;
+
+    ActivityRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    boolean offer(E element) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.lazySet((int) (claimed & mask), element);
+        return true;
+    }
+
+    /**
+     * Moves up to max elements to the sink, oldest first. Only the consumer thread may call this.
+     */
+    int drainTo(Collection<? super E> sink, int max) {
+        long next = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (next & mask);
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            // Cleared before head moves on, so a producer reusing the slot never sees the old element
+            slots.lazySet(index, null);
+            sink.add(element);
+            next++;
+            drained++;
+        }
+        head = next;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
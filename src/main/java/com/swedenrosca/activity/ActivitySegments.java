@@ -0,0 +1,320 @@
+package com.swedenrosca.activity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The activity log on disk: numbered segment files activity-000001.log, activity-000002.log, ... that are
+ * only ever appended to. A new segment is started once the current one reaches the segment size.
+ * Each record is its payload length and CRC-32 followed by the payload (time, type, user, group, detail),
+ * so a record torn by a crash is recognised and cut off when the log is opened again.
+ * A position is the segment number in the high and the offset in the low 32 bits.
+ */
+final class ActivitySegments {
+    private static final Logger logger = LoggerFactory.getLogger(ActivitySegments.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("activity-(\\d{6})\\.log");
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_DETAIL_BYTES = 1024;
+    // Time, type, user, group and detail length, then the detail
+    private static final int MIN_PAYLOAD_BYTES = 8 + 1 + 8 + 8 + 2;
+    private static final int MAX_PAYLOAD_BYTES = MIN_PAYLOAD_BYTES + MAX_DETAIL_BYTES;
+    private static final long NONE = 0;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ActivityIndex byUser = new ActivityIndex();
+    private final ActivityIndex byGroup = new ActivityIndex();
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private FileChannel current;
+    private volatile int currentSegment;
+    private long currentSize;
+    private volatile long entries;
+
+    private ActivitySegments(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Opens the log in the directory, indexing the existing segments and cutting off a torn last record.
+     */
+    static ActivitySegments open(Path directory, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        ActivitySegments segments = new ActivitySegments(directory, segmentBytes);
+        List<Integer> numbers = segments.existingSegments();
+        for (int number : numbers) {
+            long valid = segments.scan(number);
+            long size = Files.size(segments.segmentPath(number));
+            if (valid < size) {
+                logger.warn("Activity log segment {} ends in a torn or corrupt record; cutting it at {} of {} bytes",
+                        number, valid, size);
+                try (FileChannel channel = FileChannel.open(segments.segmentPath(number), StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                    channel.force(true);
+                }
+            }
+        }
+        segments.openSegment(numbers.isEmpty() ? 1 : numbers.get(numbers.size() - 1));
+        logger.info("Activity log opened in {}: {} segments, {} entries", directory, Math.max(1, numbers.size()),
+                segments.entries);
+        return segments;
+    }
+
+    /**
+     * Writes the batch, forces it to disk and only then makes it visible in the index.
+     * Only the writer thread may call this.
+     */
+    void append(List<ActivityEntry> batch) throws IOException {
+        try {
+            write(batch);
+        } catch (IOException e) {
+            // The segment may now end in part of the batch; later records must not follow it there
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // Already failing
+            }
+            openSegment(currentSegment + 1);
+            throw e;
+        }
+    }
+
+    private void write(List<ActivityEntry> batch) throws IOException {
+        long[] positions = new long[batch.size()];
+        buffer.clear();
+        for (int i = 0; i < batch.size(); i++) {
+            ActivityEntry entry = batch.get(i);
+            byte[] detail = truncate(entry.getDetail().getBytes(StandardCharsets.UTF_8));
+            int recordBytes = HEADER_BYTES + MIN_PAYLOAD_BYTES + detail.length;
+            if (currentSize + buffer.position() + recordBytes > segmentBytes && currentSize + buffer.position() > 0) {
+                flush();
+                current.force(false);
+                current.close();
+                openSegment(currentSegment + 1);
+            }
+            if (buffer.remaining() < recordBytes) {
+                flush();
+            }
+            positions[i] = ((long) currentSegment << 32) | (currentSize + buffer.position());
+            encode(entry, detail);
+        }
+        flush();
+        current.force(false);
+
+        for (int i = 0; i < batch.size(); i++) {
+            byUser.add(batch.get(i).getUserId(), positions[i]);
+            byGroup.add(batch.get(i).getGroupId(), positions[i]);
+        }
+        entries += batch.size();
+    }
+
+    List<ActivityEntry> findByUser(Long userId, int limit) throws IOException {
+        return read(byUser.latest(userId, limit));
+    }
+
+    List<ActivityEntry> findByGroup(Long groupId, int limit) throws IOException {
+        return read(byGroup.latest(groupId, limit));
+    }
+
+    long getEntries() {
+        return entries;
+    }
+
+    int getSegments() {
+        return currentSegment;
+    }
+
+    void close() throws IOException {
+        if (current != null) {
+            current.force(true);
+            current.close();
+        }
+    }
+
+    private List<ActivityEntry> read(long[] positions) throws IOException {
+        List<ActivityEntry> result = new ArrayList<>(positions.length);
+        FileChannel channel = null;
+        int openSegment = -1;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + MAX_PAYLOAD_BYTES);
+        try {
+            for (long position : positions) {
+                int segment = (int) (position >>> 32);
+                if (segment != openSegment) {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                    channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ);
+                    openSegment = segment;
+                }
+                ActivityEntry entry = readRecord(channel, position & 0xFFFFFFFFL, record);
+                if (entry == null) {
+                    throw new IOException("No valid activity record at " + (position & 0xFFFFFFFFL) +
+                            " in segment " + segment);
+                }
+                result.add(entry);
+            }
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indexes the segment's records and returns the length of its valid part.
+     */
+    private long scan(int segment) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + MAX_PAYLOAD_BYTES);
+        long offset = 0;
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+            long size = channel.size();
+            while (offset < size) {
+                ActivityEntry entry = readRecord(channel, offset, record);
+                if (entry == null) {
+                    break;
+                }
+                long position = ((long) segment << 32) | offset;
+                byUser.add(entry.getUserId(), position);
+                byGroup.add(entry.getGroupId(), position);
+                entries++;
+                offset += record.limit();
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Reads the record at the offset into the buffer, or returns null if it is incomplete or corrupt.
+     * Afterwards the buffer's limit is the length of the record.
+     */
+    private ActivityEntry readRecord(FileChannel channel, long offset, ByteBuffer record) throws IOException {
+        record.clear().limit(HEADER_BYTES);
+        if (!readFully(channel, record, offset)) {
+            return null;
+        }
+        int length = record.getInt(0);
+        int checksum = record.getInt(4);
+        if (length < MIN_PAYLOAD_BYTES || length > MAX_PAYLOAD_BYTES) {
+            return null;
+        }
+        record.limit(HEADER_BYTES + length);
+        if (!readFully(channel, record, offset)) {
+            return null;
+        }
+        CRC32 check = new CRC32();
+        check.update(record.array(), HEADER_BYTES, length);
+        if ((int) check.getValue() != checksum) {
+            return null;
+        }
+        record.position(HEADER_BYTES);
+        long timestamp = record.getLong();
+        ActivityType type;
+        try {
+            type = ActivityType.forCode(record.get());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        long userId = record.getLong();
+        long groupId = record.getLong();
+        int detailLength = record.getShort() & 0xFFFF;
+        if (detailLength != record.remaining()) {
+            return null;
+        }
+        String detail = new String(record.array(), record.position(), detailLength, StandardCharsets.UTF_8);
+        return new ActivityEntry(timestamp, type, userId == NONE ? null : userId, groupId == NONE ? null : groupId,
+                detail);
+    }
+
+    /**
+     * Fills the buffer up to its limit, reading its position n from file offset start + n.
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long start) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, start + buffer.position());
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void encode(ActivityEntry entry, byte[] detail) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_BYTES);
+        buffer.putLong(entry.getTimestamp());
+        buffer.put(entry.getType().getCode());
+        buffer.putLong(entry.getUserId() != null ? entry.getUserId() : NONE);
+        buffer.putLong(entry.getGroupId() != null ? entry.getGroupId() : NONE);
+        buffer.putShort((short) detail.length);
+        buffer.put(detail);
+        int length = buffer.position() - start - HEADER_BYTES;
+        crc.reset();
+        crc.update(buffer.array(), start + HEADER_BYTES, length);
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            currentSize += current.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void openSegment(int number) throws IOException {
+        current = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentSegment = number;
+        currentSize = current.size();
+    }
+
+    private List<Integer> existingSegments() throws IOException {
+        List<Integer> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Integer.parseInt(matcher.group(1)));
+                }
+            });
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("activity-%06d.log", number));
+    }
+
+    private static byte[] truncate(byte[] detail) {
+        if (detail.length <= MAX_DETAIL_BYTES) {
+            return detail;
+        }
+        // Cut at a character boundary: UTF-8 continuation bytes are 10xxxxxx
+        int length = MAX_DETAIL_BYTES;
+        while (length > 0 && (detail[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        byte[] truncated = new byte[length];
+        System.arraycopy(detail, 0, truncated, 0, length);
+        return truncated;
+    }
+}
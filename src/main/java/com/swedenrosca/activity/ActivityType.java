@@ -0,0 +1,31 @@
+package com.swedenrosca.activity;
+
+/**
+ * What an activity log entry records. The code is what is stored in the log files, so it must never change.
+ */
+public enum ActivityType {
+    PARTICIPANT_JOINED(1),
+    GROUP_FILLED(2),
+    GROUP_ACTIVATED(3),
+    PAYMENT_PAID(4),
+    ROUND_COMPLETED(5);
+
+    private final byte code;
+
+    ActivityType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static ActivityType forCode(byte code) {
+        for (ActivityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown activity type code " + code);
+    }
+}
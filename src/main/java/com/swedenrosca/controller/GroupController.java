@@ -84,8 +84,8 @@ public class GroupController {
 
     public void matchAndDistribute() {
         try {
-            groupService.matchAndDistribute();
-            System.out.println("Match and distribute process completed successfully!");
+            GroupMatchingEngine.Report report = groupService.matchAndDistribute();
+            System.out.println("Match and distribute process completed successfully! " + report);
         } catch (Exception e) {
             logger.error("Failed to match and distribute: {}", e.getMessage());
             System.out.println("Failed to match and distribute: " + e.getMessage());
@@ -0,0 +1,14 @@
+package com.swedenrosca.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Something that happened in the domain, published on the {@link DomainEventBus} after its transaction committed.
+ */
+public abstract class DomainEvent {
+    private final LocalDateTime occurredAt = LocalDateTime.now();
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,188 @@
+package com.swedenrosca.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process publish/subscribe for {@link DomainEvent}s. Publishing only enqueues: every listener has
+ * its own bounded queue, drained in order by a small shared pool, so a slow or failing listener neither
+ * blocks the publisher nor delays the other listeners. A listener whose queue is full loses the event,
+ * which is logged and counted.
+ */
+public final class DomainEventBus {
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventBus.class);
+
+    public static final int DEFAULT_THREADS = 2;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    // Events a listener handles before giving its thread to the next listener
+    private static final int DRAIN_BATCH = 64;
+
+    private static final DomainEventBus INSTANCE = new DomainEventBus(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY);
+
+    private final ExecutorService executor;
+    private final int queueCapacity;
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    public DomainEventBus(int threads, int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Threads and queue capacity must be positive");
+        }
+        this.executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory());
+        this.queueCapacity = queueCapacity;
+    }
+
+    public static DomainEventBus getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a listener for events of the given type and its subtypes; DomainEvent.class receives everything.
+     */
+    public <E extends DomainEvent> void subscribe(Class<E> type, String name, DomainEventListener<? super E> listener) {
+        subscriptions.add(new Subscription<>(type, name, listener, queueCapacity));
+        logger.info("Listener '{}' subscribed to {}", name, type.getSimpleName());
+    }
+
+    /**
+     * Hands the event to every matching listener's queue and returns without waiting for them.
+     * Publish after the transaction that produced the event has committed.
+     */
+    public void publish(DomainEvent event) {
+        for (Subscription<?> subscription : subscriptions) {
+            if (subscription.type.isInstance(event)) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    public void publishAll(Collection<? extends DomainEvent> events) {
+        for (DomainEvent event : events) {
+            publish(event);
+        }
+    }
+
+    /**
+     * Stops accepting work and gives queued events up to the timeout to be delivered.
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, unit)) {
+                logger.warn("Event listeners still busy after {} {}; {} events not delivered",
+                        timeout, unit, queuedEvents());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String statisticsSummary() {
+        List<String> lines = new ArrayList<>();
+        for (Subscription<?> subscription : subscriptions) {
+            lines.add(String.format("%s: %d delivered, %d failed, %d dropped, %d queued",
+                    subscription.name, subscription.delivered.get(), subscription.failed.get(),
+                    subscription.dropped.get(), subscription.queue.size()));
+        }
+        return String.join(System.lineSeparator(), lines);
+    }
+
+    private int queuedEvents() {
+        int queued = 0;
+        for (Subscription<?> subscription : subscriptions) {
+            queued += subscription.queue.size();
+        }
+        return queued;
+    }
+
+    private final class Subscription<E extends DomainEvent> {
+        private final Class<E> type;
+        private final String name;
+        private final DomainEventListener<? super E> listener;
+        private final BlockingQueue<E> queue;
+        // True while a drain task for this listener is queued or running, so it never runs on two threads
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        Subscription(Class<E> type, String name, DomainEventListener<? super E> listener, int capacity) {
+            this.type = type;
+            this.name = name;
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void offer(DomainEvent event) {
+            if (!queue.offer(type.cast(event))) {
+                long count = dropped.incrementAndGet();
+                logger.warn("Listener '{}' is {} events behind; dropped {} ({} dropped so far)",
+                        name, queue.size(), event, count);
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    logger.debug("Event bus is shut down; '{}' keeps {} undelivered events", name, queue.size());
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                for (int i = 0; i < DRAIN_BATCH; i++) {
+                    E event = queue.poll();
+                    if (event == null) {
+                        break;
+                    }
+                    try {
+                        listener.onEvent(event);
+                        delivered.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        logger.error("Listener '{}' failed on {}", name, event, e);
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // Events that arrived during the batch, or the rest of a long backlog
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "domain-events-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
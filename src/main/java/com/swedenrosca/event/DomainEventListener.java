@@ -0,0 +1,6 @@
+package com.swedenrosca.event;
+
+@FunctionalInterface
+public interface DomainEventListener<E extends DomainEvent> {
+    void onEvent(E event);
+}
@@ -0,0 +1,16 @@
+package com.swedenrosca.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes every domain event to the "events" log.
+ */
+public class EventLogListener implements DomainEventListener<DomainEvent> {
+    private static final Logger logger = LoggerFactory.getLogger("events");
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        logger.info("{} at {}", event, event.getOccurredAt());
+    }
+}
@@ -0,0 +1,22 @@
+package com.swedenrosca.event;
+
+public class GroupActivated extends DomainEvent {
+    private final Long groupId;
+    private final int rounds;
+    private final int payments;
+
+    public GroupActivated(Long groupId, int rounds, int payments) {
+        this.groupId = groupId;
+        this.rounds = rounds;
+        this.payments = payments;
+    }
+
+    public Long getGroupId() { return groupId; }
+    public int getRounds() { return rounds; }
+    public int getPayments() { return payments; }
+
+    @Override
+    public String toString() {
+        return "GroupActivated{groupId=" + groupId + ", rounds=" + rounds + ", payments=" + payments + '}';
+    }
+}
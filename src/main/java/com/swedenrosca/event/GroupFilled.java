@@ -0,0 +1,22 @@
+package com.swedenrosca.event;
+
+/**
+ * The last free turn of a group was taken; the group is now waiting for approval.
+ */
+public class GroupFilled extends DomainEvent {
+    private final Long groupId;
+    private final int members;
+
+    public GroupFilled(Long groupId, int members) {
+        this.groupId = groupId;
+        this.members = members;
+    }
+
+    public Long getGroupId() { return groupId; }
+    public int getMembers() { return members; }
+
+    @Override
+    public String toString() {
+        return "GroupFilled{groupId=" + groupId + ", members=" + members + '}';
+    }
+}
@@ -0,0 +1,22 @@
+package com.swedenrosca.event;
+
+public class ParticipantJoined extends DomainEvent {
+    private final Long groupId;
+    private final Long userId;
+    private final int turnOrder;
+
+    public ParticipantJoined(Long groupId, Long userId, int turnOrder) {
+        this.groupId = groupId;
+        this.userId = userId;
+        this.turnOrder = turnOrder;
+    }
+
+    public Long getGroupId() { return groupId; }
+    public Long getUserId() { return userId; }
+    public int getTurnOrder() { return turnOrder; }
+
+    @Override
+    public String toString() {
+        return "ParticipantJoined{groupId=" + groupId + ", userId=" + userId + ", turnOrder=" + turnOrder + '}';
+    }
+}
@@ -0,0 +1,31 @@
+package com.swedenrosca.event;
+
+import java.math.BigDecimal;
+
+public class PaymentPaid extends DomainEvent {
+    private final Long paymentId;
+    private final Long groupId;
+    private final Long roundId;
+    private final Long payerId;
+    private final BigDecimal amount;
+
+    public PaymentPaid(Long paymentId, Long groupId, Long roundId, Long payerId, BigDecimal amount) {
+        this.paymentId = paymentId;
+        this.groupId = groupId;
+        this.roundId = roundId;
+        this.payerId = payerId;
+        this.amount = amount;
+    }
+
+    public Long getPaymentId() { return paymentId; }
+    public Long getGroupId() { return groupId; }
+    public Long getRoundId() { return roundId; }
+    public Long getPayerId() { return payerId; }
+    public BigDecimal getAmount() { return amount; }
+
+    @Override
+    public String toString() {
+        return "PaymentPaid{paymentId=" + paymentId + ", groupId=" + groupId + ", roundId=" + roundId +
+                ", payerId=" + payerId + ", amount=" + amount + '}';
+    }
+}
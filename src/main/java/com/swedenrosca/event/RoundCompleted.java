@@ -0,0 +1,31 @@
+package com.swedenrosca.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Every payment of a round was paid. The winner is null if the round had none, in which case nothing was paid out.
+ */
+public class RoundCompleted extends DomainEvent {
+    private final Long roundId;
+    private final Long groupId;
+    private final Long winnerUserId;
+    private final BigDecimal payout;
+
+    public RoundCompleted(Long roundId, Long groupId, Long winnerUserId, BigDecimal payout) {
+        this.roundId = roundId;
+        this.groupId = groupId;
+        this.winnerUserId = winnerUserId;
+        this.payout = payout;
+    }
+
+    public Long getRoundId() { return roundId; }
+    public Long getGroupId() { return groupId; }
+    public Long getWinnerUserId() { return winnerUserId; }
+    public BigDecimal getPayout() { return payout; }
+
+    @Override
+    public String toString() {
+        return "RoundCompleted{roundId=" + roundId + ", groupId=" + groupId + ", winnerUserId=" + winnerUserId +
+                ", payout=" + payout + '}';
+    }
+}
@@ -0,0 +1,259 @@
+package com.swedenrosca.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The compact columnar payment export format.
+ * <pre>
+ * file   := "SRPX" version:u8 columnCount:varint (name:string)* block* 0:varint
+ * block  := rowCount:varint (byteLength:varint columnData)*   -- columns in header order
+ * string := byteLength:varint utf8
+ * </pre>
+ * Column data, with values zigzag varints:
+ * <ul>
+ *   <li>long columns: a presence bitmap if the column is nullable, then the present values, as deltas from the
+ *       previous present value for delta columns (ids and timestamps)</li>
+ *   <li>amounts: long columns of minor units (hundredths of a krona)</li>
+ *   <li>timestamps: delta long columns of microseconds since 1970-01-01T00:00, as local date-times</li>
+ *   <li>enums: a dictionary (count:varint string*) of the block's values, then one byte per row,
+ *       0 for null and otherwise the 1-based dictionary index</li>
+ * </ul>
+ */
+final class ColumnarFormat {
+
+    static final byte[] MAGIC = {'S', 'R', 'P', 'X'};
+    static final int VERSION = 1;
+    static final int DEFAULT_BLOCK_ROWS = 65_536;
+    static final String[] COLUMNS = {
+            "id:delta", "group_id:nullable", "round_id:nullable", "creator_id:nullable",
+            "amount:minor", "service_fee:nullable,minor", "status:dictionary", "payment_type:dictionary",
+            "due_date:delta,micros", "created_at:delta,micros", "paid_at:nullable,delta,micros"};
+
+    private static final int MINOR_UNIT_SCALE = 2;
+
+    private ColumnarFormat() {}
+
+    static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, MINOR_UNIT_SCALE);
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated payment export");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in payment export");
+    }
+
+    static long readVarint(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in payment export");
+    }
+
+    static void writeZigzag(OutputStream out, long value) throws IOException {
+        writeVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readZigzag(ByteBuffer in) throws IOException {
+        long value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(InputStream in) throws IOException {
+        int length = Math.toIntExact(readVarint(in));
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("Truncated payment export");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static String readString(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[Math.toIntExact(readVarint(in))];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One block's values of a long column.
+     */
+    static final class LongColumn {
+        private final boolean nullable;
+        private final boolean delta;
+        private final long[] values;
+        private final boolean[] present;
+        private int size;
+
+        LongColumn(int capacity, boolean nullable, boolean delta) {
+            this.nullable = nullable;
+            this.delta = delta;
+            this.values = new long[capacity];
+            this.present = new boolean[capacity];
+        }
+
+        void add(Long value) {
+            if (value == null && !nullable) {
+                throw new IllegalArgumentException("Null in a non-null column");
+            }
+            present[size] = value != null;
+            values[size++] = value != null ? value : 0;
+        }
+
+        void encode(ByteArrayOutputStream out) throws IOException {
+            if (nullable) {
+                int bits = 0;
+                for (int i = 0; i < size; i++) {
+                    if (present[i]) {
+                        bits |= 1 << (i & 7);
+                    }
+                    if ((i & 7) == 7 || i == size - 1) {
+                        out.write(bits);
+                        bits = 0;
+                    }
+                }
+            }
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                if (present[i]) {
+                    writeZigzag(out, delta ? values[i] - previous : values[i]);
+                    previous = values[i];
+                }
+            }
+            size = 0;
+        }
+
+        /**
+         * Decodes a column of the given number of rows; null entries are absent values.
+         */
+        static Long[] decode(ByteBuffer in, int rows, boolean nullable, boolean delta) throws IOException {
+            boolean[] present = new boolean[rows];
+            if (nullable) {
+                for (int i = 0; i < rows; i += 8) {
+                    int bits = in.get() & 0xFF;
+                    for (int j = i; j < Math.min(i + 8, rows); j++) {
+                        present[j] = (bits & (1 << (j & 7))) != 0;
+                    }
+                }
+            } else {
+                Arrays.fill(present, true);
+            }
+            Long[] values = new Long[rows];
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                if (present[i]) {
+                    long value = readZigzag(in);
+                    previous = delta ? previous + value : value;
+                    values[i] = previous;
+                }
+            }
+            return values;
+        }
+    }
+
+    /**
+     * One block's values of an enum column, dictionary encoded.
+     */
+    static final class EnumColumn {
+        private final byte[] codes;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final String[] names = new String[256];
+        private int size;
+
+        EnumColumn(int capacity) {
+            this.codes = new byte[capacity];
+        }
+
+        void add(Enum<?> value) {
+            if (value == null) {
+                codes[size++] = 0;
+                return;
+            }
+            Integer code = dictionary.get(value.name());
+            if (code == null) {
+                code = dictionary.size() + 1;
+                if (code > 255) {
+                    throw new IllegalStateException("More than 255 distinct values in a dictionary column");
+                }
+                dictionary.put(value.name(), code);
+                names[code] = value.name();
+            }
+            codes[size++] = (byte) (int) code;
+        }
+
+        void encode(ByteArrayOutputStream out) throws IOException {
+            writeVarint(out, dictionary.size());
+            for (int code = 1; code <= dictionary.size(); code++) {
+                writeString(out, names[code]);
+            }
+            out.write(codes, 0, size);
+            dictionary.clear();
+            size = 0;
+        }
+
+        static String[] decode(ByteBuffer in, int rows) throws IOException {
+            String[] dictionary = new String[Math.toIntExact(readVarint(in)) + 1];
+            for (int code = 1; code < dictionary.length; code++) {
+                dictionary[code] = readString(in);
+            }
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = dictionary[in.get() & 0xFF];
+            }
+            return values;
+        }
+    }
+}
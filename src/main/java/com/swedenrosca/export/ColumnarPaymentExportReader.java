@@ -0,0 +1,144 @@
+package com.swedenrosca.export;
+
+import com.swedenrosca.export.ColumnarFormat.EnumColumn;
+import com.swedenrosca.export.ColumnarFormat.LongColumn;
+import com.swedenrosca.model.PaymentBy;
+import com.swedenrosca.model.PaymentExportRow;
+import com.swedenrosca.model.PaymentStatus;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a file written by {@link ColumnarPaymentExportWriter} back as rows, one block at a time.
+ */
+public class ColumnarPaymentExportReader {
+    private final Path file;
+
+    public ColumnarPaymentExportReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * The file's rows in export order. Closing the stream closes the file.
+     */
+    public Stream<PaymentExportRow> rows() throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        try {
+            readHeader(in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+        return StreamSupport.stream(new BlockSpliterator(in), false)
+                .onClose(() -> {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private void readHeader(InputStream in) throws IOException {
+        byte[] magic = in.readNBytes(ColumnarFormat.MAGIC.length);
+        if (!Arrays.equals(magic, ColumnarFormat.MAGIC)) {
+            throw new IOException(file + " is not a payment export");
+        }
+        int version = in.read();
+        if (version != ColumnarFormat.VERSION) {
+            throw new IOException(file + " has unsupported version " + version);
+        }
+        String[] names = new String[Math.toIntExact(ColumnarFormat.readVarint(in))];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = ColumnarFormat.readString(in);
+        }
+        if (!Arrays.equals(names, ColumnarFormat.COLUMNS)) {
+            throw new IOException(file + " has unexpected columns " + Arrays.toString(names));
+        }
+    }
+
+    private static final class BlockSpliterator extends Spliterators.AbstractSpliterator<PaymentExportRow> {
+        private final InputStream in;
+        private final Deque<PaymentExportRow> pending = new ArrayDeque<>();
+        private boolean finished;
+
+        BlockSpliterator(InputStream in) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.in = in;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super PaymentExportRow> action) {
+            if (pending.isEmpty() && !finished) {
+                try {
+                    readBlock();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+            action.accept(pending.poll());
+            return true;
+        }
+
+        private void readBlock() throws IOException {
+            int rows = Math.toIntExact(ColumnarFormat.readVarint(in));
+            if (rows == 0) {
+                finished = true;
+                return;
+            }
+            Long[] id = LongColumn.decode(column(), rows, false, true);
+            Long[] groupId = LongColumn.decode(column(), rows, true, false);
+            Long[] roundId = LongColumn.decode(column(), rows, true, false);
+            Long[] creatorId = LongColumn.decode(column(), rows, true, false);
+            Long[] amount = LongColumn.decode(column(), rows, false, false);
+            Long[] serviceFee = LongColumn.decode(column(), rows, true, false);
+            String[] status = EnumColumn.decode(column(), rows);
+            String[] paymentBy = EnumColumn.decode(column(), rows);
+            Long[] dueDate = LongColumn.decode(column(), rows, false, true);
+            Long[] createdAt = LongColumn.decode(column(), rows, false, true);
+            Long[] paidAt = LongColumn.decode(column(), rows, true, true);
+            for (int i = 0; i < rows; i++) {
+                pending.add(new PaymentExportRow(id[i], groupId[i], roundId[i], creatorId[i], amount(amount[i]),
+                        amount(serviceFee[i]), status[i] != null ? PaymentStatus.valueOf(status[i]) : null,
+                        paymentBy[i] != null ? PaymentBy.valueOf(paymentBy[i]) : null,
+                        time(dueDate[i]), time(createdAt[i]), time(paidAt[i])));
+            }
+        }
+
+        private ByteBuffer column() throws IOException {
+            int length = Math.toIntExact(ColumnarFormat.readVarint(in));
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new IOException("Truncated payment export");
+            }
+            return ByteBuffer.wrap(bytes);
+        }
+
+        private static BigDecimal amount(Long minorUnits) {
+            return minorUnits != null ? ColumnarFormat.fromMinorUnits(minorUnits) : null;
+        }
+
+        private static LocalDateTime time(Long micros) {
+            return micros != null ? ColumnarFormat.fromMicros(micros) : null;
+        }
+    }
+}
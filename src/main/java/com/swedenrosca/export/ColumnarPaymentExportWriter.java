@@ -0,0 +1,136 @@
+package com.swedenrosca.export;
+
+import com.swedenrosca.export.ColumnarFormat.EnumColumn;
+import com.swedenrosca.export.ColumnarFormat.LongColumn;
+import com.swedenrosca.model.PaymentExportRow;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Writes the export in the {@link ColumnarFormat}: rows are collected into fixed-size blocks of primitive
+ * arrays and each full block is written column by column, so memory use is one block whatever the export size.
+ */
+public class ColumnarPaymentExportWriter implements PaymentExportWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream out;
+    private final int blockRows;
+    private final LongColumn id;
+    private final LongColumn groupId;
+    private final LongColumn roundId;
+    private final LongColumn creatorId;
+    private final LongColumn amount;
+    private final LongColumn serviceFee;
+    private final EnumColumn status;
+    private final EnumColumn paymentBy;
+    private final LongColumn dueDate;
+    private final LongColumn createdAt;
+    private final LongColumn paidAt;
+    // One column's encoded bytes, reused for every column of every block
+    private final ByteArrayOutputStream column = new ByteArrayOutputStream(BUFFER_SIZE);
+    private int rows;
+
+    public ColumnarPaymentExportWriter(Path file) throws IOException {
+        this(file, ColumnarFormat.DEFAULT_BLOCK_ROWS);
+    }
+
+    public ColumnarPaymentExportWriter(Path file, int blockRows) throws IOException {
+        if (blockRows <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.blockRows = blockRows;
+        this.id = new LongColumn(blockRows, false, true);
+        this.groupId = new LongColumn(blockRows, true, false);
+        this.roundId = new LongColumn(blockRows, true, false);
+        this.creatorId = new LongColumn(blockRows, true, false);
+        this.amount = new LongColumn(blockRows, false, false);
+        this.serviceFee = new LongColumn(blockRows, true, false);
+        this.status = new EnumColumn(blockRows);
+        this.paymentBy = new EnumColumn(blockRows);
+        this.dueDate = new LongColumn(blockRows, false, true);
+        this.createdAt = new LongColumn(blockRows, false, true);
+        this.paidAt = new LongColumn(blockRows, true, true);
+
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+        out.write(ColumnarFormat.MAGIC);
+        out.write(ColumnarFormat.VERSION);
+        ColumnarFormat.writeVarint(out, ColumnarFormat.COLUMNS.length);
+        for (String name : ColumnarFormat.COLUMNS) {
+            ColumnarFormat.writeString(out, name);
+        }
+    }
+
+    @Override
+    public void write(PaymentExportRow row) throws IOException {
+        id.add(row.getId());
+        groupId.add(row.getGroupId());
+        roundId.add(row.getRoundId());
+        creatorId.add(row.getCreatorId());
+        amount.add(ColumnarFormat.toMinorUnits(row.getAmount()));
+        serviceFee.add(row.getServiceFee() != null ? ColumnarFormat.toMinorUnits(row.getServiceFee()) : null);
+        status.add(row.getStatus());
+        paymentBy.add(row.getPaymentBy());
+        dueDate.add(micros(row.getDueDate()));
+        createdAt.add(micros(row.getCreatedAt()));
+        paidAt.add(micros(row.getPaidAt()));
+        if (++rows == blockRows) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        ColumnarFormat.writeVarint(out, rows);
+        id.encode(column);
+        writeColumn();
+        groupId.encode(column);
+        writeColumn();
+        roundId.encode(column);
+        writeColumn();
+        creatorId.encode(column);
+        writeColumn();
+        amount.encode(column);
+        writeColumn();
+        serviceFee.encode(column);
+        writeColumn();
+        status.encode(column);
+        writeColumn();
+        paymentBy.encode(column);
+        writeColumn();
+        dueDate.encode(column);
+        writeColumn();
+        createdAt.encode(column);
+        writeColumn();
+        paidAt.encode(column);
+        writeColumn();
+        rows = 0;
+    }
+
+    private void writeColumn() throws IOException {
+        ColumnarFormat.writeVarint(out, column.size());
+        column.writeTo(out);
+        column.reset();
+    }
+
+    private static Long micros(LocalDateTime time) {
+        return time != null ? ColumnarFormat.toMicros(time) : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rows > 0) {
+                writeBlock();
+            }
+            // An empty block ends the file, so a truncated file is recognised as such
+            ColumnarFormat.writeVarint(out, 0);
+        } finally {
+            out.close();
+        }
+    }
+}
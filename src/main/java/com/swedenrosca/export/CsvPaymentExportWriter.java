@@ -0,0 +1,68 @@
+package com.swedenrosca.export;
+
+import com.swedenrosca.model.PaymentExportRow;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes the export as CSV with a header row. Null values are empty fields, amounts are plain decimals
+ * and timestamps ISO-8601 local date-times; no field needs quoting.
+ */
+public class CsvPaymentExportWriter implements PaymentExportWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String HEADER =
+            "id,group_id,round_id,creator_id,amount,service_fee,status,payment_type,due_date,created_at,paid_at";
+
+    private final BufferedWriter writer;
+    // Reused for every row, so writing allocates little besides the field strings
+    private final StringBuilder line = new StringBuilder(160);
+
+    public CsvPaymentExportWriter(Path file) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+        writer.write(HEADER);
+        writer.newLine();
+    }
+
+    @Override
+    public void write(PaymentExportRow row) throws IOException {
+        line.setLength(0);
+        line.append(row.getId()).append(',');
+        field(row.getGroupId()).append(',');
+        field(row.getRoundId()).append(',');
+        field(row.getCreatorId()).append(',');
+        field(row.getAmount() != null ? row.getAmount().toPlainString() : null).append(',');
+        field(row.getServiceFee() != null ? row.getServiceFee().toPlainString() : null).append(',');
+        field(row.getStatus()).append(',');
+        field(row.getPaymentBy()).append(',');
+        timestamp(row.getDueDate()).append(',');
+        timestamp(row.getCreatedAt()).append(',');
+        timestamp(row.getPaidAt());
+        writer.append(line);
+        writer.newLine();
+    }
+
+    private StringBuilder field(Object value) {
+        return value != null ? line.append(value) : line;
+    }
+
+    // LocalDateTime.toString() leaves out zero seconds; the formatter always writes them
+    private StringBuilder timestamp(LocalDateTime value) {
+        if (value != null) {
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(value, line);
+        }
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.swedenrosca.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum PaymentExportFormat {
+    CSV("csv"),
+    COLUMNAR("pcol");
+
+    private final String extension;
+
+    PaymentExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public PaymentExportWriter open(Path file) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvPaymentExportWriter(file);
+            case COLUMNAR -> new ColumnarPaymentExportWriter(file);
+        };
+    }
+
+    /**
+     * The format whose extension the file has, CSV for anything else.
+     */
+    public static PaymentExportFormat forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith("." + COLUMNAR.extension) ? COLUMNAR : CSV;
+    }
+}
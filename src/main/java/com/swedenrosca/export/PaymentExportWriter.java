@@ -0,0 +1,14 @@
+package com.swedenrosca.export;
+
+import com.swedenrosca.model.PaymentExportRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes payment export rows to a file as they are streamed from the database. Closing flushes what is buffered.
+ */
+public interface PaymentExportWriter extends Closeable {
+
+    void write(PaymentExportRow row) throws IOException;
+}
@@ -0,0 +1,92 @@
+package com.swedenrosca.export;
+
+import com.swedenrosca.model.PaymentExportRow;
+import com.swedenrosca.repository.PaymentRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports the whole payments table. Rows are read through a forward-only cursor as projections and written
+ * as they arrive, so neither the result set nor the entities are ever held in memory. The file is written
+ * next to the target and moved into place once complete, so a failed export never leaves a partial file.
+ */
+public class PaymentExporter {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentExporter.class);
+
+    // Rows per round trip; large, since rows are small and only passed through
+    public static final int DEFAULT_FETCH_SIZE = 5000;
+
+    private final SessionFactory sessionFactory;
+    private final PaymentRepository paymentRepository;
+    private final int fetchSize;
+
+    public PaymentExporter(SessionFactory sessionFactory, PaymentRepository paymentRepository) {
+        this(sessionFactory, paymentRepository, DEFAULT_FETCH_SIZE);
+    }
+
+    public PaymentExporter(SessionFactory sessionFactory, PaymentRepository paymentRepository, int fetchSize) {
+        this.sessionFactory = sessionFactory;
+        this.paymentRepository = paymentRepository;
+        this.fetchSize = fetchSize;
+    }
+
+    public Report export(Path target, PaymentExportFormat format) throws IOException {
+        long start = System.nanoTime();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        long rows = 0;
+        try {
+            try (PaymentExportWriter writer = format.open(partial);
+                 Session session = sessionFactory.openSession();
+                 Stream<PaymentExportRow> stream = paymentRepository.streamExportRows(session, fetchSize)) {
+                for (Iterator<PaymentExportRow> iterator = stream.iterator(); iterator.hasNext(); ) {
+                    writer.write(iterator.next());
+                    rows++;
+                }
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Report report = new Report(target, format, rows, Files.size(target), (System.nanoTime() - start) / 1_000_000);
+        logger.info("Payments exported: {}", report);
+        return report;
+    }
+
+    public static class Report {
+        private final Path file;
+        private final PaymentExportFormat format;
+        private final long rows;
+        private final long bytes;
+        private final long durationMillis;
+
+        Report(Path file, PaymentExportFormat format, long rows, long bytes, long durationMillis) {
+            this.file = file;
+            this.format = format;
+            this.rows = rows;
+            this.bytes = bytes;
+            this.durationMillis = durationMillis;
+        }
+
+        public Path getFile() { return file; }
+        public PaymentExportFormat getFormat() { return format; }
+        public long getRows() { return rows; }
+        public long getBytes() { return bytes; }
+        public long getDurationMillis() { return durationMillis; }
+
+        @Override
+        public String toString() {
+            return "file=" + file + ", format=" + format + ", rows=" + rows + ", bytes=" + bytes +
+                    ", duration=" + durationMillis + " ms";
+        }
+    }
+}
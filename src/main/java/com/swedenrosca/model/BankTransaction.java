@@ -0,0 +1,76 @@
+package com.swedenrosca.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An incoming bank transfer imported from a statement, keyed by the bank's own reference so a statement
+ * can be imported again without paying anything twice. Transfers that matched no open payment are kept
+ * with no payment id, for manual follow-up.
+ */
+@Entity
+@Table(name = "bank_transactions")
+public class BankTransaction {
+
+    @Id
+    @Column(name = "reference", length = 100)
+    private String reference;
+
+    @Column(name = "booking_date", nullable = false)
+    private LocalDate bookingDate;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "clearing_number")
+    private String clearingNumber;
+
+    @Column(name = "bank_account")
+    private String bankAccount;
+
+    // Not a foreign key: the bank ledger outlives the payments it settled
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(name = "source", nullable = false)
+    private String source;
+
+    @Column(name = "imported_at", nullable = false)
+    private LocalDateTime importedAt;
+
+    public BankTransaction() {}
+
+    public BankTransaction(String reference, LocalDate bookingDate, BigDecimal amount, String clearingNumber,
+                           String bankAccount, Long paymentId, String source, LocalDateTime importedAt) {
+        this.reference = reference;
+        this.bookingDate = bookingDate;
+        this.amount = amount;
+        this.clearingNumber = clearingNumber;
+        this.bankAccount = bankAccount;
+        this.paymentId = paymentId;
+        this.source = source;
+        this.importedAt = importedAt;
+    }
+
+    public String getReference() { return reference; }
+    public LocalDate getBookingDate() { return bookingDate; }
+    public BigDecimal getAmount() { return amount; }
+    public String getClearingNumber() { return clearingNumber; }
+    public String getBankAccount() { return bankAccount; }
+    public Long getPaymentId() { return paymentId; }
+    public String getSource() { return source; }
+    public LocalDateTime getImportedAt() { return importedAt; }
+
+    public boolean isMatched() {
+        return paymentId != null;
+    }
+
+    @Override
+    public String toString() {
+        return "BankTransaction{reference='" + reference + "', bookingDate=" + bookingDate + ", amount=" + amount +
+                ", paymentId=" + paymentId + "}";
+    }
+}
@@ -11,7 +11,8 @@ import java.util.List;
 public class Group {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "group_seq")
+    @SequenceGenerator(name = "group_seq", sequenceName = "group_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "group_name")
@@ -50,6 +51,10 @@ public class Group {
     @JoinColumn(name = "creator_id")
     private User creator;
 
+    // Bumped on every change and on every join, so concurrent joins to a group conflict instead of overfilling it
+    @Version
+    private Long version;
+
     // No-arg constructor
     public Group() {}
 
@@ -90,6 +95,8 @@ public class Group {
     public User getCreator() { return creator; }
     public void setCreator(User creator) { this.creator = creator; }
 
+    public Long getVersion() { return version; }
+
     public String generateGroupName(LocalDateTime startDate, LocalDateTime endDate, BigDecimal totalAmount) {
         return String.format("Group %s-%s (%s SEK)", 
             startDate.toLocalDate(), 
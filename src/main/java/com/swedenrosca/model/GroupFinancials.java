@@ -0,0 +1,182 @@
+package com.swedenrosca.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Running money totals of one group, kept in step with its payments by every status transition
+ * so dashboards do not have to sum the payments table. Rebuilt from the payments by
+ * {@link com.swedenrosca.service.GroupFinancialsService}.
+ */
+@Entity
+@Table(name = "group_financials")
+public class GroupFinancials {
+
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    // PAID payments
+    @Column(name = "collected_amount", nullable = false)
+    private BigDecimal collectedAmount = BigDecimal.ZERO;
+
+    // PENDING and LATE payments
+    @Column(name = "outstanding_amount", nullable = false)
+    private BigDecimal outstandingAmount = BigDecimal.ZERO;
+
+    @Column(name = "late_amount", nullable = false)
+    private BigDecimal lateAmount = BigDecimal.ZERO;
+
+    @Column(name = "late_count", nullable = false)
+    private int lateCount;
+
+    // Every payment that is not PAID, MISSED included
+    @Column(name = "unpaid_count", nullable = false)
+    private int unpaidCount;
+
+    // Group totals paid to the winners of completed rounds
+    @Column(name = "paid_out_amount", nullable = false)
+    private BigDecimal paidOutAmount = BigDecimal.ZERO;
+
+    // Service fees of PAID payments
+    @Column(name = "fees_amount", nullable = false)
+    private BigDecimal feesAmount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public GroupFinancials() {}
+
+    public GroupFinancials(Long groupId, Number collectedAmount, Number outstandingAmount, Number lateAmount,
+                           Number lateCount, Number unpaidCount, Number feesAmount) {
+        this.groupId = groupId;
+        this.collectedAmount = toBigDecimal(collectedAmount);
+        this.outstandingAmount = toBigDecimal(outstandingAmount);
+        this.lateAmount = toBigDecimal(lateAmount);
+        this.lateCount = lateCount != null ? lateCount.intValue() : 0;
+        this.unpaidCount = unpaidCount != null ? unpaidCount.intValue() : 0;
+        this.feesAmount = toBigDecimal(feesAmount);
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    private static BigDecimal toBigDecimal(Number value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    /**
+     * True if both hold the same totals, ignoring the scale of the amounts and the update time.
+     */
+    public boolean sameTotals(GroupFinancials other) {
+        return other != null
+                && collectedAmount.compareTo(other.collectedAmount) == 0
+                && outstandingAmount.compareTo(other.outstandingAmount) == 0
+                && lateAmount.compareTo(other.lateAmount) == 0
+                && lateCount == other.lateCount
+                && unpaidCount == other.unpaidCount
+                && paidOutAmount.compareTo(other.paidOutAmount) == 0
+                && feesAmount.compareTo(other.feesAmount) == 0;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public BigDecimal getCollectedAmount() {
+        return collectedAmount;
+    }
+
+    public BigDecimal getOutstandingAmount() {
+        return outstandingAmount;
+    }
+
+    public BigDecimal getLateAmount() {
+        return lateAmount;
+    }
+
+    public int getLateCount() {
+        return lateCount;
+    }
+
+    public int getUnpaidCount() {
+        return unpaidCount;
+    }
+
+    public BigDecimal getPaidOutAmount() {
+        return paidOutAmount;
+    }
+
+    public BigDecimal getFeesAmount() {
+        return feesAmount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+
+    public void setCollectedAmount(BigDecimal collectedAmount) {
+        this.collectedAmount = collectedAmount;
+    }
+
+    public void setOutstandingAmount(BigDecimal outstandingAmount) {
+        this.outstandingAmount = outstandingAmount;
+    }
+
+    public void setLateAmount(BigDecimal lateAmount) {
+        this.lateAmount = lateAmount;
+    }
+
+    public void setLateCount(int lateCount) {
+        this.lateCount = lateCount;
+    }
+
+    public void setUnpaidCount(int unpaidCount) {
+        this.unpaidCount = unpaidCount;
+    }
+
+    public void setPaidOutAmount(BigDecimal paidOutAmount) {
+        this.paidOutAmount = paidOutAmount;
+    }
+
+    public void setFeesAmount(BigDecimal feesAmount) {
+        this.feesAmount = feesAmount;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GroupFinancials that)) return false;
+        return Objects.equals(groupId, that.groupId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(groupId);
+    }
+
+    @Override
+    public String toString() {
+        return "GroupFinancials{" +
+                "groupId=" + groupId +
+                ", collected=" + collectedAmount +
+                ", outstanding=" + outstandingAmount +
+                ", late=" + lateAmount + " (" + lateCount + ")" +
+                ", unpaid=" + unpaidCount +
+                ", paidOut=" + paidOutAmount +
+                ", fees=" + feesAmount +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.swedenrosca.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Number of groups and their total pot per status for the admin statistics, built by a single aggregate query.
+ */
+public class GroupStatistics {
+    private final Map<GroupStatus, Long> counts;
+    private final Map<GroupStatus, BigDecimal> totalAmounts;
+    private final LocalDateTime computedAt;
+
+    public GroupStatistics(Map<GroupStatus, Long> counts, Map<GroupStatus, BigDecimal> totalAmounts) {
+        this.counts = Collections.unmodifiableMap(counts.isEmpty()
+                ? new EnumMap<>(GroupStatus.class) : new EnumMap<>(counts));
+        this.totalAmounts = Collections.unmodifiableMap(totalAmounts.isEmpty()
+                ? new EnumMap<>(GroupStatus.class) : new EnumMap<>(totalAmounts));
+        this.computedAt = LocalDateTime.now();
+    }
+
+    public Map<GroupStatus, Long> getCounts() { return counts; }
+    public Map<GroupStatus, BigDecimal> getTotalAmounts() { return totalAmounts; }
+    public LocalDateTime getComputedAt() { return computedAt; }
+
+    public long getCount(GroupStatus status) {
+        return counts.getOrDefault(status, 0L);
+    }
+
+    public BigDecimal getTotalAmount(GroupStatus status) {
+        return totalAmounts.getOrDefault(status, BigDecimal.ZERO);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (long value : counts.values()) {
+            count += value;
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "GroupStatistics{" +
+                "counts=" + counts +
+                ", computedAt=" + computedAt +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.swedenrosca.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only aggregate view of a group for the admin dashboard, built by a single query.
+ */
+public class GroupSummary {
+    private final Long groupId;
+    private final String groupName;
+    private final GroupStatus status;
+    private final BigDecimal monthlyContribution;
+    private final long memberCount;
+    private final BigDecimal paidAmount;
+    private final BigDecimal outstandingAmount;
+    private final long lateCount;
+
+    public GroupSummary(Long groupId, String groupName, GroupStatus status, BigDecimal monthlyContribution,
+                        Number memberCount, Number paidAmount, Number outstandingAmount, Number lateCount) {
+        this.groupId = groupId;
+        this.groupName = groupName;
+        this.status = status;
+        this.monthlyContribution = monthlyContribution;
+        this.memberCount = memberCount != null ? memberCount.longValue() : 0;
+        this.paidAmount = toBigDecimal(paidAmount);
+        this.outstandingAmount = toBigDecimal(outstandingAmount);
+        this.lateCount = lateCount != null ? lateCount.longValue() : 0;
+    }
+
+    private static BigDecimal toBigDecimal(Number value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    public Long getGroupId() { return groupId; }
+    public String getGroupName() { return groupName; }
+    public GroupStatus getStatus() { return status; }
+    public BigDecimal getMonthlyContribution() { return monthlyContribution; }
+    public long getMemberCount() { return memberCount; }
+    public BigDecimal getPaidAmount() { return paidAmount; }
+    public BigDecimal getOutstandingAmount() { return outstandingAmount; }
+    public long getLateCount() { return lateCount; }
+
+    @Override
+    public String toString() {
+        return "GroupSummary{" +
+                "groupId=" + groupId +
+                ", groupName='" + groupName + '\'' +
+                ", status=" + status +
+                ", memberCount=" + memberCount +
+                ", paidAmount=" + paidAmount +
+                ", outstandingAmount=" + outstandingAmount +
+                ", lateCount=" + lateCount +
+                '}';
+    }
+}
@@ -0,0 +1,22 @@
+package com.swedenrosca.model;
+
+import java.math.BigDecimal;
+
+/**
+ * A user waiting to be placed in a group, with the plan preferences used to match them.
+ */
+public class MatchCandidate {
+    private final Long userId;
+    private final BigDecimal monthlyContribution;
+    private final int numberOfMembers;
+
+    public MatchCandidate(Long userId, BigDecimal monthlyContribution, int numberOfMembers) {
+        this.userId = userId;
+        this.monthlyContribution = monthlyContribution;
+        this.numberOfMembers = numberOfMembers;
+    }
+
+    public Long getUserId() { return userId; }
+    public BigDecimal getMonthlyContribution() { return monthlyContribution; }
+    public int getNumberOfMembers() { return numberOfMembers; }
+}
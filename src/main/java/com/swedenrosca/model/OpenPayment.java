@@ -0,0 +1,55 @@
+package com.swedenrosca.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An unpaid payment together with what is needed to recognise and settle a bank transfer for it.
+ */
+public class OpenPayment {
+    private final Long paymentId;
+    private final Long payerId;
+    private final String email;
+    private final String firstName;
+    private final String clearingNumber;
+    private final String bankAccount;
+    private final Long groupId;
+    private final String groupName;
+    private final Long roundId;
+    private final BigDecimal amount;
+    private final BigDecimal serviceFee;
+    private final LocalDateTime dueDate;
+    private final PaymentStatus status;
+
+    public OpenPayment(Long paymentId, Long payerId, String email, String firstName, String clearingNumber,
+                       String bankAccount, Long groupId, String groupName, Long roundId, BigDecimal amount,
+                       BigDecimal serviceFee, LocalDateTime dueDate, PaymentStatus status) {
+        this.paymentId = paymentId;
+        this.payerId = payerId;
+        this.email = email;
+        this.firstName = firstName;
+        this.clearingNumber = clearingNumber;
+        this.bankAccount = bankAccount;
+        this.groupId = groupId;
+        this.groupName = groupName;
+        this.roundId = roundId;
+        this.amount = amount;
+        this.serviceFee = serviceFee;
+        this.dueDate = dueDate;
+        this.status = status;
+    }
+
+    public Long getPaymentId() { return paymentId; }
+    public Long getPayerId() { return payerId; }
+    public String getEmail() { return email; }
+    public String getFirstName() { return firstName; }
+    public String getClearingNumber() { return clearingNumber; }
+    public String getBankAccount() { return bankAccount; }
+    public Long getGroupId() { return groupId; }
+    public String getGroupName() { return groupName; }
+    public Long getRoundId() { return roundId; }
+    public BigDecimal getAmount() { return amount; }
+    public BigDecimal getServiceFee() { return serviceFee; }
+    public LocalDateTime getDueDate() { return dueDate; }
+    public PaymentStatus getStatus() { return status; }
+}
@@ -0,0 +1,157 @@
+package com.swedenrosca.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A message to another system, written in the same transaction as the change it reports and delivered
+ * afterwards by the outbox dispatcher. Delivery is at least once; receivers dedupe on the dedupe key.
+ */
+@Entity
+@Table(name = "outbox")
+public class OutboxMessage {
+
+    public static final String PAYMENT_RECEIPT = "PAYMENT_RECEIPT";
+    public static final String PAYOUT_INSTRUCTION = "PAYOUT_INSTRUCTION";
+    public static final String PAYMENT_REMINDER = "PAYMENT_REMINDER";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "dedupe_key", nullable = false, unique = true, length = 200)
+    private String dedupeKey;
+
+    @Column(name = "message_type", nullable = false, length = 50)
+    private String type;
+
+    @Column(length = 255)
+    private String recipient;
+
+    @Column(nullable = false, length = 255)
+    private String subject;
+
+    @Column(nullable = false, length = 4000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public OutboxMessage() {}
+
+    public OutboxMessage(String type, String dedupeKey, String recipient, String subject, String body) {
+        this.type = type;
+        this.dedupeKey = dedupeKey;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.status = OutboxStatus.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.availableAt = createdAt;
+    }
+
+    public void markSent(LocalDateTime now) {
+        status = OutboxStatus.SENT;
+        sentAt = now;
+        attempts++;
+        lastError = null;
+    }
+
+    /**
+     * Records a failed attempt and schedules the next one, or gives up after maxAttempts.
+     */
+    public void markFailed(String error, LocalDateTime retryAt, int maxAttempts) {
+        attempts++;
+        lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (attempts >= maxAttempts) {
+            status = OutboxStatus.FAILED;
+        } else {
+            availableAt = retryAt;
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDedupeKey() {
+        return dedupeKey;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public OutboxStatus getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getAvailableAt() {
+        return availableAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setStatus(OutboxStatus status) {
+        this.status = status;
+    }
+
+    public void setAvailableAt(LocalDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxMessage{" +
+                "id=" + id +
+                ", type='" + type + '\'' +
+                ", dedupeKey='" + dedupeKey + '\'' +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
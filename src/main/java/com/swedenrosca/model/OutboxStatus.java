@@ -0,0 +1,7 @@
+package com.swedenrosca.model;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
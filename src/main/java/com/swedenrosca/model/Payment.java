@@ -7,13 +7,37 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "payments")
+@NamedEntityGraph(name = "Payment.dashboardList", attributeNodes = {
+        @NamedAttributeNode("group"),
+        @NamedAttributeNode("creator"),
+        @NamedAttributeNode(value = "round", subgraph = "round")
+}, subgraphs = {
+        @NamedSubgraph(name = "round", attributeNodes = {
+                @NamedAttributeNode("group"),
+                @NamedAttributeNode(value = "winnerParticipant", subgraph = "winner")
+        }),
+        @NamedSubgraph(name = "winner", attributeNodes = @NamedAttributeNode("user"))
+})
+@NamedEntityGraph(name = "Payment.paymentConfirmation", attributeNodes = {
+        @NamedAttributeNode("group"),
+        @NamedAttributeNode("creator"),
+        @NamedAttributeNode("paymentPlan"),
+        @NamedAttributeNode(value = "round", subgraph = "round")
+}, subgraphs = {
+        @NamedSubgraph(name = "round", attributeNodes = {
+                @NamedAttributeNode("group"),
+                @NamedAttributeNode(value = "winnerParticipant", subgraph = "winner")
+        }),
+        @NamedSubgraph(name = "winner", attributeNodes = @NamedAttributeNode("user"))
+})
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payment_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id", nullable = false)
     private Group group;
 
@@ -36,7 +60,7 @@ public class Payment {
     @Column(name = "paid_at")
     private LocalDateTime paidAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "round_id")
     private Round round;
 
@@ -44,11 +68,11 @@ public class Payment {
     @Column(name = "payment_type", nullable = false)
     private PaymentBy paymentBy;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "creator_id")
     private User creator;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_plan_id")
     private PaymentPlan paymentPlan;
 
@@ -115,7 +139,7 @@ public class Payment {
     public String toString() {
         return "Payment{" +
                 "id=" + id +
-                ", group=" + group +
+                ", groupId=" + (group != null ? group.getId() : null) +
                 ", amount=" + amount +
                 ", status=" + status +
                 ", dueDate=" + dueDate +
@@ -131,8 +155,10 @@ public class Payment {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Payment payment = (Payment) o;
+        // Associations are lazy, so compare by the group id rather than the group itself
         return Objects.equals(id, payment.id) &&
-                Objects.equals(group, payment.group) &&
+                Objects.equals(group != null ? group.getId() : null,
+                        payment.group != null ? payment.group.getId() : null) &&
                 Objects.equals(amount, payment.amount) &&
                 status == payment.status &&
                 Objects.equals(dueDate, payment.dueDate);
@@ -140,6 +166,6 @@ public class Payment {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, group, amount, status, dueDate);
+        return Objects.hash(id, group != null ? group.getId() : null, amount, status, dueDate);
     }
 }
\ No newline at end of file
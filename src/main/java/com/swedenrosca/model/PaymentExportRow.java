@@ -0,0 +1,49 @@
+package com.swedenrosca.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the payments extract: the payments columns, with associations reduced to their ids.
+ */
+public class PaymentExportRow {
+    private final Long id;
+    private final Long groupId;
+    private final Long roundId;
+    private final Long creatorId;
+    private final BigDecimal amount;
+    private final BigDecimal serviceFee;
+    private final PaymentStatus status;
+    private final PaymentBy paymentBy;
+    private final LocalDateTime dueDate;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime paidAt;
+
+    public PaymentExportRow(Long id, Long groupId, Long roundId, Long creatorId, BigDecimal amount,
+                            BigDecimal serviceFee, PaymentStatus status, PaymentBy paymentBy, LocalDateTime dueDate,
+                            LocalDateTime createdAt, LocalDateTime paidAt) {
+        this.id = id;
+        this.groupId = groupId;
+        this.roundId = roundId;
+        this.creatorId = creatorId;
+        this.amount = amount;
+        this.serviceFee = serviceFee;
+        this.status = status;
+        this.paymentBy = paymentBy;
+        this.dueDate = dueDate;
+        this.createdAt = createdAt;
+        this.paidAt = paidAt;
+    }
+
+    public Long getId() { return id; }
+    public Long getGroupId() { return groupId; }
+    public Long getRoundId() { return roundId; }
+    public Long getCreatorId() { return creatorId; }
+    public BigDecimal getAmount() { return amount; }
+    public BigDecimal getServiceFee() { return serviceFee; }
+    public PaymentStatus getStatus() { return status; }
+    public PaymentBy getPaymentBy() { return paymentBy; }
+    public LocalDateTime getDueDate() { return dueDate; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getPaidAt() { return paidAt; }
+}
@@ -0,0 +1,19 @@
+package com.swedenrosca.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id and due date of a payment: a position in a keyset scan ordered by (dueDate, id).
+ */
+public class PaymentKey {
+    private final Long id;
+    private final LocalDateTime dueDate;
+
+    public PaymentKey(Long id, LocalDateTime dueDate) {
+        this.id = id;
+        this.dueDate = dueDate;
+    }
+
+    public Long getId() { return id; }
+    public LocalDateTime getDueDate() { return dueDate; }
+}
@@ -0,0 +1,83 @@
+package com.swedenrosca.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Payment totals per status for the admin statistics, built by a single aggregate query.
+ */
+public class PaymentStatistics {
+    private static final PaymentTotals NONE = new PaymentTotals(null, 0, null, null);
+
+    private final Map<PaymentStatus, PaymentTotals> byStatus;
+    private final long paidLateCount;
+    private final LocalDateTime computedAt;
+
+    public PaymentStatistics(Map<PaymentStatus, PaymentTotals> byStatus, long paidLateCount) {
+        this.byStatus = Collections.unmodifiableMap(byStatus.isEmpty()
+                ? new EnumMap<>(PaymentStatus.class) : new EnumMap<>(byStatus));
+        this.paidLateCount = paidLateCount;
+        this.computedAt = LocalDateTime.now();
+    }
+
+    public Map<PaymentStatus, PaymentTotals> getByStatus() { return byStatus; }
+    public long getPaidLateCount() { return paidLateCount; }
+    public LocalDateTime getComputedAt() { return computedAt; }
+
+    public PaymentTotals get(PaymentStatus status) {
+        return byStatus.getOrDefault(status, NONE);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (PaymentTotals totals : byStatus.values()) {
+            count += totals.getCount();
+        }
+        return count;
+    }
+
+    public BigDecimal getAmount() {
+        BigDecimal amount = BigDecimal.ZERO;
+        for (PaymentTotals totals : byStatus.values()) {
+            amount = amount.add(totals.getAmount());
+        }
+        return amount;
+    }
+
+    public long getUnpaidCount() {
+        return getCount() - get(PaymentStatus.PAID).getCount();
+    }
+
+    public BigDecimal getUnpaidAmount() {
+        return getAmount().subtract(get(PaymentStatus.PAID).getAmount());
+    }
+
+    public BigDecimal getAveragePayment() {
+        long count = getCount();
+        return count == 0 ? BigDecimal.ZERO : getAmount().divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Share of the payments that have fallen due (paid, late or missed) which were not paid on time, between 0 and 1.
+     */
+    public double getLateRate() {
+        long late = get(PaymentStatus.LATE).getCount() + get(PaymentStatus.MISSED).getCount();
+        long due = late + get(PaymentStatus.PAID).getCount();
+        return due == 0 ? 0 : (double) (late + paidLateCount) / due;
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentStatistics{" +
+                "count=" + getCount() +
+                ", amount=" + getAmount() +
+                ", unpaidCount=" + getUnpaidCount() +
+                ", paidLateCount=" + paidLateCount +
+                ", computedAt=" + computedAt +
+                '}';
+    }
+}
@@ -0,0 +1,32 @@
+package com.swedenrosca.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Count, amount and service fees of a set of payments of one group, e.g. the payments moved by one status transition.
+ */
+public class PaymentTotals {
+    private final Long groupId;
+    private final long count;
+    private final BigDecimal amount;
+    private final BigDecimal fees;
+
+    public PaymentTotals(Long groupId, Number count, Number amount, Number fees) {
+        this.groupId = groupId;
+        this.count = count != null ? count.longValue() : 0;
+        this.amount = toBigDecimal(amount);
+        this.fees = toBigDecimal(fees);
+    }
+
+    private static BigDecimal toBigDecimal(Number value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    public Long getGroupId() { return groupId; }
+    public long getCount() { return count; }
+    public BigDecimal getAmount() { return amount; }
+    public BigDecimal getFees() { return fees; }
+}
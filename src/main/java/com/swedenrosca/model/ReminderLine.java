@@ -0,0 +1,39 @@
+package com.swedenrosca.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One unpaid payment to remind its payer about, with the payer's contact details.
+ */
+public class ReminderLine {
+    private final Long userId;
+    private final String email;
+    private final String firstName;
+    private final Long paymentId;
+    private final String groupName;
+    private final BigDecimal amount;
+    private final LocalDateTime dueDate;
+    private final PaymentStatus status;
+
+    public ReminderLine(Long userId, String email, String firstName, Long paymentId, String groupName,
+                        BigDecimal amount, LocalDateTime dueDate, PaymentStatus status) {
+        this.userId = userId;
+        this.email = email;
+        this.firstName = firstName;
+        this.paymentId = paymentId;
+        this.groupName = groupName;
+        this.amount = amount;
+        this.dueDate = dueDate;
+        this.status = status;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getEmail() { return email; }
+    public String getFirstName() { return firstName; }
+    public Long getPaymentId() { return paymentId; }
+    public String getGroupName() { return groupName; }
+    public BigDecimal getAmount() { return amount; }
+    public LocalDateTime getDueDate() { return dueDate; }
+    public PaymentStatus getStatus() { return status; }
+}
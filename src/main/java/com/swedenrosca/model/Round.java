@@ -10,17 +10,30 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "rounds")
+@NamedEntityGraph(name = "Round.dashboardList", attributeNodes = {
+        @NamedAttributeNode("group"),
+        @NamedAttributeNode(value = "winnerParticipant", subgraph = "winner")
+}, subgraphs = @NamedSubgraph(name = "winner", attributeNodes = @NamedAttributeNode("user")))
+@NamedEntityGraph(name = "Round.paymentConfirmation", attributeNodes = {
+        @NamedAttributeNode("group"),
+        @NamedAttributeNode(value = "winnerParticipant", subgraph = "winner")
+}, subgraphs = @NamedSubgraph(name = "winner", attributeNodes = @NamedAttributeNode("user")))
+@NamedEntityGraph(name = "Round.roundSettlement", attributeNodes = {
+        @NamedAttributeNode("group"),
+        @NamedAttributeNode(value = "winnerParticipant", subgraph = "winner")
+}, subgraphs = @NamedSubgraph(name = "winner", attributeNodes = @NamedAttributeNode("user")))
 public class Round {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "round_seq")
+    @SequenceGenerator(name = "round_seq", sequenceName = "round_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id", nullable = false)
     private Group group;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "winner_participant_id", nullable = true)
     private Participant winnerParticipant;
 
@@ -43,6 +56,16 @@ public class Round {
     @Column(nullable = false)
     private RoundStatus status;
 
+    // Kept in step with the round's payments: expected when they are created, paid as each one is settled
+    @Column(name = "expected_count", nullable = false)
+    private int expectedCount;
+
+    @Column(name = "paid_count", nullable = false)
+    private int paidCount;
+
+    @Column(name = "paid_amount", nullable = false)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+
     // Default constructor
     public Round() {
         this.status = RoundStatus.PENDING_APPROVAL; // Default status
@@ -113,6 +136,22 @@ public class Round {
         return status;
     }
 
+    public int getExpectedCount() {
+        return expectedCount;
+    }
+
+    public int getPaidCount() {
+        return paidCount;
+    }
+
+    public BigDecimal getPaidAmount() {
+        return paidAmount;
+    }
+
+    public boolean isFullyPaid() {
+        return expectedCount > 0 && paidCount >= expectedCount;
+    }
+
     // Setters
     public void setId(Long id) {
         this.id = id;
@@ -154,6 +193,18 @@ public class Round {
         this.status = status;
     }
 
+    public void setExpectedCount(int expectedCount) {
+        this.expectedCount = expectedCount;
+    }
+
+    public void setPaidCount(int paidCount) {
+        this.paidCount = paidCount;
+    }
+
+    public void setPaidAmount(BigDecimal paidAmount) {
+        this.paidAmount = paidAmount;
+    }
+
     @Override
     public String toString() {
         return "Round{" +
@@ -163,13 +214,17 @@ public class Round {
                 ", startDate=" + startDate +
                 ", endDate=" + endDate +
                 ", status=" + status +
+                ", paidCount=" + paidCount +
+                ", expectedCount=" + expectedCount +
                 '}';
     }
 
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, group, winnerParticipant, roundNumber, amount, startDate, endDate, status);
+        return Objects.hash(id, group != null ? group.getId() : null,
+                winnerParticipant != null ? winnerParticipant.getId() : null,
+                roundNumber, amount, startDate, endDate, status);
     }
 
     public void setTurnOrder(int turnOrder) {
@@ -0,0 +1,36 @@
+package com.swedenrosca.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One line of a member's monthly statement: a payment they made or a payout they received.
+ */
+public class StatementEntry {
+    private final Long userId;
+    private final LocalDateTime date;
+    private final String groupName;
+    private final Integer roundNumber;
+    private final BigDecimal amount;
+    private final BigDecimal fee;
+    private final boolean payout;
+
+    public StatementEntry(Long userId, LocalDateTime date, String groupName, Integer roundNumber, BigDecimal amount,
+                          BigDecimal fee, boolean payout) {
+        this.userId = userId;
+        this.date = date;
+        this.groupName = groupName;
+        this.roundNumber = roundNumber;
+        this.amount = amount;
+        this.fee = fee;
+        this.payout = payout;
+    }
+
+    public Long getUserId() { return userId; }
+    public LocalDateTime getDate() { return date; }
+    public String getGroupName() { return groupName; }
+    public Integer getRoundNumber() { return roundNumber; }
+    public BigDecimal getAmount() { return amount; }
+    public BigDecimal getFee() { return fee; }
+    public boolean isPayout() { return payout; }
+}
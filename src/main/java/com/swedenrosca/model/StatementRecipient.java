@@ -0,0 +1,23 @@
+package com.swedenrosca.model;
+
+/**
+ * The member a monthly statement is addressed to.
+ */
+public class StatementRecipient {
+    private final Long userId;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+
+    public StatementRecipient(Long userId, String firstName, String lastName, String email) {
+        this.userId = userId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getFirstName() { return firstName; }
+    public String getLastName() { return lastName; }
+    public String getEmail() { return email; }
+}
@@ -0,0 +1,60 @@
+package com.swedenrosca.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Users per role, and how many of them are a member of an active group, built by a single aggregate query.
+ */
+public class UserStatistics {
+    private final Map<Role, Long> users;
+    private final Map<Role, Long> activeParticipants;
+    private final LocalDateTime computedAt;
+
+    public UserStatistics(Map<Role, Long> users, Map<Role, Long> activeParticipants) {
+        this.users = Collections.unmodifiableMap(users.isEmpty()
+                ? new EnumMap<>(Role.class) : new EnumMap<>(users));
+        this.activeParticipants = Collections.unmodifiableMap(activeParticipants.isEmpty()
+                ? new EnumMap<>(Role.class) : new EnumMap<>(activeParticipants));
+        this.computedAt = LocalDateTime.now();
+    }
+
+    public Map<Role, Long> getUsers() { return users; }
+    public Map<Role, Long> getActiveParticipants() { return activeParticipants; }
+    public LocalDateTime getComputedAt() { return computedAt; }
+
+    public long getUsers(Role role) {
+        return users.getOrDefault(role, 0L);
+    }
+
+    public long getActiveParticipants(Role role) {
+        return activeParticipants.getOrDefault(role, 0L);
+    }
+
+    public long getUserCount() {
+        return sum(users);
+    }
+
+    public long getActiveParticipantCount() {
+        return sum(activeParticipants);
+    }
+
+    private static long sum(Map<Role, Long> counts) {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "UserStatistics{" +
+                "users=" + users +
+                ", activeParticipants=" + activeParticipants +
+                ", computedAt=" + computedAt +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package com.swedenrosca.outbox;
+
+import com.swedenrosca.model.OutboxMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes each message to its own file, named after the dedupe key, under one directory per message type.
+ * The file is written to a temporary name and moved into place, so a redelivery just rewrites the same file.
+ */
+public class FileOutboxSink implements OutboxSink {
+    private final Path directory;
+
+    public FileOutboxSink(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + directory;
+    }
+
+    @Override
+    public void send(OutboxMessage message) throws IOException {
+        Path typeDirectory = Files.createDirectories(directory.resolve(message.getType().toLowerCase()));
+        Path target = typeDirectory.resolve(fileName(message.getDedupeKey()) + ".txt");
+        Path temp = Files.createTempFile(typeDirectory, "outbox", ".tmp");
+        try {
+            String content = "Dedupe-Key: " + message.getDedupeKey() + System.lineSeparator() +
+                    "To: " + (message.getRecipient() != null ? message.getRecipient() : "") + System.lineSeparator() +
+                    "Subject: " + message.getSubject() + System.lineSeparator() +
+                    "Created: " + message.getCreatedAt() + System.lineSeparator() +
+                    System.lineSeparator() +
+                    message.getBody() + System.lineSeparator();
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static String fileName(String dedupeKey) {
+        return dedupeKey.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
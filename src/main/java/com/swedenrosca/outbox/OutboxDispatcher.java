@@ -0,0 +1,216 @@
+package com.swedenrosca.outbox;
+
+import com.swedenrosca.model.OutboxMessage;
+import com.swedenrosca.model.OutboxStatus;
+import com.swedenrosca.repository.OutboxRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers outbox messages in the background. Each worker claims a batch of due messages with
+ * SELECT ... FOR UPDATE SKIP LOCKED, so workers (and other application instances) never pick the same row,
+ * leases them by moving availableAt past the time the batch can take to send, and commits the claim at once.
+ * It then hands each message to the sink for its type outside any transaction, so slow sinks hold neither
+ * row locks nor a pooled connection, and records each outcome in a short transaction of its own.
+ * A message is marked SENT only after its sink returned, so a crash in between means it is delivered again
+ * once its lease expires: delivery is at least once, and sinks dedupe on the message's dedupe key.
+ */
+public class OutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    public static final int DEFAULT_WORKERS = 2;
+    public static final int DEFAULT_BATCH_SIZE = 50;
+    public static final long DEFAULT_POLL_MILLIS = 2000;
+    public static final int MAX_ATTEMPTS = 10;
+    private static final long MAX_BACKOFF_SECONDS = 600;
+    // Longer than a full batch takes to send when every sink call runs into its timeouts
+    private static final long LEASE_SECONDS = 900;
+
+    private final SessionFactory sessionFactory;
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink defaultSink;
+    private final Map<String, OutboxSink> sinksByType = new ConcurrentHashMap<>();
+    private final int workers;
+    private final int batchSize;
+    private final long pollMillis;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private ScheduledExecutorService executor;
+
+    public OutboxDispatcher(SessionFactory sessionFactory, OutboxRepository outboxRepository, OutboxSink defaultSink) {
+        this(sessionFactory, outboxRepository, defaultSink, DEFAULT_WORKERS, DEFAULT_BATCH_SIZE, DEFAULT_POLL_MILLIS);
+    }
+
+    public OutboxDispatcher(SessionFactory sessionFactory, OutboxRepository outboxRepository, OutboxSink defaultSink,
+                            int workers, int batchSize, long pollMillis) {
+        if (workers <= 0 || batchSize <= 0 || pollMillis <= 0) {
+            throw new IllegalArgumentException("Workers, batch size and poll interval must be positive");
+        }
+        this.sessionFactory = sessionFactory;
+        this.outboxRepository = outboxRepository;
+        this.defaultSink = defaultSink;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+    }
+
+    /**
+     * Sends messages of the given type to this sink instead of the default one.
+     */
+    public OutboxDispatcher route(String type, OutboxSink sink) {
+        sinksByType.put(type, sink);
+        return this;
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            // Staggered so the workers do not all poll at the same moment
+            executor.scheduleWithFixedDelay(this::drain, i * pollMillis / workers, pollMillis, TimeUnit.MILLISECONDS);
+        }
+        logger.info("Outbox dispatcher started: {} workers, batches of {}, default sink {}",
+                workers, batchSize, defaultSink.getName());
+    }
+
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        logger.info("Outbox dispatcher stopped: {}", statisticsSummary());
+    }
+
+    /**
+     * Dispatches full batches until the outbox has no more due messages. Also usable without start().
+     */
+    public int drain() {
+        int total = 0;
+        try {
+            int dispatched;
+            do {
+                dispatched = dispatchBatch();
+                total += dispatched;
+            } while (dispatched == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            // A scheduled task that throws is never run again, so the worker has to survive this
+            logger.error("Outbox dispatch failed; retrying in {} ms", pollMillis, e);
+        }
+        return total;
+    }
+
+    private int dispatchBatch() {
+        List<OutboxMessage> batch = claimBatch();
+        for (OutboxMessage message : batch) {
+            OutboxSink sink = sinksByType.getOrDefault(message.getType(), defaultSink);
+            Exception error = null;
+            try {
+                sink.send(message);
+            } catch (Exception e) {
+                error = e;
+            }
+            record(message, sink, error);
+        }
+        if (!batch.isEmpty()) {
+            logger.debug("Dispatched {} outbox messages", batch.size());
+        }
+        return batch.size();
+    }
+
+    /**
+     * Claims and leases a batch; the returned messages are detached and carry the lease in availableAt.
+     */
+    private List<OutboxMessage> claimBatch() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                // Whole seconds, so the lease compares equal after the round trip through the database
+                LocalDateTime leasedUntil = now.plusSeconds(LEASE_SECONDS).truncatedTo(ChronoUnit.SECONDS);
+                List<OutboxMessage> batch = outboxRepository.claimBatch(session, now, batchSize);
+                for (OutboxMessage message : batch) {
+                    message.setAvailableAt(leasedUntil);
+                }
+                session.getTransaction().commit();
+                return batch;
+            } catch (RuntimeException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void record(OutboxMessage claimed, OutboxSink sink, Exception error) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try {
+                OutboxMessage message = outboxRepository.getByIdForUpdate(session, claimed.getId());
+                if (message == null || message.getStatus() != OutboxStatus.PENDING
+                        || !message.getAvailableAt().equals(claimed.getAvailableAt())) {
+                    // The lease ran out and another worker claimed the message; its outcome is the one that counts
+                    session.getTransaction().commit();
+                    logger.warn("Lease on outbox message {} expired before it was recorded", claimed);
+                    return;
+                }
+                if (error == null) {
+                    message.markSent(LocalDateTime.now());
+                    sent.incrementAndGet();
+                } else {
+                    long backoff = Math.min(1L << Math.min(message.getAttempts(), 20), MAX_BACKOFF_SECONDS);
+                    message.markFailed(error.toString(), LocalDateTime.now().plusSeconds(backoff), MAX_ATTEMPTS);
+                    if (message.getAttempts() >= MAX_ATTEMPTS) {
+                        failed.incrementAndGet();
+                        logger.error("Giving up on outbox message {} after {} attempts via {}",
+                                message, message.getAttempts(), sink.getName(), error);
+                    } else {
+                        retried.incrementAndGet();
+                        logger.warn("Outbox message {} failed via {}, retrying in {} s: {}",
+                                message, sink.getName(), backoff, error.toString());
+                    }
+                }
+                session.getTransaction().commit();
+            } catch (RuntimeException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    public String statisticsSummary() {
+        return String.format("Outbox: %d sent, %d retries scheduled, %d failed", sent.get(), retried.get(), failed.get());
+    }
+}
@@ -0,0 +1,51 @@
+package com.swedenrosca.outbox;
+
+import com.swedenrosca.model.OutboxMessage;
+import com.swedenrosca.model.User;
+
+import java.math.BigDecimal;
+
+/**
+ * Builds the outbox messages written by the settlement and reconciliation transactions. Dedupe keys are
+ * derived from the payment or round, so each one can only ever be written once.
+ */
+public final class OutboxMessages {
+
+    // Finance desk that carries out payouts to the winners' bank accounts
+    public static final String PAYOUT_DESK = "payouts@swedenrosca.local";
+
+    private OutboxMessages() {}
+
+    public static OutboxMessage paymentReceipt(Long paymentId, String groupName, User payer, BigDecimal amount,
+                                               BigDecimal balance) {
+        String body = "Hi " + payer.getFirstName() + "," + System.lineSeparator() +
+                System.lineSeparator() +
+                "We have received your payment of " + amount + " SEK to " + groupName + "." + System.lineSeparator() +
+                "Payment reference: " + paymentId + System.lineSeparator() +
+                "Your balance is now " + balance + " SEK." + System.lineSeparator();
+        return new OutboxMessage(OutboxMessage.PAYMENT_RECEIPT, "receipt:payment:" + paymentId,
+                payer.getEmail(), "Payment receipt for " + groupName, body);
+    }
+
+    public static OutboxMessage transferReceipt(Long paymentId, String groupName, String firstName, String email,
+                                                BigDecimal amount, String bankReference) {
+        String body = "Hi " + firstName + "," + System.lineSeparator() +
+                System.lineSeparator() +
+                "We have received your bank transfer of " + amount + " SEK to " + groupName + "." + System.lineSeparator() +
+                "Payment reference: " + paymentId + System.lineSeparator() +
+                "Bank reference: " + bankReference + System.lineSeparator();
+        return new OutboxMessage(OutboxMessage.PAYMENT_RECEIPT, "receipt:payment:" + paymentId,
+                email, "Payment receipt for " + groupName, body);
+    }
+
+    public static OutboxMessage payoutInstruction(Long roundId, int roundNumber, String groupName, User winner,
+                                                  BigDecimal payout) {
+        String body = "Pay out " + payout + " SEK for round " + roundNumber + " of " + groupName + "." + System.lineSeparator() +
+                "Round reference: " + roundId + System.lineSeparator() +
+                "Recipient: " + winner.getFirstName() + " " + winner.getLastName() + " (user " + winner.getId() + ")" + System.lineSeparator() +
+                "Clearing number: " + winner.getClearingNumber() + System.lineSeparator() +
+                "Bank account: " + winner.getBankAccount() + System.lineSeparator();
+        return new OutboxMessage(OutboxMessage.PAYOUT_INSTRUCTION, "payout:round:" + roundId,
+                PAYOUT_DESK, "Payout instruction: round " + roundNumber + " of " + groupName, body);
+    }
+}
@@ -0,0 +1,17 @@
+package com.swedenrosca.outbox;
+
+import com.swedenrosca.model.OutboxMessage;
+
+/**
+ * Delivers outbox messages somewhere. A message can be handed over more than once (after a crash or a
+ * failed commit), so implementations must treat the dedupe key as the message's identity.
+ */
+public interface OutboxSink {
+
+    String getName();
+
+    /**
+     * Delivers the message or throws; a thrown exception schedules a retry.
+     */
+    void send(OutboxMessage message) throws Exception;
+}
@@ -0,0 +1,90 @@
+package com.swedenrosca.outbox;
+
+import com.swedenrosca.model.OutboxMessage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends messages as plain-text mail to an SMTP server without authentication or TLS, meant for a local
+ * development mail catcher. The dedupe key becomes the Message-ID, so a redelivered message can be
+ * recognised by the receiver.
+ */
+public class SmtpOutboxSink implements OutboxSink {
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    private final String host;
+    private final int port;
+    private final String from;
+
+    public SmtpOutboxSink(String host, int port, String from) {
+        this.host = host;
+        this.port = port;
+        this.from = from;
+    }
+
+    @Override
+    public String getName() {
+        return "smtp:" + host + ":" + port;
+    }
+
+    @Override
+    public void send(OutboxMessage message) throws IOException {
+        if (message.getRecipient() == null || message.getRecipient().isBlank()) {
+            throw new IOException("Message " + message.getDedupeKey() + " has no recipient");
+        }
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), TIMEOUT_MILLIS);
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+
+            expect(in, 220);
+            command(in, out, "HELO localhost", 250);
+            command(in, out, "MAIL FROM:<" + from + ">", 250);
+            command(in, out, "RCPT TO:<" + message.getRecipient() + ">", 250);
+            command(in, out, "DATA", 354);
+
+            StringBuilder data = new StringBuilder()
+                    .append("Message-ID: <").append(FileOutboxSink.fileName(message.getDedupeKey())).append("@swedenrosca>\r\n")
+                    .append("From: ").append(from).append("\r\n")
+                    .append("To: ").append(message.getRecipient()).append("\r\n")
+                    .append("Subject: ").append(message.getSubject()).append("\r\n")
+                    .append("Content-Type: text/plain; charset=UTF-8\r\n")
+                    .append("\r\n");
+            for (String line : message.getBody().split("\\R", -1)) {
+                // Dot-stuffing, so a body line of "." does not end the message
+                data.append(line.startsWith(".") ? "." : "").append(line).append("\r\n");
+            }
+            data.append(".");
+            command(in, out, data.toString(), 250);
+            command(in, out, "QUIT", 221);
+        }
+    }
+
+    private static void command(BufferedReader in, Writer out, String line, int expected) throws IOException {
+        out.write(line + "\r\n");
+        out.flush();
+        expect(in, expected);
+    }
+
+    private static void expect(BufferedReader in, int expected) throws IOException {
+        String line;
+        // Multi-line replies continue with "code-" and end with "code "
+        do {
+            line = in.readLine();
+            if (line == null) {
+                throw new IOException("SMTP server closed the connection");
+            }
+        } while (line.length() > 3 && line.charAt(3) == '-');
+        if (!line.startsWith(String.valueOf(expected))) {
+            throw new IOException("Unexpected SMTP reply, expected " + expected + ": " + line);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.swedenrosca.reconciliation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Reads a CSV statement export with a header row naming at least the columns booking_date, amount,
+ * clearing_number, bank_account and reference, in any order. The delimiter is ';' when the header contains
+ * one and ',' otherwise; fields may be quoted, and amounts may use a decimal comma.
+ */
+public class CsvStatementReader implements StatementReader {
+    private static final String[] COLUMNS = {"booking_date", "amount", "clearing_number", "bank_account", "reference"};
+    private static final int DATE = 0, AMOUNT = 1, CLEARING = 2, ACCOUNT = 3, REFERENCE = 4;
+
+    private final Path file;
+
+    public CsvStatementReader(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public String getSource() {
+        return file.getFileName().toString();
+    }
+
+    @Override
+    public Stream<StatementLine> lines() throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            String header = reader.readLine();
+            if (header == null) {
+                reader.close();
+                return Stream.empty();
+            }
+            // A UTF-8 byte order mark is read as part of the first column name
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1);
+            }
+            char delimiter = header.indexOf(';') >= 0 ? ';' : ',';
+            int[] columns = columnIndexes(split(header, delimiter));
+            long[] lineNumber = {1};
+            return reader.lines()
+                    .map(line -> parse(++lineNumber[0], line, delimiter, columns))
+                    .filter(Objects::nonNull)
+                    .onClose(() -> {
+                        try {
+                            reader.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    private int[] columnIndexes(List<String> header) throws IOException {
+        int[] indexes = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            indexes[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().toLowerCase(Locale.ROOT).equals(COLUMNS[i])) {
+                    indexes[i] = j;
+                }
+            }
+            if (indexes[i] < 0) {
+                throw new IOException(getSource() + " has no " + COLUMNS[i] + " column");
+            }
+        }
+        return indexes;
+    }
+
+    private static StatementLine parse(long lineNumber, String line, char delimiter, int[] columns) {
+        if (line.isBlank()) {
+            return null;
+        }
+        List<String> fields = split(line, delimiter);
+        for (int column : columns) {
+            if (column >= fields.size()) {
+                return StatementLine.invalid(lineNumber, "expected at least " + (column + 1) + " fields");
+            }
+        }
+        String reference = fields.get(columns[REFERENCE]).trim();
+        if (reference.isEmpty()) {
+            return StatementLine.invalid(lineNumber, "no reference");
+        }
+        LocalDate bookingDate;
+        try {
+            bookingDate = LocalDate.parse(fields.get(columns[DATE]).trim());
+        } catch (DateTimeParseException e) {
+            return StatementLine.invalid(lineNumber, "unreadable booking date '" + fields.get(columns[DATE]) + "'");
+        }
+        BigDecimal amount = parseAmount(fields.get(columns[AMOUNT]));
+        if (amount == null) {
+            return StatementLine.invalid(lineNumber, "unreadable amount '" + fields.get(columns[AMOUNT]) + "'");
+        }
+        if (amount.signum() <= 0) {
+            return StatementLine.invalid(lineNumber, "not an incoming transfer");
+        }
+        return new StatementLine(lineNumber, reference, bookingDate, amount,
+                fields.get(columns[CLEARING]).trim(), fields.get(columns[ACCOUNT]).trim());
+    }
+
+    /**
+     * Accepts "1234.50", "1234,50", "1 234,50", "1.234,50" and "1,234.50": the last separator is the decimal one.
+     */
+    static BigDecimal parseAmount(String text) {
+        String amount = text.replace(" ", "").replace("\u00A0", "").trim();
+        int decimal = Math.max(amount.lastIndexOf('.'), amount.lastIndexOf(','));
+        if (decimal >= 0) {
+            String whole = amount.substring(0, decimal).replace(".", "").replace(",", "");
+            amount = whole + "." + amount.substring(decimal + 1);
+        }
+        try {
+            return new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Splits one line on the delimiter; a field in double quotes may contain the delimiter and "" for a quote.
+     */
+    static List<String> split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
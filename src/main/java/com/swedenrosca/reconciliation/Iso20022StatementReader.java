@@ -0,0 +1,198 @@
+package com.swedenrosca.reconciliation;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the booked credit entries of an ISO 20022 camt.053 (or camt.054) statement with a StAX pull parser,
+ * so only the entry being read is in memory. An entry with several transaction details, a batch booking,
+ * yields one line per transaction. Namespaces and message versions are ignored; elements are matched by
+ * their local names.
+ */
+public class Iso20022StatementReader implements StatementReader {
+    private static final String TX = "NtryDtls/TxDtls/";
+
+    private final Path file;
+
+    public Iso20022StatementReader(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public String getSource() {
+        return file.getFileName().toString();
+    }
+
+    @Override
+    public Stream<StatementLine> lines() throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file));
+        try {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            return StreamSupport.stream(new EntrySpliterator(xml), false)
+                    .onClose(() -> {
+                        try {
+                            xml.close();
+                            in.close();
+                        } catch (XMLStreamException | IOException e) {
+                            throw new UncheckedIOException(new IOException("Could not close " + getSource(), e));
+                        }
+                    });
+        } catch (XMLStreamException e) {
+            in.close();
+            throw new IOException("Could not read " + getSource(), e);
+        }
+    }
+
+    private final class EntrySpliterator extends Spliterators.AbstractSpliterator<StatementLine> {
+        private final XMLStreamReader xml;
+        private final Deque<StatementLine> pending = new ArrayDeque<>();
+        // Element names from the current Ntry down, or null outside an entry
+        private List<String> path;
+        private Map<String, String> entry;
+        private List<Map<String, String>> transactions;
+        private final StringBuilder text = new StringBuilder();
+        private long entryLine;
+
+        EntrySpliterator(XMLStreamReader xml) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.xml = xml;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super StatementLine> action) {
+            try {
+                while (pending.isEmpty() && xml.hasNext()) {
+                    next(xml.next());
+                }
+            } catch (XMLStreamException e) {
+                throw new UncheckedIOException(new IOException("Could not read " + getSource(), e));
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+            action.accept(pending.poll());
+            return true;
+        }
+
+        private void next(int event) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    String name = xml.getLocalName();
+                    if (path == null) {
+                        if (name.equals("Ntry")) {
+                            path = new ArrayList<>();
+                            entry = new HashMap<>();
+                            transactions = new ArrayList<>();
+                            entryLine = xml.getLocation().getLineNumber();
+                        }
+                        return;
+                    }
+                    path.add(name);
+                    if (String.join("/", path).equals("NtryDtls/TxDtls")) {
+                        transactions.add(new HashMap<>());
+                    }
+                    text.setLength(0);
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                    if (path != null) {
+                        text.append(xml.getText());
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    if (path == null) {
+                        return;
+                    }
+                    if (path.isEmpty()) {
+                        endEntry();
+                        path = null;
+                        return;
+                    }
+                    String key = String.join("/", path);
+                    String value = text.toString().trim();
+                    if (!value.isEmpty()) {
+                        if (key.startsWith(TX) && !transactions.isEmpty()) {
+                            transactions.get(transactions.size() - 1).put(key.substring(TX.length()), value);
+                        } else {
+                            entry.put(key, value);
+                        }
+                    }
+                    path.remove(path.size() - 1);
+                    text.setLength(0);
+                }
+                default -> { }
+            }
+        }
+
+        private void endEntry() {
+            String status = entry.getOrDefault("Sts/Cd", entry.get("Sts"));
+            if (!"CRDT".equals(entry.get("CdtDbtInd")) || (status != null && !status.equals("BOOK"))) {
+                return;
+            }
+            String dateText = entry.getOrDefault("BookgDt/Dt", entry.get("BookgDt/DtTm"));
+            LocalDate bookingDate;
+            try {
+                bookingDate = LocalDate.parse(dateText.substring(0, Math.min(dateText.length(), 10)));
+            } catch (NullPointerException | DateTimeParseException e) {
+                pending.add(StatementLine.invalid(entryLine, "no readable booking date"));
+                return;
+            }
+            String entryReference = entry.getOrDefault("AcctSvcrRef", entry.get("NtryRef"));
+            if (transactions.isEmpty()) {
+                transactions.add(new HashMap<>());
+            }
+            for (int i = 0; i < transactions.size(); i++) {
+                Map<String, String> tx = transactions.get(i);
+                String amountText = tx.getOrDefault("Amt", tx.getOrDefault("AmtDtls/TxAmt/Amt",
+                        transactions.size() == 1 ? entry.get("Amt") : null));
+                String reference = tx.get("Refs/AcctSvcrRef");
+                if (reference == null && tx.get("Refs/EndToEndId") != null && !tx.get("Refs/EndToEndId").equals("NOTPROVIDED")) {
+                    reference = tx.get("Refs/EndToEndId");
+                }
+                if (reference == null && entryReference != null) {
+                    reference = transactions.size() == 1 ? entryReference : entryReference + "/" + (i + 1);
+                }
+                String account = tx.getOrDefault("RltdPties/DbtrAcct/Id/Othr/Id", tx.get("RltdPties/DbtrAcct/Id/IBAN"));
+                String clearing = tx.get("RltdAgts/DbtrAgt/FinInstnId/ClrSysMmbId/MmbId");
+
+                BigDecimal amount;
+                try {
+                    amount = new BigDecimal(amountText);
+                } catch (NullPointerException | NumberFormatException e) {
+                    pending.add(StatementLine.invalid(entryLine, "no readable amount"));
+                    continue;
+                }
+                if (reference == null) {
+                    pending.add(StatementLine.invalid(entryLine, "no reference"));
+                    continue;
+                }
+                pending.add(new StatementLine(entryLine, reference, bookingDate, amount, clearing, account));
+            }
+        }
+    }
+}
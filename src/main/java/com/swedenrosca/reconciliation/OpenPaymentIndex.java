@@ -0,0 +1,99 @@
+package com.swedenrosca.reconciliation;
+
+import com.swedenrosca.model.OpenPayment;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Open payments hashed by payer bank account and amount, built once per import so each statement line is
+ * matched with a map lookup instead of a query. A matched payment is removed, so two transfers never
+ * settle the same payment. Not thread-safe.
+ */
+public class OpenPaymentIndex {
+    private final Map<String, List<OpenPayment>> byAccountAndAmount = new HashMap<>();
+    private final int daysEarly;
+    private final int daysLate;
+    private int size;
+
+    /**
+     * A transfer matches a payment due at most daysEarly days after and daysLate days before its booking date.
+     */
+    public OpenPaymentIndex(int daysEarly, int daysLate) {
+        this.daysEarly = daysEarly;
+        this.daysLate = daysLate;
+    }
+
+    /**
+     * Adds a payment. Add them in due date order: among several candidates the first one added is matched first.
+     */
+    public void add(OpenPayment payment) {
+        String account = digits(payment.getBankAccount());
+        if (account.isEmpty()) {
+            return;
+        }
+        byAccountAndAmount.computeIfAbsent(key(account, payment.getAmount()), k -> new ArrayList<>(2)).add(payment);
+        size++;
+    }
+
+    /**
+     * Removes and returns the oldest open payment of this payer and amount whose due date is within the window
+     * around the booking date, or null when there is none.
+     */
+    public OpenPayment claim(StatementLine line) {
+        List<OpenPayment> candidates = byAccountAndAmount.get(key(digits(line.getBankAccount()), line.getAmount()));
+        if (candidates == null) {
+            return null;
+        }
+        LocalDate earliest = line.getBookingDate().minusDays(daysLate);
+        LocalDate latest = line.getBookingDate().plusDays(daysEarly);
+        for (Iterator<OpenPayment> iterator = candidates.iterator(); iterator.hasNext(); ) {
+            OpenPayment candidate = iterator.next();
+            LocalDate due = candidate.getDueDate().toLocalDate();
+            if (!due.isBefore(earliest) && !due.isAfter(latest)
+                    && sameClearingNumber(candidate.getClearingNumber(), line.getClearingNumber())) {
+                iterator.remove();
+                size--;
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static String key(String accountDigits, BigDecimal amount) {
+        return accountDigits + ":" + amount.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Clearing numbers are compared only when both sides have one, and a four digit number matches its five
+     * digit form with the check digit.
+     */
+    private static boolean sameClearingNumber(String expected, String actual) {
+        String a = digits(expected);
+        String b = digits(actual);
+        return a.isEmpty() || b.isEmpty() || a.startsWith(b) || b.startsWith(a);
+    }
+
+    private static String digits(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+}
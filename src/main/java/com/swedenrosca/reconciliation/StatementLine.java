@@ -0,0 +1,57 @@
+package com.swedenrosca.reconciliation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One incoming transfer read from a bank statement, or a line that could not be read, which has an error instead.
+ */
+public class StatementLine {
+    private final long lineNumber;
+    private final String reference;
+    private final LocalDate bookingDate;
+    private final BigDecimal amount;
+    private final String clearingNumber;
+    private final String bankAccount;
+    private final String error;
+
+    public StatementLine(long lineNumber, String reference, LocalDate bookingDate, BigDecimal amount,
+                         String clearingNumber, String bankAccount) {
+        this(lineNumber, reference, bookingDate, amount, clearingNumber, bankAccount, null);
+    }
+
+    private StatementLine(long lineNumber, String reference, LocalDate bookingDate, BigDecimal amount,
+                          String clearingNumber, String bankAccount, String error) {
+        this.lineNumber = lineNumber;
+        this.reference = reference;
+        this.bookingDate = bookingDate;
+        this.amount = amount;
+        this.clearingNumber = clearingNumber;
+        this.bankAccount = bankAccount;
+        this.error = error;
+    }
+
+    public static StatementLine invalid(long lineNumber, String error) {
+        return new StatementLine(lineNumber, null, null, null, null, null, error);
+    }
+
+    public long getLineNumber() { return lineNumber; }
+    public String getReference() { return reference; }
+    public LocalDate getBookingDate() { return bookingDate; }
+    public BigDecimal getAmount() { return amount; }
+    public String getClearingNumber() { return clearingNumber; }
+    public String getBankAccount() { return bankAccount; }
+    public String getError() { return error; }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return isValid()
+                ? "line " + lineNumber + " (" + reference + ", " + bookingDate + ", " + amount + " from " +
+                        clearingNumber + "-" + bankAccount + ")"
+                : "line " + lineNumber + ": " + error;
+    }
+}
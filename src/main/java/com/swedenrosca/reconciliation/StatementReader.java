@@ -0,0 +1,20 @@
+package com.swedenrosca.reconciliation;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * Reads the incoming transfers of one bank statement lazily, so statements of any size can be imported.
+ */
+public interface StatementReader {
+
+    /**
+     * Name of the statement, recorded with every imported transaction.
+     */
+    String getSource();
+
+    /**
+     * The statement's lines in file order. Closing the stream closes the file.
+     */
+    Stream<StatementLine> lines() throws IOException;
+}
@@ -0,0 +1,46 @@
+package com.swedenrosca.reminder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the digests to one text file, for previewing a run without queueing any mail.
+ */
+public class FileReminderSink implements ReminderSink {
+    private final Path file;
+
+    public FileReminderSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + file;
+    }
+
+    @Override
+    public int write(List<ReminderDigest> batch) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (ReminderDigest digest : batch) {
+                writer.write("To: " + digest.getRecipient());
+                writer.newLine();
+                writer.write("Subject: " + digest.getSubject());
+                writer.newLine();
+                writer.newLine();
+                writer.write(digest.getBody());
+                writer.newLine();
+            }
+        }
+        return batch.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.swedenrosca.reminder;
+
+import com.swedenrosca.model.OutboxMessage;
+import com.swedenrosca.repository.OutboxRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Queues each digest as a PAYMENT_REMINDER outbox message, one transaction per batch, for the
+ * outbox dispatcher to deliver. Digests whose dedupe key is already in the outbox are skipped.
+ */
+public class OutboxReminderSink implements ReminderSink {
+    private final SessionFactory sessionFactory;
+    private final OutboxRepository outboxRepository;
+
+    public OutboxReminderSink(SessionFactory sessionFactory, OutboxRepository outboxRepository) {
+        this.sessionFactory = sessionFactory;
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Override
+    public String getName() {
+        return "outbox";
+    }
+
+    @Override
+    public int write(List<ReminderDigest> batch) {
+        List<String> keys = new ArrayList<>(batch.size());
+        for (ReminderDigest digest : batch) {
+            keys.add(digest.getDedupeKey());
+        }
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try {
+                Set<String> existing = new HashSet<>(outboxRepository.findExistingDedupeKeys(session, keys));
+                int written = 0;
+                for (ReminderDigest digest : batch) {
+                    if (existing.contains(digest.getDedupeKey())) {
+                        continue;
+                    }
+                    outboxRepository.save(session, new OutboxMessage(OutboxMessage.PAYMENT_REMINDER,
+                            digest.getDedupeKey(), digest.getRecipient(), digest.getSubject(), digest.getBody()));
+                    written++;
+                }
+                session.getTransaction().commit();
+                return written;
+            } catch (RuntimeException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                throw e;
+            }
+        }
+    }
+}
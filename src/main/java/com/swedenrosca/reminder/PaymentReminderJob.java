@@ -0,0 +1,285 @@
+package com.swedenrosca.reminder;
+
+import com.swedenrosca.model.PaymentStatus;
+import com.swedenrosca.model.ReminderLine;
+import com.swedenrosca.repository.PaymentRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Reminds every user with payments that are overdue or due within the next few days, across all groups,
+ * with one digest per user. Payments are streamed in payer order and never held in memory beyond the
+ * current user: each user's payments are rendered on a small pool while the next user is read, and the
+ * digests go to the sink in batches. The render queue is bounded and full queues make the reader render
+ * itself, so a slow sink slows the scan down instead of filling the heap.
+ */
+public class PaymentReminderJob {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReminderJob.class);
+
+    public static final int DEFAULT_WINDOW_DAYS = 3;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_PARALLELISM = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+    // Payments listed in one digest; the rest are only counted, which keeps the body within the outbox column
+    private static final int MAX_LISTED_PAYMENTS = 25;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final SessionFactory sessionFactory;
+    private final PaymentRepository paymentRepository;
+    private final ReminderSink sink;
+    private final int windowDays;
+    private final int batchSize;
+    private final int parallelism;
+
+    public PaymentReminderJob(SessionFactory sessionFactory, PaymentRepository paymentRepository, ReminderSink sink) {
+        this(sessionFactory, paymentRepository, sink, DEFAULT_WINDOW_DAYS, DEFAULT_BATCH_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    public PaymentReminderJob(SessionFactory sessionFactory, PaymentRepository paymentRepository, ReminderSink sink,
+                              int windowDays, int batchSize, int parallelism) {
+        if (windowDays < 0 || batchSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Window must not be negative; batch size and parallelism must be positive");
+        }
+        this.sessionFactory = sessionFactory;
+        this.paymentRepository = paymentRepository;
+        this.sink = sink;
+        this.windowDays = windowDays;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+    public Report run() {
+        return run(LocalDateTime.now());
+    }
+
+    public Report run(LocalDateTime now) {
+        long start = System.nanoTime();
+        Batcher batcher = new Batcher();
+        ThreadPoolExecutor renderers = newRenderPool();
+        int users = 0;
+        long payments = 0;
+        try (Session session = sessionFactory.openSession();
+             Stream<ReminderLine> lines = paymentRepository.streamReminderLines(session, now.plusDays(windowDays))) {
+            Iterator<ReminderLine> iterator = lines.iterator();
+            List<ReminderLine> current = new ArrayList<>();
+            while (iterator.hasNext()) {
+                ReminderLine line = iterator.next();
+                if (!current.isEmpty() && !current.get(0).getUserId().equals(line.getUserId())) {
+                    submit(renderers, batcher, current, now);
+                    users++;
+                    current = new ArrayList<>();
+                }
+                current.add(line);
+                payments++;
+            }
+            if (!current.isEmpty()) {
+                submit(renderers, batcher, current, now);
+                users++;
+            }
+        } finally {
+            renderers.shutdown();
+            awaitTermination(renderers);
+        }
+        batcher.flush();
+        batcher.rethrowFailure();
+
+        Report report = new Report(users, payments, batcher.digests, batcher.written, batcher.skipped,
+                batcher.batches, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Payment reminders via {}: {}", sink.getName(), report);
+        return report;
+    }
+
+    private void submit(ThreadPoolExecutor renderers, Batcher batcher, List<ReminderLine> lines, LocalDateTime now) {
+        // Stop reading as soon as the sink has failed rather than rendering digests nobody will write
+        batcher.rethrowFailure();
+        renderers.execute(() -> {
+            try {
+                batcher.add(render(lines, now));
+            } catch (RuntimeException e) {
+                batcher.fail(e);
+            }
+        });
+    }
+
+    /**
+     * The digest for one user's payments, or null when the user has no email address to send it to.
+     */
+    ReminderDigest render(List<ReminderLine> lines, LocalDateTime now) {
+        ReminderLine first = lines.get(0);
+        if (first.getEmail() == null || first.getEmail().isBlank()) {
+            return null;
+        }
+        lines.sort(Comparator.comparing(ReminderLine::getDueDate).thenComparing(ReminderLine::getPaymentId));
+
+        List<ReminderLine> overdue = new ArrayList<>();
+        List<ReminderLine> dueSoon = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (ReminderLine line : lines) {
+            if (line.getStatus() == PaymentStatus.LATE || line.getDueDate().isBefore(now)) {
+                overdue.add(line);
+            } else {
+                dueSoon.add(line);
+            }
+            total = total.add(line.getAmount());
+        }
+
+        String newline = System.lineSeparator();
+        StringBuilder body = new StringBuilder()
+                .append("Hi ").append(first.getFirstName()).append(",").append(newline)
+                .append(newline);
+        if (!overdue.isEmpty()) {
+            body.append("These payments are overdue:").append(newline);
+            appendPayments(body, overdue);
+            body.append(newline);
+        }
+        if (!dueSoon.isEmpty()) {
+            body.append("These payments are due within ").append(windowDays).append(" days:").append(newline);
+            appendPayments(body, dueSoon);
+            body.append(newline);
+        }
+        body.append("Total to pay: ").append(total).append(" SEK.").append(newline);
+
+        String subject = overdue.isEmpty()
+                ? dueSoon.size() + (dueSoon.size() == 1 ? " payment" : " payments") + " due soon"
+                : overdue.size() + (overdue.size() == 1 ? " payment is" : " payments are") + " overdue";
+        return new ReminderDigest(first.getUserId(), first.getEmail(), now.toLocalDate(), subject, body.toString(),
+                dueSoon.size(), overdue.size(), total);
+    }
+
+    private static void appendPayments(StringBuilder body, List<ReminderLine> lines) {
+        String newline = System.lineSeparator();
+        for (int i = 0; i < lines.size() && i < MAX_LISTED_PAYMENTS; i++) {
+            ReminderLine line = lines.get(i);
+            body.append("  - ").append(line.getAmount()).append(" SEK to ").append(line.getGroupName())
+                    .append(", due ").append(DATE_FORMAT.format(line.getDueDate()))
+                    .append(" (payment ").append(line.getPaymentId()).append(")").append(newline);
+        }
+        if (lines.size() > MAX_LISTED_PAYMENTS) {
+            body.append("  ... and ").append(lines.size() - MAX_LISTED_PAYMENTS).append(" more").append(newline);
+        }
+    }
+
+    private ThreadPoolExecutor newRenderPool() {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-reminders-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor executor) {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Still rendering payment reminders, {} queued", executor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering payment reminders", e);
+        }
+    }
+
+    /**
+     * Collects rendered digests and writes them in batches. Writing happens under the same lock as adding,
+     * so the sink never sees two batches at once and renderers wait while a batch is written.
+     */
+    private final class Batcher {
+        private final List<ReminderDigest> buffer = new ArrayList<>();
+        private int digests;
+        private int written;
+        private int skipped;
+        private int batches;
+        private volatile Exception failure;
+
+        synchronized void add(ReminderDigest digest) {
+            if (digest == null) {
+                skipped++;
+                return;
+            }
+            buffer.add(digest);
+            if (buffer.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            if (buffer.isEmpty() || failure != null) {
+                return;
+            }
+            try {
+                written += sink.write(buffer);
+                digests += buffer.size();
+                batches++;
+            } catch (Exception e) {
+                fail(e);
+            }
+            buffer.clear();
+        }
+
+        void fail(Exception e) {
+            if (failure == null) {
+                failure = e;
+                logger.error("Payment reminder run failed", e);
+            }
+        }
+
+        void rethrowFailure() {
+            if (failure != null) {
+                throw new IllegalStateException("Payment reminders failed via " + sink.getName(), failure);
+            }
+        }
+    }
+
+    public static class Report {
+        private final int users;
+        private final long payments;
+        private final int digests;
+        private final int written;
+        private final int skippedUsers;
+        private final int batches;
+        private final long durationMillis;
+
+        Report(int users, long payments, int digests, int written, int skippedUsers, int batches, long durationMillis) {
+            this.users = users;
+            this.payments = payments;
+            this.digests = digests;
+            this.written = written;
+            this.skippedUsers = skippedUsers;
+            this.batches = batches;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getUsers() { return users; }
+        public long getPayments() { return payments; }
+        public int getDigests() { return digests; }
+        public int getWritten() { return written; }
+        public int getSkippedUsers() { return skippedUsers; }
+        public int getBatches() { return batches; }
+        public long getDurationMillis() { return durationMillis; }
+
+        @Override
+        public String toString() {
+            return "users=" + users + ", payments=" + payments + ", digests=" + digests + ", written=" + written +
+                    ", already sent=" + (digests - written) + ", without email=" + skippedUsers +
+                    ", batches=" + batches + ", duration=" + durationMillis + " ms";
+        }
+    }
+}
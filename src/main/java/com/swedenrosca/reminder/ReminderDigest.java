@@ -0,0 +1,46 @@
+package com.swedenrosca.reminder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * All of one user's due-soon and overdue payments, rendered as a single message.
+ */
+public class ReminderDigest {
+    private final Long userId;
+    private final String recipient;
+    private final LocalDate runDate;
+    private final String subject;
+    private final String body;
+    private final int dueSoonCount;
+    private final int overdueCount;
+    private final BigDecimal total;
+
+    public ReminderDigest(Long userId, String recipient, LocalDate runDate, String subject, String body,
+                          int dueSoonCount, int overdueCount, BigDecimal total) {
+        this.userId = userId;
+        this.recipient = recipient;
+        this.runDate = runDate;
+        this.subject = subject;
+        this.body = body;
+        this.dueSoonCount = dueSoonCount;
+        this.overdueCount = overdueCount;
+        this.total = total;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getRecipient() { return recipient; }
+    public LocalDate getRunDate() { return runDate; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+    public int getDueSoonCount() { return dueSoonCount; }
+    public int getOverdueCount() { return overdueCount; }
+    public BigDecimal getTotal() { return total; }
+
+    /**
+     * One digest per user and day, so running the job twice on the same day reminds nobody twice.
+     */
+    public String getDedupeKey() {
+        return "reminder:user:" + userId + ":" + runDate;
+    }
+}
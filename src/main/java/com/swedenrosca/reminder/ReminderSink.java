@@ -0,0 +1,17 @@
+package com.swedenrosca.reminder;
+
+import java.util.List;
+
+/**
+ * Where the payment reminder job writes its digests. Called with one batch at a time, never concurrently.
+ */
+public interface ReminderSink {
+
+    String getName();
+
+    /**
+     * Writes the batch and returns how many digests were actually written; digests already written
+     * on an earlier run may be skipped.
+     */
+    int write(List<ReminderDigest> batch) throws Exception;
+}
@@ -0,0 +1,35 @@
+package com.swedenrosca.repository;
+
+import com.swedenrosca.model.BankTransaction;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class BankTransactionRepository {
+
+    /**
+     * Those of the given bank references that were already imported.
+     */
+    public List<String> findExistingReferences(Session session, Collection<String> references) {
+        if (references.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return session.createQuery("SELECT b.reference FROM BankTransaction b WHERE b.reference IN (:references)",
+                        String.class)
+                .setParameterList("references", references)
+                .getResultList();
+    }
+
+    /**
+     * Inserts the transactions in JDBC batches; the ids are the bank references, so nothing is read back.
+     */
+    public void saveAll(Session session, Collection<BankTransaction> transactions) {
+        BatchSupport.persistAll(session, transactions);
+    }
+
+    public void deleteAll(Session session) {
+        session.createMutationQuery("DELETE FROM BankTransaction").executeUpdate();
+    }
+}
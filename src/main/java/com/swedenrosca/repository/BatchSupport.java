@@ -0,0 +1,31 @@
+package com.swedenrosca.repository;
+
+import org.hibernate.Session;
+
+import java.util.Collection;
+
+/**
+ * Persists collections in JDBC batches. Must match hibernate.jdbc.batch_size in hibernate.cfg.xml.
+ */
+final class BatchSupport {
+
+    static final int BATCH_SIZE = 50;
+
+    private BatchSupport() {}
+
+    /**
+     * Persists all entities, flushing and clearing the session after every full batch.
+     * Entities loaded earlier in the session are detached once a batch has been flushed.
+     */
+    static void persistAll(Session session, Collection<?> entities) {
+        int count = 0;
+        for (Object entity : entities) {
+            session.persist(entity);
+            if (++count % BATCH_SIZE == 0) {
+                session.flush();
+                session.clear();
+            }
+        }
+        session.flush();
+    }
+}
@@ -0,0 +1,49 @@
+package com.swedenrosca.repository;
+
+import jakarta.persistence.EntityGraph;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.query.Query;
+
+import java.util.Map;
+
+/**
+ * Use-case specific fetch plans. Each plan (other than MINIMAL) maps to a named entity graph
+ * "&lt;Entity&gt;.&lt;graph&gt;" declared on Payment and Round (ROUND_SETTLEMENT on Round only),
+ * applied with fetch-graph semantics.
+ */
+public enum FetchPlan {
+    /** Only the entity itself; associations stay lazy and are batch-fetched on access. */
+    MINIMAL(null),
+    /** Tables and lists: group, creator and the round winner. */
+    DASHBOARD_LIST("dashboardList"),
+    /** Paying a single payment: everything the confirmation dialog and balance updates touch. */
+    PAYMENT_CONFIRMATION("paymentConfirmation"),
+    /** Closing a round: the winner and the group total; paid counts come from the round itself. */
+    ROUND_SETTLEMENT("roundSettlement");
+
+    private final String graph;
+
+    FetchPlan(String graph) {
+        this.graph = graph;
+    }
+
+    public String graphName(Class<?> entityClass) {
+        return graph == null ? null : entityClass.getSimpleName() + "." + graph;
+    }
+
+    <T> Query<T> applyTo(Session session, Query<T> query, Class<T> entityClass) {
+        if (graph != null) {
+            query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, session.getEntityGraph(graphName(entityClass)));
+        }
+        return query;
+    }
+
+    <T> T find(Session session, Class<T> entityClass, Object id) {
+        if (graph == null) {
+            return session.get(entityClass, id);
+        }
+        EntityGraph<?> entityGraph = session.getEntityGraph(graphName(entityClass));
+        return session.find(entityClass, id, Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, entityGraph));
+    }
+}
@@ -0,0 +1,208 @@
+package com.swedenrosca.repository;
+
+import com.swedenrosca.model.GroupFinancials;
+import com.swedenrosca.model.PaymentStatus;
+import com.swedenrosca.model.PaymentTotals;
+import com.swedenrosca.model.RoundStatus;
+import jakarta.persistence.LockModeType;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GroupFinancialsRepository {
+
+    public GroupFinancials getByGroupId(Session session, Long groupId) {
+        return session.get(GroupFinancials.class, groupId);
+    }
+
+    public List<GroupFinancials> getAll(Session session) {
+        return session.createQuery("FROM GroupFinancials f ORDER BY f.groupId", GroupFinancials.class)
+                .getResultList();
+    }
+
+    /**
+     * Every row, locked until the transaction ends. The locking scan also locks the gaps between the rows,
+     * so no transaction can update or insert a group's totals until then.
+     */
+    public List<GroupFinancials> getAllForUpdate(Session session) {
+        return session.createQuery("FROM GroupFinancials f ORDER BY f.groupId", GroupFinancials.class)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    /**
+     * Moves the given payments' totals from one status bucket to another (from is null for new payments).
+     * Call it after the payments themselves have changed in the same transaction: a group without a row
+     * yet gets one computed from its payments, which then already include the change.
+     */
+    public void recordTransition(Session session, PaymentStatus from, PaymentStatus to, PaymentTotals totals) {
+        if (totals.getCount() == 0 || from == to) {
+            return;
+        }
+        Delta delta = Delta.of(to, totals).minus(Delta.of(from, totals));
+        int updated = session.createMutationQuery(
+                "UPDATE GroupFinancials f SET " +
+                "f.collectedAmount = f.collectedAmount + :collected, " +
+                "f.outstandingAmount = f.outstandingAmount + :outstanding, " +
+                "f.lateAmount = f.lateAmount + :late, " +
+                "f.lateCount = f.lateCount + :lateCount, " +
+                "f.unpaidCount = f.unpaidCount + :unpaidCount, " +
+                "f.feesAmount = f.feesAmount + :fees, " +
+                "f.updatedAt = :now " +
+                "WHERE f.groupId = :groupId")
+                .setParameter("collected", delta.collected)
+                .setParameter("outstanding", delta.outstanding)
+                .setParameter("late", delta.late)
+                .setParameter("lateCount", delta.lateCount)
+                .setParameter("unpaidCount", delta.unpaidCount)
+                .setParameter("fees", delta.fees)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("groupId", totals.getGroupId())
+                .executeUpdate();
+        if (updated == 0) {
+            rebuild(session, totals.getGroupId());
+        }
+    }
+
+    /**
+     * Adds a round payout to the group's paid out total. Like recordTransition, call it after the round was completed.
+     */
+    public void recordPayout(Session session, Long groupId, BigDecimal amount) {
+        int updated = session.createMutationQuery(
+                "UPDATE GroupFinancials f SET f.paidOutAmount = f.paidOutAmount + :amount, f.updatedAt = :now " +
+                "WHERE f.groupId = :groupId")
+                .setParameter("amount", amount)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("groupId", groupId)
+                .executeUpdate();
+        if (updated == 0) {
+            rebuild(session, groupId);
+        }
+    }
+
+    /**
+     * Recomputes the totals of every group that has payments from the payments and rounds tables,
+     * keyed by group id. Nothing is written.
+     */
+    public Map<Long, GroupFinancials> compute(Session session) {
+        return compute(session, null);
+    }
+
+    /**
+     * Recomputes and stores the totals of one group from its payments and rounds.
+     */
+    public GroupFinancials rebuild(Session session, Long groupId) {
+        GroupFinancials computed = compute(session, groupId).get(groupId);
+        if (computed == null) {
+            computed = new GroupFinancials(groupId, null, null, null, null, null, null);
+        }
+        return session.merge(computed);
+    }
+
+    public GroupFinancials save(Session session, GroupFinancials financials) {
+        return session.merge(financials);
+    }
+
+    public int deleteByGroupId(Session session, Long groupId) {
+        return session.createMutationQuery("DELETE FROM GroupFinancials f WHERE f.groupId = :groupId")
+                .setParameter("groupId", groupId)
+                .executeUpdate();
+    }
+
+    public void deleteAll(Session session) {
+        session.createMutationQuery("DELETE FROM GroupFinancials").executeUpdate();
+    }
+
+    private Map<Long, GroupFinancials> compute(Session session, Long groupId) {
+        Query<GroupFinancials> totals = session.createQuery(
+                "SELECT new com.swedenrosca.model.GroupFinancials(p.group.id, " +
+                "  SUM(CASE WHEN p.status = :paid THEN p.amount END), " +
+                "  SUM(CASE WHEN p.status IN (:pending, :late) THEN p.amount END), " +
+                "  SUM(CASE WHEN p.status = :late THEN p.amount END), " +
+                "  COUNT(CASE WHEN p.status = :late THEN 1 END), " +
+                "  COUNT(CASE WHEN p.status <> :paid THEN 1 END), " +
+                "  SUM(CASE WHEN p.status = :paid THEN p.serviceFee END)) " +
+                "FROM Payment p " +
+                (groupId != null ? "WHERE p.group.id = :groupId " : "") +
+                "GROUP BY p.group.id", GroupFinancials.class)
+                .setParameter("paid", PaymentStatus.PAID)
+                .setParameter("pending", PaymentStatus.PENDING)
+                .setParameter("late", PaymentStatus.LATE);
+        Query<Object[]> payouts = session.createQuery(
+                "SELECT r.group.id, SUM(g.totalAmount) FROM Round r JOIN r.group g " +
+                "WHERE r.status = :completed AND r.winnerParticipant IS NOT NULL " +
+                (groupId != null ? "AND r.group.id = :groupId " : "") +
+                "GROUP BY r.group.id", Object[].class)
+                .setParameter("completed", RoundStatus.COMPLETED);
+        if (groupId != null) {
+            totals.setParameter("groupId", groupId);
+            payouts.setParameter("groupId", groupId);
+        }
+
+        Map<Long, GroupFinancials> result = new LinkedHashMap<>();
+        for (GroupFinancials financials : totals.getResultList()) {
+            result.put(financials.getGroupId(), financials);
+        }
+        for (Object[] row : payouts.getResultList()) {
+            Long id = (Long) row[0];
+            GroupFinancials financials = result.computeIfAbsent(id,
+                    key -> new GroupFinancials(key, null, null, null, null, null, null));
+            financials.setPaidOutAmount(row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO);
+        }
+        return result;
+    }
+
+    /**
+     * What a set of payments adds to each column while it is in one status.
+     */
+    private static final class Delta {
+        private BigDecimal collected = BigDecimal.ZERO;
+        private BigDecimal outstanding = BigDecimal.ZERO;
+        private BigDecimal late = BigDecimal.ZERO;
+        private int lateCount;
+        private int unpaidCount;
+        private BigDecimal fees = BigDecimal.ZERO;
+
+        static Delta of(PaymentStatus status, PaymentTotals totals) {
+            Delta delta = new Delta();
+            if (status == null) {
+                return delta;
+            }
+            int count = Math.toIntExact(totals.getCount());
+            switch (status) {
+                case PAID -> {
+                    delta.collected = totals.getAmount();
+                    delta.fees = totals.getFees();
+                }
+                case PENDING -> {
+                    delta.outstanding = totals.getAmount();
+                    delta.unpaidCount = count;
+                }
+                case LATE -> {
+                    delta.outstanding = totals.getAmount();
+                    delta.late = totals.getAmount();
+                    delta.lateCount = count;
+                    delta.unpaidCount = count;
+                }
+                case MISSED -> delta.unpaidCount = count;
+            }
+            return delta;
+        }
+
+        Delta minus(Delta other) {
+            Delta result = new Delta();
+            result.collected = collected.subtract(other.collected);
+            result.outstanding = outstanding.subtract(other.outstanding);
+            result.late = late.subtract(other.late);
+            result.lateCount = lateCount - other.lateCount;
+            result.unpaidCount = unpaidCount - other.unpaidCount;
+            result.fees = fees.subtract(other.fees);
+            return result;
+        }
+    }
+}
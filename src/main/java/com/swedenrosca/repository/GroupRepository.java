@@ -8,6 +8,7 @@ import java.math.BigDecimal;
 import java.util.*;
 
 public class GroupRepository {
+    private final TurnOrderIndex turnOrderIndex = TurnOrderIndex.getInstance();
 
     public Group getById(Session session, Long id) {
         return session.get(Group.class, id);
@@ -17,46 +18,55 @@ public class GroupRepository {
         return session.createQuery("FROM Group", Group.class).getResultList();
     }
 
-    public List<Group> getActiveGroups(Session session) {
-        Query<Group> query = session.createQuery("FROM Group WHERE status = :status", Group.class);
-        query.setParameter("status", GroupStatus.ACTIVE);
+    /**
+     * Dashboard summaries (member count, paid/outstanding sums, late count) for all groups
+     * with one of the given statuses, or all groups when statuses is null or empty.
+     * The sums come from group_financials rather than from the payments.
+     */
+    public List<GroupSummary> getSummaries(Session session, Collection<GroupStatus> statuses) {
+        boolean filtered = statuses != null && !statuses.isEmpty();
+        Query<GroupSummary> query = session.createQuery(
+                "SELECT new com.swedenrosca.model.GroupSummary(g.id, g.groupName, g.status, g.monthlyContribution, " +
+                "  (SELECT COUNT(pa) FROM Participant pa WHERE pa.group = g), " +
+                "  f.collectedAmount, f.outstandingAmount, f.lateCount) " +
+                "FROM Group g LEFT JOIN GroupFinancials f ON f.groupId = g.id " +
+                (filtered ? "WHERE g.status IN (:statuses) " : "") +
+                "ORDER BY g.id", GroupSummary.class);
+        if (filtered) {
+            query.setParameterList("statuses", statuses);
+        }
         return query.getResultList();
     }
 
-    public List<Integer> getAvailableTurnOrders1(Long groupId) {
-        Session session = SingletonSessionFactory.getSessionFactory().openSession();
-
-        Group group = session.get(Group.class, groupId);
-        int max = group.getMaxMembers();
-
-        List<Integer> allOrders = new ArrayList<>();
-        for (int i = 1; i <= max; i++) {
-            allOrders.add(i);
+    /**
+     * Number of groups and sum of their total amounts per status, in one query.
+     */
+    public GroupStatistics getStatistics(Session session) {
+        List<Object[]> rows = session.createQuery(
+                "SELECT g.status, COUNT(g), SUM(g.totalAmount) FROM Group g " +
+                "WHERE g.status IS NOT NULL GROUP BY g.status", Object[].class)
+                .getResultList();
+        Map<GroupStatus, Long> counts = new HashMap<>();
+        Map<GroupStatus, BigDecimal> totalAmounts = new HashMap<>();
+        for (Object[] row : rows) {
+            GroupStatus status = (GroupStatus) row[0];
+            counts.put(status, ((Number) row[1]).longValue());
+            totalAmounts.put(status, row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO);
         }
+        return new GroupStatistics(counts, totalAmounts);
+    }
 
-        Query<Integer> query = session.createQuery(
-                "SELECT p.turnOrder FROM Participant p WHERE p.group = :group", Integer.class);
-        query.setParameter("group", group);
-        List<Integer> taken = query.getResultList();
-
-        allOrders.removeAll(taken);
-        session.close();
-        return allOrders;
+    public List<Group> getActiveGroups(Session session) {
+        Query<Group> query = session.createQuery("FROM Group WHERE status = :status", Group.class);
+        query.setParameter("status", GroupStatus.ACTIVE);
+        return query.getResultList();
     }
 
+    /**
+     * Free turn orders of the group in ascending order, from {@link TurnOrderIndex}.
+     */
     public List<Integer> getAvailableTurnOrders(Session session, Long groupId) {
-        Group group = session.get(Group.class, groupId);
-        List<Integer> takenOrders = new ArrayList<>();
-        for (Participant participant : group.getParticipants()) {
-            takenOrders.add(participant.getTurnOrder());
-        }
-        List<Integer> availableOrders = new ArrayList<>();
-        for (int i = 1; i <= group.getMaxMembers(); i++) {
-            if (!takenOrders.contains(i)) {
-                availableOrders.add(i);
-            }
-        }
-        return availableOrders;
+        return turnOrderIndex.freeTurnOrders(session, groupId);
     }
 
     public List<Group> getOpen(Session session) {
@@ -94,6 +104,21 @@ public class GroupRepository {
         session.persist(group);
     }
 
+    public void saveAll(Session session, Collection<Group> groups) {
+        BatchSupport.persistAll(session, groups);
+    }
+
+    /**
+     * Groups waiting for members, with their participants fetched in the same query.
+     */
+    public List<Group> getOpenWithParticipants(Session session) {
+        return session.createQuery(
+                "SELECT DISTINCT g FROM Group g LEFT JOIN FETCH g.participants " +
+                "WHERE g.status = :status ORDER BY g.id", Group.class)
+                .setParameter("status", GroupStatus.WAITING_FOR_MEMBERS)
+                .getResultList();
+    }
+
     public void update(Session session, Group group) {
         session.merge(group);
     }
@@ -126,6 +151,7 @@ public class GroupRepository {
 
         // Persist the participant to the database
         session.persist(participant);
+        turnOrderIndex.inserted(session, participant);
     }
 
     public void deleteParticipantFromGroup(Session session,Group group, User user) {
@@ -139,6 +165,7 @@ public class GroupRepository {
         // If found, remove the participant from the session
         if (participant != null) {
             session.remove(participant);
+            turnOrderIndex.deleted(session, participant);
         }
     }
 
@@ -273,6 +300,7 @@ public class GroupRepository {
 
     public void deleteAll(Session session) {
         session.createMutationQuery("DELETE FROM Group").executeUpdate();
+        turnOrderIndex.groupChanged(session, null);
     }
 
     public void updateGroupStatusIfFull(Session session, Group group) {
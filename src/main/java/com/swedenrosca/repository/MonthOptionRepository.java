@@ -1,12 +1,15 @@
 package com.swedenrosca.repository;
 
 import com.swedenrosca.model.MonthOption;
+import com.swedenrosca.util.ReferenceDataCache;
 import org.hibernate.Session;
 import java.util.List;
 
 public class MonthOptionRepository {
     public List<MonthOption> getAll(Session session) {
         return session.createQuery("SELECT DISTINCT mo FROM MonthOption mo", MonthOption.class)
+                      .setCacheable(true)
+                      .setCacheRegion(ReferenceDataCache.QUERY_REGION)
                       .getResultList();
     }
 
@@ -5,6 +5,7 @@ import com.swedenrosca.model.Participant;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class MonthlyPaymentRepository {
 
@@ -50,6 +51,18 @@ public class MonthlyPaymentRepository {
         return query.getResultList();
     }
 
+    /**
+     * Streams all monthly payments ordered by id without loading the whole table. Close the returned stream.
+     */
+    public Stream<MonthlyPayment> streamAll(Session session, int fetchSize) {
+        return ScrollSupport.stream(session,
+                session.createSelectionQuery("FROM MonthlyPayment e ORDER BY e.id", MonthlyPayment.class), fetchSize);
+    }
+
+    public Stream<MonthlyPayment> streamAll(Session session) {
+        return streamAll(session, ScrollSupport.DEFAULT_FETCH_SIZE);
+    }
+
     public void update(Session session, MonthlyPayment payment) {
         session.merge(payment);
     }
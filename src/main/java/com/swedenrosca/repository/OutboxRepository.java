@@ -0,0 +1,67 @@
+package com.swedenrosca.repository;
+
+import com.swedenrosca.model.OutboxMessage;
+import com.swedenrosca.model.OutboxStatus;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class OutboxRepository {
+
+    public void save(Session session, OutboxMessage message) {
+        session.persist(message);
+    }
+
+    /**
+     * Those of the given dedupe keys that are already in the outbox.
+     */
+    public List<String> findExistingDedupeKeys(Session session, Collection<String> dedupeKeys) {
+        if (dedupeKeys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return session.createQuery("SELECT m.dedupeKey FROM OutboxMessage m WHERE m.dedupeKey IN (:keys)", String.class)
+                .setParameterList("keys", dedupeKeys)
+                .getResultList();
+    }
+
+    /**
+     * Locks up to limit due PENDING messages, oldest first, with SELECT ... FOR UPDATE SKIP LOCKED.
+     * Rows another dispatcher has locked are skipped instead of waited for; the locks are held until
+     * the transaction ends, so callers lease the rows (move availableAt forward) and commit right away.
+     */
+    public List<OutboxMessage> claimBatch(Session session, LocalDateTime now, int limit) {
+        return session.createQuery(
+                "FROM OutboxMessage m WHERE m.status = :pending AND m.availableAt <= :now ORDER BY m.id",
+                OutboxMessage.class)
+                .setParameter("pending", OutboxStatus.PENDING)
+                .setParameter("now", now)
+                .setMaxResults(limit)
+                .setHibernateLockMode(LockMode.UPGRADE_SKIPLOCKED)
+                .getResultList();
+    }
+
+    public OutboxMessage getByIdForUpdate(Session session, Long id) {
+        return session.get(OutboxMessage.class, id, LockMode.PESSIMISTIC_WRITE);
+    }
+
+    public long countByStatus(Session session, OutboxStatus status) {
+        return session.createQuery("SELECT COUNT(m) FROM OutboxMessage m WHERE m.status = :status", Long.class)
+                .setParameter("status", status)
+                .getSingleResult();
+    }
+
+    public int deleteSentBefore(Session session, LocalDateTime cutoff) {
+        return session.createMutationQuery("DELETE FROM OutboxMessage m WHERE m.status = :sent AND m.sentAt < :cutoff")
+                .setParameter("sent", OutboxStatus.SENT)
+                .setParameter("cutoff", cutoff)
+                .executeUpdate();
+    }
+
+    public void deleteAll(Session session) {
+        session.createMutationQuery("DELETE FROM OutboxMessage").executeUpdate();
+    }
+}
@@ -3,13 +3,16 @@ package com.swedenrosca.repository;
 import com.swedenrosca.model.Group;
 import com.swedenrosca.model.GroupRole;
 import com.swedenrosca.model.Participant;
+import com.swedenrosca.model.ReceiveStatus;
 import com.swedenrosca.model.User;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public class ParticipantRepository {
-
+    private final TurnOrderIndex turnOrderIndex = TurnOrderIndex.getInstance();
 
     public Participant getById(Session session, Long id) {
         return session.get(Participant.class, id);
@@ -29,14 +32,36 @@ public class ParticipantRepository {
 
     public void save(Session session, Participant participant) {
         session.persist(participant);
+        turnOrderIndex.inserted(session, participant);
+    }
+
+    public void saveAll(Session session, Collection<Participant> participants) {
+        BatchSupport.persistAll(session, participants);
+        for (Participant participant : participants) {
+            turnOrderIndex.inserted(session, participant);
+        }
     }
 
     public void update(Session session, Participant participant) {
         session.merge(participant);
+        turnOrderIndex.groupChanged(session, participant.getGroup().getId());
     }
 
     public void delete(Session session, Participant participant) {
         session.remove(session.contains(participant) ? participant : session.merge(participant));
+        turnOrderIndex.deleted(session, participant);
+    }
+
+    /**
+     * Records that the participant received the round's payout.
+     */
+    public int markReceived(Session session, Long participantId, LocalDateTime receivedAt) {
+        return session.createMutationQuery(
+                "UPDATE Participant p SET p.receiveStatus = :received, p.receivedAt = :receivedAt WHERE p.id = :id")
+                .setParameter("received", ReceiveStatus.RECEIVED)
+                .setParameter("receivedAt", receivedAt)
+                .setParameter("id", participantId)
+                .executeUpdate();
     }
 
     public long countByGroupId(Session session, Long groupId) {
@@ -67,31 +92,37 @@ public class ParticipantRepository {
         for (Participant participant : participants) {
             session.remove(participant);
         }
+        turnOrderIndex.groupChanged(session, null);
     }
 
     public void deleteByGroup(Session session, Group group) {
         session.createMutationQuery("DELETE FROM Participant WHERE group = :group")
                 .setParameter("group", group).executeUpdate();
+        turnOrderIndex.groupChanged(session, group.getId());
     }
 
     public void deleteByUser(Session session, User user) {
         session.createMutationQuery("DELETE FROM Participant WHERE user = :user")
                 .setParameter("user", user).executeUpdate();
+        turnOrderIndex.groupChanged(session, null);
     }
 
     public void deleteByGroupAndUser(Session session, Group group, User user) {
         session.createMutationQuery("DELETE FROM Participant WHERE group = :group AND user = :user")
                 .setParameter("group", group).setParameter("user", user).executeUpdate();
+        turnOrderIndex.groupChanged(session, group.getId());
     }
 
     public void deleteByGroupAndTurnOrder(Session session, Group group, int turnOrder) {
         session.createMutationQuery("DELETE FROM Participant WHERE group = :group AND turnOrder = :turnOrder")
                 .setParameter("group", group).setParameter("turnOrder", turnOrder).executeUpdate();
+        turnOrderIndex.groupChanged(session, group.getId());
     }
 
     public void deleteByUserAndTurnOrder(Session session, User user, int turnOrder) {
         session.createMutationQuery("DELETE FROM Participant WHERE user = :user AND turnOrder = :turnOrder")
                 .setParameter("user", user).setParameter("turnOrder", turnOrder).executeUpdate();
+        turnOrderIndex.groupChanged(session, null);
     }
 
     public Participant getByRole(Session session, Group group, GroupRole role) {
@@ -1,6 +1,7 @@
 package com.swedenrosca.repository;
 
 import com.swedenrosca.model.PaymentOption;
+import com.swedenrosca.util.ReferenceDataCache;
 import org.hibernate.Session;
 import org.hibernate.query.*;
 import java.util.List;
@@ -9,6 +10,8 @@ public class PaymentOptionRepository {
     
     public List<PaymentOption> getAllMonthlyPayments(Session session) {
         Query<PaymentOption> query = session.createQuery("FROM PaymentOption", PaymentOption.class);
+        query.setCacheable(true);
+        query.setCacheRegion(ReferenceDataCache.QUERY_REGION);
         return query.getResultList();
     }
     
@@ -36,6 +39,9 @@ public class PaymentOptionRepository {
     }
 
     public List<PaymentOption> getAll(Session session) {
-        return session.createQuery("FROM PaymentOption", PaymentOption.class).getResultList();
+        return session.createQuery("FROM PaymentOption", PaymentOption.class)
+                .setCacheable(true)
+                .setCacheRegion(ReferenceDataCache.QUERY_REGION)
+                .getResultList();
     }
 }
@@ -1,6 +1,7 @@
 package com.swedenrosca.repository;
 
 import com.swedenrosca.model.PaymentPlan;
+import com.swedenrosca.util.ReferenceDataCache;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
@@ -32,7 +33,10 @@ public class PaymentPlanRepository {
      *  Retrieve all PaymentPlan records
      */
     public List<PaymentPlan> getAll(Session session) {
-        return session.createQuery("FROM PaymentPlan", PaymentPlan.class).getResultList();
+        return session.createQuery("FROM PaymentPlan", PaymentPlan.class)
+                .setCacheable(true)
+                .setCacheRegion(ReferenceDataCache.QUERY_REGION)
+                .getResultList();
     }
 
     /**
@@ -83,6 +87,8 @@ public class PaymentPlanRepository {
         );
         query.setParameter("monthlyContribution", monthlyContribution);
         query.setParameter("monthsCount", monthsCount);
+        query.setCacheable(true);
+        query.setCacheRegion(ReferenceDataCache.QUERY_REGION);
         return query.getResultList();
     }
 
@@ -1,12 +1,18 @@
 package com.swedenrosca.repository;
 
 import com.swedenrosca.model.*;
+import jakarta.persistence.LockModeType;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class PaymentRepository {
 
@@ -14,18 +20,24 @@ public class PaymentRepository {
     public PaymentRepository() {
     }
 
+    // Plan used by the methods below that do not take a FetchPlan; their results are shown outside the session
+    private static final FetchPlan DEFAULT_PLAN = FetchPlan.DASHBOARD_LIST;
+
     public List<Payment> getByGroup(Session session, Group group) {
+        return getByGroup(session, group, DEFAULT_PLAN);
+    }
+
+    public List<Payment> getByGroup(Session session, Group group, FetchPlan plan) {
         Query<Payment> query = session.createQuery("FROM Payment p WHERE p.group = :group", Payment.class);
         query.setParameter("group", group);
-        List<Payment> result = query.getResultList();
-        return result;
+        return plan.applyTo(session, query, Payment.class).getResultList();
     }
 
     public List<Payment> getByStatus(Session session, Group group, PaymentStatus status) {
         Query<Payment> query = session.createQuery("FROM Payment p WHERE p.group = :group AND p.status = :status", Payment.class);
         query.setParameter("group", group);
         query.setParameter("status", status);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
@@ -43,6 +55,10 @@ public class PaymentRepository {
     
     }
 
+    public void saveAll(Session session, Collection<Payment> payments) {
+        BatchSupport.persistAll(session, payments);
+    }
+
     public Payment update(Session session, Payment payment) {
         return (Payment) session.merge(payment);
     }
@@ -53,20 +69,155 @@ public class PaymentRepository {
     }
 
     public Payment getById(Session session, Long id) {
-        Payment payment = session.get(Payment.class, id);
-        return payment;
+        return getById(session, id, FetchPlan.PAYMENT_CONFIRMATION);
+    }
+
+    public Payment getById(Session session, Long id, FetchPlan plan) {
+        return plan.find(session, Payment.class, id);
+    }
+
+    /**
+     * Streams all payments ordered by id without loading the whole table. Close the returned stream.
+     */
+    public Stream<Payment> streamAll(Session session, int fetchSize) {
+        return ScrollSupport.stream(session,
+                session.createSelectionQuery("FROM Payment e ORDER BY e.id", Payment.class), fetchSize);
+    }
+
+    public Stream<Payment> streamAll(Session session) {
+        return streamAll(session, ScrollSupport.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Streams every PENDING or LATE payment due before the horizon, across all groups, ordered by payer
+     * so each payer's payments arrive together. Close the returned stream.
+     */
+    public Stream<ReminderLine> streamReminderLines(Session session, LocalDateTime horizon, int fetchSize) {
+        return ScrollSupport.stream(session, session.createSelectionQuery(
+                "SELECT new com.swedenrosca.model.ReminderLine(u.id, u.email, u.firstName, p.id, g.groupName, " +
+                "  p.amount, p.dueDate, p.status) " +
+                "FROM Payment p JOIN p.creator u JOIN p.group g " +
+                "WHERE p.status IN (:pending, :late) AND p.dueDate < :horizon " +
+                // Same order as idx_payments_creator_status_due, so rows stream without a sort
+                "ORDER BY u.id, p.status, p.dueDate", ReminderLine.class)
+                .setParameter("pending", PaymentStatus.PENDING)
+                .setParameter("late", PaymentStatus.LATE)
+                .setParameter("horizon", horizon), fetchSize);
+    }
+
+    public Stream<ReminderLine> streamReminderLines(Session session, LocalDateTime horizon) {
+        return streamReminderLines(session, horizon, ScrollSupport.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Streams every payment that is not PAID and whose payer has a bank account, oldest due date first.
+     * Close the returned stream.
+     */
+    public Stream<OpenPayment> streamOpenPayments(Session session, int fetchSize) {
+        return ScrollSupport.stream(session, session.createSelectionQuery(
+                "SELECT new com.swedenrosca.model.OpenPayment(p.id, u.id, u.email, u.firstName, u.clearingNumber, " +
+                "  u.bankAccount, g.id, g.groupName, r.id, p.amount, p.serviceFee, p.dueDate, p.status) " +
+                "FROM Payment p JOIN p.creator u JOIN p.group g LEFT JOIN p.round r " +
+                "WHERE p.status <> :paid AND u.bankAccount IS NOT NULL " +
+                "ORDER BY p.dueDate, p.id", OpenPayment.class)
+                .setParameter("paid", PaymentStatus.PAID), fetchSize);
+    }
+
+    public Stream<OpenPayment> streamOpenPayments(Session session) {
+        return streamOpenPayments(session, ScrollSupport.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Streams every payment as an export row in id order, without loading the entities. Close the returned stream.
+     */
+    public Stream<PaymentExportRow> streamExportRows(Session session, int fetchSize) {
+        return ScrollSupport.stream(session, session.createSelectionQuery(
+                "SELECT new com.swedenrosca.model.PaymentExportRow(p.id, p.group.id, r.id, c.id, p.amount, " +
+                "  p.serviceFee, p.status, p.paymentBy, p.dueDate, p.createdAt, p.paidAt) " +
+                "FROM Payment p LEFT JOIN p.round r LEFT JOIN p.creator c " +
+                "ORDER BY p.id", PaymentExportRow.class), fetchSize);
+    }
+
+    /**
+     * Count, amount and fees of all payments per status, plus how many were paid after their due date, in one query.
+     */
+    public PaymentStatistics getStatistics(Session session) {
+        List<Object[]> rows = session.createQuery(
+                "SELECT p.status, COUNT(p), SUM(p.amount), SUM(p.serviceFee), " +
+                "  COUNT(CASE WHEN p.paidAt > p.dueDate THEN 1 END) " +
+                "FROM Payment p GROUP BY p.status", Object[].class)
+                .getResultList();
+        Map<PaymentStatus, PaymentTotals> byStatus = new HashMap<>();
+        long paidLate = 0;
+        for (Object[] row : rows) {
+            byStatus.put((PaymentStatus) row[0], new PaymentTotals(null, (Number) row[1], (Number) row[2], (Number) row[3]));
+            paidLate += ((Number) row[4]).longValue();
+        }
+        return new PaymentStatistics(byStatus, paidLate);
+    }
+
+    /**
+     * The payments the given users made and the payouts they received in [from, to), in one query,
+     * ordered by user and date.
+     */
+    public List<StatementEntry> getStatementEntries(Session session, Collection<Long> userIds, LocalDateTime from,
+                                                    LocalDateTime to) {
+        if (userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object[]> rows = session.createQuery(
+                "SELECT p.creator.id, p.paidAt, g.groupName, r.roundNumber, p.amount, p.serviceFee, false " +
+                "FROM Payment p JOIN p.group g LEFT JOIN p.round r " +
+                "WHERE p.creator.id IN (:userIds) AND p.status = :paid AND p.paidAt >= :from AND p.paidAt < :to " +
+                "UNION ALL " +
+                "SELECT pa.user.id, pa.receivedAt, g.groupName, pa.turnOrder, g.totalAmount, CAST(NULL AS BigDecimal), true " +
+                "FROM Participant pa JOIN pa.group g " +
+                "WHERE pa.user.id IN (:userIds) AND pa.receiveStatus = :received " +
+                "AND pa.receivedAt >= :from AND pa.receivedAt < :to " +
+                "ORDER BY 1, 2", Object[].class)
+                .setParameterList("userIds", userIds)
+                .setParameter("paid", PaymentStatus.PAID)
+                .setParameter("received", ReceiveStatus.RECEIVED)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+        List<StatementEntry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            entries.add(new StatementEntry((Long) row[0], (LocalDateTime) row[1], (String) row[2], (Integer) row[3],
+                    (BigDecimal) row[4], (BigDecimal) row[5], (Boolean) row[6]));
+        }
+        return entries;
     }
 
     public List<Payment> listAll(Session session) {
         Query<Payment> query = session.createQuery("FROM Payment", Payment.class);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
+    /**
+     * Keyset page of payments ordered by (dueDate, id). Pass nulls for the first page,
+     * otherwise the dueDate and id of the last row of the previous page.
+     * The leading dueDate bound lets MySQL range-scan idx_payments_due_id instead of sorting the table.
+     */
+    public List<Payment> getPageAfter(Session session, LocalDateTime afterDueDate, Long afterId, int pageSize) {
+        Query<Payment> query;
+        if (afterDueDate == null || afterId == null) {
+            query = session.createQuery("FROM Payment p ORDER BY p.dueDate, p.id", Payment.class);
+        } else {
+            query = session.createQuery(
+                    "FROM Payment p WHERE p.dueDate >= :dueDate AND (p.dueDate > :dueDate OR p.id > :id) " +
+                    "ORDER BY p.dueDate, p.id", Payment.class);
+            query.setParameter("dueDate", afterDueDate);
+            query.setParameter("id", afterId);
+        }
+        return DEFAULT_PLAN.applyTo(session, query, Payment.class).setMaxResults(pageSize).getResultList();
+    }
+
     public List<Payment> getByGroupId(Session session, Long groupId) {
         Query<Payment> query = session.createQuery("FROM Payment p WHERE p.group.id = :groupId", Payment.class);
         query.setParameter("groupId", groupId);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
@@ -75,7 +226,7 @@ public class PaymentRepository {
         query.setParameter("group", group);
         query.setParameter("date", date);
         query.setParameter("status", PaymentStatus.PAID);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
@@ -84,14 +235,14 @@ public class PaymentRepository {
         query.setParameter("group", group);
         query.setParameter("now", now);
         query.setParameter("status", PaymentStatus.PENDING);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
     public List<Payment> getByPaymentType(Session session, PaymentBy type) {
         Query<Payment> query = session.createQuery("FROM Payment p WHERE p.paymentBy = :type", Payment.class);
         query.setParameter("type", type);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
@@ -106,7 +257,7 @@ public class PaymentRepository {
         Query<Payment> query = session.createQuery("FROM Payment p WHERE p.group = :group AND p.dueDate > :now", Payment.class);
         query.setParameter("group", group);
         query.setParameter("now", now);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
@@ -114,16 +265,123 @@ public class PaymentRepository {
         Query<Payment> query = session.createQuery("FROM Payment p WHERE p.createdAt BETWEEN :start AND :end", Payment.class);
         query.setParameter("start", start);
         query.setParameter("end", end);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
+    /**
+     * Reads the group's unpaid count from group_financials; a group without a row has no payments.
+     */
     public boolean areAllGroupPaymentsCompleted(Session session, Group group) {
-        Query<Long> query = session.createQuery("SELECT COUNT(p) FROM Payment p WHERE p.group = :group AND p.status != :status", Long.class);
-        query.setParameter("group", group);
-        query.setParameter("status", PaymentStatus.PAID);
-        boolean result = query.getSingleResult() == 0;
-        return result;
+        Query<Integer> query = session.createQuery("SELECT f.unpaidCount FROM GroupFinancials f WHERE f.groupId = :groupId", Integer.class);
+        query.setParameter("groupId", group.getId());
+        Integer unpaid = query.uniqueResult();
+        return unpaid == null || unpaid == 0;
+    }
+
+    /**
+     * Count, amount and fees per group of those of the given payments that are in the given status.
+     */
+    public List<PaymentTotals> sumByGroup(Session session, Collection<Long> ids, PaymentStatus status) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return session.createQuery(
+                "SELECT new com.swedenrosca.model.PaymentTotals(p.group.id, COUNT(p), SUM(p.amount), SUM(p.serviceFee)) " +
+                "FROM Payment p WHERE p.id IN (:ids) AND p.status = :status GROUP BY p.group.id", PaymentTotals.class)
+                .setParameterList("ids", ids)
+                .setParameter("status", status)
+                .getResultList();
+    }
+
+    /**
+     * Next chunk of payments in the given status that fell due before the cutoff, in (dueDate, id) order
+     * after the given key (null for the first chunk). Range-scans idx_payments_status_due_id, so only
+     * overdue rows are read.
+     */
+    public List<PaymentKey> findKeysByStatusDueBefore(Session session, PaymentStatus status, LocalDateTime cutoff,
+                                                      PaymentKey after, int limit) {
+        Query<PaymentKey> query = session.createQuery(
+                "SELECT new com.swedenrosca.model.PaymentKey(p.id, p.dueDate) FROM Payment p " +
+                "WHERE p.status = :status AND p.dueDate < :cutoff " +
+                (after != null ? "AND p.dueDate >= :afterDueDate AND (p.dueDate > :afterDueDate OR p.id > :afterId) " : "") +
+                "ORDER BY p.dueDate, p.id", PaymentKey.class)
+                .setParameter("status", status)
+                .setParameter("cutoff", cutoff);
+        if (after != null) {
+            query.setParameter("afterDueDate", after.getDueDate());
+            query.setParameter("afterId", after.getId());
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Moves the given payments from one status to another in a single UPDATE. Rows whose status changed
+     * in the meantime are left alone. Returns the number of rows updated.
+     */
+    public int transitionStatus(Session session, Collection<Long> ids, PaymentStatus from, PaymentStatus to) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return session.createMutationQuery(
+                "UPDATE Payment p SET p.status = :to WHERE p.id IN (:ids) AND p.status = :from")
+                .setParameter("to", to)
+                .setParameter("from", from)
+                .setParameterList("ids", ids)
+                .executeUpdate();
+    }
+
+    /**
+     * Marks the payment PAID if it is still in the given status and belongs to the payer. Returns the number
+     * of rows updated, so 0 means its status changed in the meantime (or it is not the payer's).
+     */
+    public int markPaid(Session session, Long paymentId, Long payerId, PaymentStatus from, LocalDateTime paidAt) {
+        return session.createMutationQuery(
+                "UPDATE Payment p SET p.status = :paid, p.paidAt = :paidAt " +
+                "WHERE p.id = :id AND p.status = :from AND (p.creator IS NULL OR p.creator.id = :payerId)")
+                .setParameter("paid", PaymentStatus.PAID)
+                .setParameter("paidAt", paidAt)
+                .setParameter("id", paymentId)
+                .setParameter("from", from)
+                .setParameter("payerId", payerId)
+                .executeUpdate();
+    }
+
+    /**
+     * Locks the given payments for update and returns their current status by id. Payments that no longer
+     * exist are missing from the map.
+     */
+    public Map<Long, PaymentStatus> lockStatuses(Session session, Collection<Long> ids) {
+        Map<Long, PaymentStatus> statuses = new HashMap<>();
+        if (ids.isEmpty()) {
+            return statuses;
+        }
+        List<Object[]> rows = session.createQuery(
+                "SELECT p.id, p.status FROM Payment p WHERE p.id IN (:ids) ORDER BY p.id", Object[].class)
+                .setParameterList("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        for (Object[] row : rows) {
+            statuses.put((Long) row[0], (PaymentStatus) row[1]);
+        }
+        return statuses;
+    }
+
+    /**
+     * Marks those of the given payments that are still in the given status PAID, in a single UPDATE.
+     * Returns the number of rows updated.
+     */
+    public int markAllPaid(Session session, Collection<Long> ids, PaymentStatus from, LocalDateTime paidAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return session.createMutationQuery(
+                "UPDATE Payment p SET p.status = :paid, p.paidAt = :paidAt WHERE p.id IN (:ids) AND p.status = :from")
+                .setParameter("paid", PaymentStatus.PAID)
+                .setParameter("paidAt", paidAt)
+                .setParameter("from", from)
+                .setParameterList("ids", ids)
+                .executeUpdate();
     }
 
     public void markAsLate(Session session, Payment payment) {
@@ -151,13 +409,13 @@ public class PaymentRepository {
        
         Query<Payment> query = session.createQuery("FROM Payment p WHERE p.status = :status", Payment.class);
         query.setParameter("status", PaymentStatus.LATE);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
     public List<Payment> getAll(Session session) {
         Query<Payment> query = session.createQuery("FROM Payment", Payment.class);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
@@ -169,7 +427,7 @@ public class PaymentRepository {
             "FROM Payment p WHERE p.createdAt >= :start AND p.createdAt < :end", Payment.class);
         query.setParameter("start", startOfMonth);
         query.setParameter("end", endOfMonth);
-        List<Payment> result = query.getResultList();
+        List<Payment> result = DEFAULT_PLAN.applyTo(session, query, Payment.class).getResultList();
         return result;
     }
 
@@ -178,6 +436,10 @@ public class PaymentRepository {
     }
 
     public List<Payment> getByParticipant(Session session,Long userId) {
+        return getByParticipant(session, userId, DEFAULT_PLAN);
+    }
+
+    public List<Payment> getByParticipant(Session session, Long userId, FetchPlan plan) {
         Query<Payment> query = session.createQuery(
             "SELECT p FROM Payment p " +
             "JOIN p.group g " +
@@ -186,26 +448,31 @@ public class PaymentRepository {
             Payment.class
         );
         query.setParameter("userId", userId);
-        List<Payment> result = query.getResultList();
-        return result;
+        return plan.applyTo(session, query, Payment.class).getResultList();
     }
 
     public List<Payment> getByGroupAndParticipant(Session session,Group group, Participant participant) {
+        return getByGroupAndParticipant(session, group, participant, DEFAULT_PLAN);
+    }
+
+    public List<Payment> getByGroupAndParticipant(Session session, Group group, Participant participant, FetchPlan plan) {
         Query<Payment> query = session.createQuery(
             "FROM Payment p WHERE p.group = :group AND p.creator = :user", Payment.class
         );
         query.setParameter("group", group);
         query.setParameter("user", participant.getUser());
-        List<Payment> payments = query.getResultList();
-        return payments;
+        return plan.applyTo(session, query, Payment.class).getResultList();
     }
 
     public List<Payment> getByRound(Session session,Round round) {
+        return getByRound(session, round, DEFAULT_PLAN);
+    }
+
+    public List<Payment> getByRound(Session session, Round round, FetchPlan plan) {
         Query<Payment> query = session.createQuery(
             "FROM Payment p WHERE p.round = :round", Payment.class
         );
         query.setParameter("round", round);
-        List<Payment> payments = query.getResultList();
-        return payments;
+        return plan.applyTo(session, query, Payment.class).getResultList();
     }
 }
@@ -7,26 +7,84 @@ import com.swedenrosca.model.User;
 import com.swedenrosca.model.RoundStatus;
 import org.hibernate.*;
 import org.hibernate.query.Query;
+import java.util.Collection;
 import java.util.List;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 public class RoundRepository {
 
 
+    // Plan used by the methods below that do not take a FetchPlan; their results are shown outside the session
+    private static final FetchPlan DEFAULT_PLAN = FetchPlan.DASHBOARD_LIST;
+
     public Round getById(Session session, Long id) {
-        return session.get(Round.class, id);
+        return getById(session, id, DEFAULT_PLAN);
+    }
+
+    public Round getById(Session session, Long id, FetchPlan plan) {
+        return plan.find(session, Round.class, id);
+    }
+
+    /**
+     * Adds one settled payment to the round's paid counters. The increment takes the round's row lock,
+     * which is then held until the transaction ends.
+     */
+    public int recordPayment(Session session, Long roundId, BigDecimal amount) {
+        return recordPayments(session, roundId, 1, amount);
+    }
+
+    /**
+     * Adds several settled payments, with the given total amount, to the round's paid counters.
+     */
+    public int recordPayments(Session session, Long roundId, int count, BigDecimal amount) {
+        return session.createMutationQuery(
+                "UPDATE Round r SET r.paidCount = r.paidCount + :count, r.paidAmount = r.paidAmount + :amount " +
+                "WHERE r.id = :id")
+                .setParameter("count", count)
+                .setParameter("amount", amount)
+                .setParameter("id", roundId)
+                .executeUpdate();
+    }
+
+    /**
+     * Marks the round COMPLETED if every expected payment is paid. Returns 1 only for the call that completed it.
+     */
+    public int completeIfFullyPaid(Session session, Long roundId) {
+        return session.createMutationQuery(
+                "UPDATE Round r SET r.status = :completed " +
+                "WHERE r.id = :id AND r.status <> :completed AND r.expectedCount > 0 AND r.paidCount >= r.expectedCount")
+                .setParameter("completed", RoundStatus.COMPLETED)
+                .setParameter("id", roundId)
+                .executeUpdate();
     }
 
     public List<Round> getAll(Session session) {
         Query<Round> query = session.createQuery("FROM Round", Round.class);
-        return query.getResultList();
+        return DEFAULT_PLAN.applyTo(session, query, Round.class).getResultList();
+    }
+
+    /**
+     * Streams all rounds ordered by id without loading the whole table. Close the returned stream.
+     */
+    public Stream<Round> streamAll(Session session, int fetchSize) {
+        return ScrollSupport.stream(session,
+                session.createSelectionQuery("FROM Round e ORDER BY e.id", Round.class), fetchSize);
+    }
+
+    public Stream<Round> streamAll(Session session) {
+        return streamAll(session, ScrollSupport.DEFAULT_FETCH_SIZE);
     }
 
     public List<Round> getByGroup(Session session, Group group) {
+        return getByGroup(session, group, DEFAULT_PLAN);
+    }
+
+    public List<Round> getByGroup(Session session, Group group, FetchPlan plan) {
         Query<Round> query = session.createQuery("FROM Round WHERE group = :group", Round.class);
         query.setParameter("group", group);
-        return query.getResultList();
+        return plan.applyTo(session, query, Round.class).getResultList();
     }
 
     public List<Round> getByWinnerUser(Session session, Participant winner) {
@@ -39,6 +97,10 @@ public class RoundRepository {
         session.persist(round);
     }
 
+    public void saveAll(Session session, Collection<Round> rounds) {
+        BatchSupport.persistAll(session, rounds);
+    }
+
     public void update(Session session, Round round) {
         session.merge(round);
     }
@@ -54,28 +116,28 @@ public class RoundRepository {
 
     public List<Round> getActiveRounds(Session session) {
         Query<Round> query = session.createQuery("FROM Round r WHERE r.status = 'ACTIVE'", Round.class);
-        return query.getResultList();
+        return DEFAULT_PLAN.applyTo(session, query, Round.class).getResultList();
     }
 
     public List<Round> getByStatus(Session session, RoundStatus status) {
         Query<Round> query = session.createQuery("FROM Round r WHERE r.status = :status", Round.class);
         query.setParameter("status", status);
-        return query.getResultList();
+        return DEFAULT_PLAN.applyTo(session, query, Round.class).getResultList();
     }
 
     public List<Round> getFutureRoundsByGroup(Session session, Long groupId) {
         String hql = "FROM Round r WHERE r.group.id = :groupId AND r.startDate > :now";
-        return session.createQuery(hql, Round.class)
+        Query<Round> query = session.createQuery(hql, Round.class)
             .setParameter("groupId", groupId)
-            .setParameter("now", LocalDateTime.now())
-            .list();
+            .setParameter("now", LocalDateTime.now());
+        return DEFAULT_PLAN.applyTo(session, query, Round.class).list();
     }
 
     public List<Round> getAllRoundsByGroupId(Session session, Long groupId) {
         String hql = "FROM Round r WHERE r.group.id = :groupId ORDER BY r.roundNumber";
-        return session.createQuery(hql, Round.class)
-            .setParameter("groupId", groupId)
-            .list();
+        Query<Round> query = session.createQuery(hql, Round.class)
+            .setParameter("groupId", groupId);
+        return DEFAULT_PLAN.applyTo(session, query, Round.class).list();
     }
 
     public String createRound(Session session, Long groupId, int turnOrder, BigDecimal amount) {
@@ -90,14 +152,14 @@ public class RoundRepository {
     public List<Round> getGroupRounds(Session session, Long groupId) {
         Query<Round> query = session.createQuery("FROM Round r WHERE r.group.id = :groupId ORDER BY r.roundNumber", Round.class);
         query.setParameter("groupId", groupId);
-        return query.getResultList();
+        return DEFAULT_PLAN.applyTo(session, query, Round.class).getResultList();
     }
     
 
     public Round getRoundById(Session session, Long id) {
         Query<Round> query = session.createQuery("FROM Round r WHERE r.id = :id", Round.class);
         query.setParameter("id", id);
-        return query.getSingleResult();
+        return DEFAULT_PLAN.applyTo(session, query, Round.class).getSingleResult();
     }
 
     public String updateRound(Session session, Long id, BigDecimal amount, Group group, int turnOrder,
@@ -0,0 +1,63 @@
+package com.swedenrosca.repository;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams query results through a forward-only cursor instead of materializing a list.
+ * The persistence context is flushed (inside a transaction) and cleared after every
+ * {@code fetchSize} rows, so rows already handed out become detached.
+ * The returned stream must be closed, e.g. with try-with-resources.
+ */
+final class ScrollSupport {
+
+    static final int DEFAULT_FETCH_SIZE = 500;
+
+    private ScrollSupport() {}
+
+    static <T> Stream<T> stream(Session session, SelectionQuery<T> query, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        ScrollableResults<T> results = query.setFetchSize(fetchSize).scroll(ScrollMode.FORWARD_ONLY);
+        Iterator<T> iterator = new Iterator<>() {
+            private int count;
+            private Boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                if (hasNext == null) {
+                    if (count > 0 && count % fetchSize == 0) {
+                        if (session.getTransaction().isActive()) {
+                            session.flush();
+                        }
+                        session.clear();
+                    }
+                    hasNext = results.next();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasNext = null;
+                count++;
+                return results.get();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(results::close);
+    }
+}
@@ -0,0 +1,241 @@
+package com.swedenrosca.repository;
+
+import com.swedenrosca.model.Group;
+import com.swedenrosca.model.Participant;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Free turn orders per group, one BitSet per group id (bit n set = turn n is free). A group is loaded
+ * with two small queries the first time it is asked for, then kept in sync by the participant
+ * repositories: inserts claim their turn immediately, deletes release it once committed, and
+ * rollbacks or bulk deletes drop the group so it is reloaded.
+ * A load can miss an insert that was not committed when it queried and that had no entry to claim in;
+ * such inserts and all invalidations move the epoch, and a load only installs its result if the epoch
+ * did not move while it ran. The insert also drops the group once it completes, for loads that ran
+ * entirely inside that window.
+ */
+public final class TurnOrderIndex {
+
+    private static final TurnOrderIndex INSTANCE = new TurnOrderIndex();
+
+    private final Map<Long, Slots> groups = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+
+    private TurnOrderIndex() {}
+
+    public static TurnOrderIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Lowest free turn order of the group, or -1 if the group is full or does not exist.
+     */
+    public int firstFree(Session session, Long groupId) {
+        Slots slots = slots(session, groupId);
+        return slots == null ? -1 : slots.firstFree();
+    }
+
+    public boolean isFree(Session session, Long groupId, int turnOrder) {
+        Slots slots = slots(session, groupId);
+        return slots != null && slots.isFree(turnOrder);
+    }
+
+    public List<Integer> freeTurnOrders(Session session, Long groupId) {
+        Slots slots = slots(session, groupId);
+        return slots == null ? new ArrayList<>() : slots.freeTurnOrders();
+    }
+
+    /**
+     * Copy of the group's free slots; empty if the group does not exist.
+     */
+    public BitSet freeSlots(Session session, Long groupId) {
+        Slots slots = slots(session, groupId);
+        return slots == null ? new BitSet() : slots.copy();
+    }
+
+    /**
+     * Copy of the group's free slots. A group that is not indexed yet is computed from its participants
+     * collection, which must be initialized, instead of being queried. That result is not kept, since
+     * there is no telling how old the collection is.
+     */
+    public BitSet freeSlots(Group group) {
+        Slots slots = groups.get(group.getId());
+        if (slots == null) {
+            slots = new Slots(group.getMaxMembers());
+            for (Participant participant : group.getParticipants()) {
+                slots.claim(participant.getTurnOrder());
+            }
+        }
+        return slots.copy();
+    }
+
+    /**
+     * Marks the turn as taken. Returns false if it was already taken.
+     */
+    public boolean claim(Session session, Long groupId, int turnOrder) {
+        Slots slots = slots(session, groupId);
+        return slots != null && slots.claim(turnOrder);
+    }
+
+    public void release(Long groupId, int turnOrder) {
+        Slots slots = groups.get(groupId);
+        if (slots != null) {
+            slots.release(turnOrder);
+        }
+    }
+
+    public void invalidate(Long groupId) {
+        // Before the removal, so a load that finishes in between does not install what was just dropped
+        epoch.incrementAndGet();
+        groups.remove(groupId);
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        groups.clear();
+    }
+
+    private Slots slots(Session session, Long groupId) {
+        Slots slots = groups.get(groupId);
+        if (slots != null) {
+            return slots;
+        }
+        long loadEpoch = epoch.get();
+        Integer maxMembers = session.createQuery("SELECT g.maxMembers FROM Group g WHERE g.id = :id", Integer.class)
+                .setParameter("id", groupId)
+                .uniqueResult();
+        if (maxMembers == null) {
+            return null;
+        }
+        List<Integer> taken = session.createQuery(
+                        "SELECT p.turnOrder FROM Participant p WHERE p.group.id = :id", Integer.class)
+                .setParameter("id", groupId)
+                .getResultList();
+        Slots loaded = new Slots(maxMembers);
+        for (Integer turnOrder : taken) {
+            loaded.claim(turnOrder);
+        }
+        Slots installed = groups.compute(groupId, (id, existing) ->
+                existing != null ? existing : epoch.get() == loadEpoch ? loaded : null);
+        return installed != null ? installed : loaded;
+    }
+
+    // Hooks for the participant repositories
+
+    void inserted(Session session, Participant participant) {
+        Long groupId = participant.getGroup().getId();
+        Slots slots = groups.get(groupId);
+        boolean indexed = slots != null;
+        if (indexed) {
+            slots.claim(participant.getTurnOrder());
+        } else {
+            epoch.incrementAndGet();
+        }
+        afterCompletion(session, committed -> {
+            if (!committed || !indexed) {
+                invalidate(groupId);
+            }
+        });
+    }
+
+    void deleted(Session session, Participant participant) {
+        Long groupId = participant.getGroup().getId();
+        int turnOrder = participant.getTurnOrder();
+        afterCompletion(session, committed -> {
+            if (committed) {
+                release(groupId, turnOrder);
+            }
+        });
+    }
+
+    /**
+     * Drops the group (or every group, for a null id) once the transaction ends, so it is reloaded on next use.
+     */
+    void groupChanged(Session session, Long groupId) {
+        afterCompletion(session, committed -> {
+            if (groupId == null) {
+                invalidateAll();
+            } else {
+                invalidate(groupId);
+            }
+        });
+    }
+
+    private static void afterCompletion(Session session, CompletionCallback callback) {
+        if (session.getTransaction().isActive()) {
+            session.getTransaction().registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {}
+
+                @Override
+                public void afterCompletion(int status) {
+                    callback.completed(status == Status.STATUS_COMMITTED);
+                }
+            });
+        } else {
+            callback.completed(true);
+        }
+    }
+
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+
+    /**
+     * Free slots of one group. Groups of a few hundred members fit in a handful of words,
+     * so first-free and claim/release are effectively constant time.
+     */
+    private static final class Slots {
+        private final int maxMembers;
+        private final BitSet free;
+
+        Slots(int maxMembers) {
+            this.maxMembers = maxMembers;
+            this.free = new BitSet(maxMembers + 1);
+            free.set(1, maxMembers + 1);
+        }
+
+        synchronized int firstFree() {
+            return free.nextSetBit(1);
+        }
+
+        synchronized boolean isFree(int turnOrder) {
+            return turnOrder >= 1 && turnOrder <= maxMembers && free.get(turnOrder);
+        }
+
+        synchronized boolean claim(int turnOrder) {
+            if (!isFree(turnOrder)) {
+                return false;
+            }
+            free.clear(turnOrder);
+            return true;
+        }
+
+        synchronized void release(int turnOrder) {
+            if (turnOrder >= 1 && turnOrder <= maxMembers) {
+                free.set(turnOrder);
+            }
+        }
+
+        synchronized List<Integer> freeTurnOrders() {
+            List<Integer> result = new ArrayList<>(free.cardinality());
+            for (int i = free.nextSetBit(1); i >= 0; i = free.nextSetBit(i + 1)) {
+                result.add(i);
+            }
+            return result;
+        }
+
+        synchronized BitSet copy() {
+            return (BitSet) free.clone();
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.swedenrosca.repository;
 
+import com.swedenrosca.model.GroupStatus;
+import com.swedenrosca.model.MatchCandidate;
 import com.swedenrosca.model.Role;
+import com.swedenrosca.model.StatementRecipient;
 import com.swedenrosca.model.User;
+import com.swedenrosca.model.UserStatistics;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.query.Query;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class UserRepository {
 
@@ -19,6 +26,104 @@ public class UserRepository {
         return query.getResultList();
     }
 
+    /**
+     * Streams all users ordered by id without loading the whole table. Close the returned stream.
+     */
+    public Stream<User> streamAll(Session session, int fetchSize) {
+        return ScrollSupport.stream(session,
+                session.createSelectionQuery("FROM User e ORDER BY e.id", User.class), fetchSize);
+    }
+
+    public Stream<User> streamAll(Session session) {
+        return streamAll(session, ScrollSupport.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Keyset page of users ordered by id. Pass null for the first page.
+     */
+    public List<User> getPageAfter(Session session, Long afterId, int pageSize) {
+        Query<User> query = session.createQuery("FROM User u WHERE u.id > :afterId ORDER BY u.id", User.class);
+        query.setParameter("afterId", afterId == null ? 0L : afterId);
+        return query.setMaxResults(pageSize).getResultList();
+    }
+
+    /**
+     * Keyset page of statement recipients ordered by user id. Pass null for the first page.
+     */
+    public List<StatementRecipient> getStatementRecipientsAfter(Session session, Long afterId, int pageSize) {
+        return session.createQuery(
+                "SELECT new com.swedenrosca.model.StatementRecipient(u.id, u.firstName, u.lastName, u.email) " +
+                "FROM User u WHERE u.id > :afterId ORDER BY u.id", StatementRecipient.class)
+                .setParameter("afterId", afterId == null ? 0L : afterId)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
+
+    public long count(Session session) {
+        return session.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult();
+    }
+
+    /**
+     * Users per role, and how many of them are a member of at least one active group, in one query.
+     */
+    public UserStatistics getStatistics(Session session) {
+        List<Object[]> rows = session.createQuery(
+                "SELECT u.role, COUNT(u), " +
+                "  SUM(CASE WHEN EXISTS (SELECT 1 FROM Participant pa " +
+                "    WHERE pa.user = u AND pa.group.status = :active) THEN 1 ELSE 0 END) " +
+                "FROM User u WHERE u.role IS NOT NULL GROUP BY u.role", Object[].class)
+                .setParameter("active", GroupStatus.ACTIVE)
+                .getResultList();
+        Map<Role, Long> users = new HashMap<>();
+        Map<Role, Long> activeParticipants = new HashMap<>();
+        for (Object[] row : rows) {
+            Role role = (Role) row[0];
+            users.put(role, ((Number) row[1]).longValue());
+            activeParticipants.put(role, row[2] != null ? ((Number) row[2]).longValue() : 0);
+        }
+        return new UserStatistics(users, activeParticipants);
+    }
+
+    /**
+     * Users with plan preferences who are not a member of any group that is still running, ordered by id.
+     */
+    public List<MatchCandidate> getMatchCandidates(Session session) {
+        return session.createQuery(
+                "SELECT new com.swedenrosca.model.MatchCandidate(u.id, u.monthlyContribution, u.numberOfMembers) " +
+                "FROM User u " +
+                "WHERE u.monthlyContribution IS NOT NULL AND u.numberOfMembers > 0 " +
+                "AND NOT EXISTS (SELECT 1 FROM Participant p WHERE p.user = u AND p.group.status <> :completed) " +
+                "ORDER BY u.id", MatchCandidate.class)
+                .setParameter("completed", GroupStatus.COMPLETED)
+                .getResultList();
+    }
+
+    /**
+     * Subtracts the amount from the user's balance if the balance covers it. Returns 0 if it does not.
+     */
+    public int debitBalance(Session session, Long userId, BigDecimal amount) {
+        return session.createMutationQuery(
+                "UPDATE User u SET u.currentBalance = u.currentBalance - :amount " +
+                "WHERE u.id = :id AND u.currentBalance >= :amount")
+                .setParameter("amount", amount)
+                .setParameter("id", userId)
+                .executeUpdate();
+    }
+
+    public int creditBalance(Session session, Long userId, BigDecimal amount) {
+        return session.createMutationQuery(
+                "UPDATE User u SET u.currentBalance = COALESCE(u.currentBalance, 0) + :amount WHERE u.id = :id")
+                .setParameter("amount", amount)
+                .setParameter("id", userId)
+                .executeUpdate();
+    }
+
+    public BigDecimal getBalance(Session session, Long userId) {
+        return session.createQuery("SELECT u.currentBalance FROM User u WHERE u.id = :id", BigDecimal.class)
+                .setParameter("id", userId)
+                .uniqueResult();
+    }
+
     public void save(Session session, User user) {
         session.persist(user);
     }
@@ -11,7 +11,6 @@ import java.time.LocalDateTime;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
-import java.util.stream.Collectors;
 
 public class DemoDataGenerator {
     private final UserService userService;
@@ -47,55 +46,28 @@ public class DemoDataGenerator {
 
     private boolean isDatabaseEmpty() {
         System.out.println("\n=== Checking if database is empty ===");
-        
-        // Check if any data exists in any of the repositories
-        List<User> users = userService.getAllUsers();
-        System.out.println("Found " + users.size() + " users in database");
-        if (!users.isEmpty()) {
-            System.out.println("Users found: " + users.stream().map(User::getUsername).collect(Collectors.joining(", ")));
-            return false;
-        }
-
-        List<Group> groups = groupService.getAllGroups();
-        System.out.println("Found " + groups.size() + " groups in database");
-        if (!groups.isEmpty()) {
-            return false;
-        }
-
-        List<Payment> payments = paymentService.getAllPayments();
-        System.out.println("Found " + payments.size() + " payments in database");
-        if (!payments.isEmpty()) {
-            return false;
-        }
-
-        List<PaymentPlan> plans = paymentPlanService.getAllPaymentPlans();
-        System.out.println("Found " + plans.size() + " payment plans in database");
-        if (!plans.isEmpty()) {
-            return false;
-        }
 
-        List<Round> rounds = roundService.getAllRounds();
-        System.out.println("Found " + rounds.size() + " rounds in database");
-        if (!rounds.isEmpty()) {
-            return false;
-        }
-
-        List<MonthOption> monthOptions = monthOptionService.getAll();
-        System.out.println("Found " + monthOptions.size() + " month options in database");
-        if (!monthOptions.isEmpty()) {
-            return false;
-        }
-
-        List<PaymentOption> paymentOptions = paymentOptionService.getAll();
-        System.out.println("Found " + paymentOptions.size() + " payment options in database");
-        if (!paymentOptions.isEmpty()) {
-            return false;
+        // Probe each table for a single row instead of loading whole tables
+        try (Session session = sessionFactory.openSession()) {
+            for (Class<?> entityClass : List.of(User.class, Group.class, Payment.class, PaymentPlan.class,
+                    Round.class, MonthOption.class, PaymentOption.class)) {
+                if (hasRows(session, entityClass)) {
+                    System.out.println("Found existing " + entityClass.getSimpleName() + " rows in database");
+                    return false;
+                }
+            }
         }
 
         System.out.println("Database is empty, proceeding with demo data generation");
         return true;
     }
 
+    private boolean hasRows(Session session, Class<?> entityClass) {
+        return session.createSelectionQuery("SELECT 1 FROM " + entityClass.getSimpleName(), Integer.class)
+                .setMaxResults(1)
+                .uniqueResult() != null;
+    }
+
     public void generateAllDemoData() {
         System.out.println("\n=== Starting Demo Data Generation (Users Only) ===");
         if (!isDatabaseEmpty()) {
@@ -0,0 +1,331 @@
+package com.swedenrosca.service;
+
+import com.swedenrosca.activity.ActivityLog;
+import com.swedenrosca.event.DomainEvent;
+import com.swedenrosca.event.DomainEventBus;
+import com.swedenrosca.event.PaymentPaid;
+import com.swedenrosca.event.RoundCompleted;
+import com.swedenrosca.model.BankTransaction;
+import com.swedenrosca.model.OpenPayment;
+import com.swedenrosca.model.PaymentStatus;
+import com.swedenrosca.model.PaymentTotals;
+import com.swedenrosca.outbox.OutboxMessages;
+import com.swedenrosca.reconciliation.OpenPaymentIndex;
+import com.swedenrosca.reconciliation.StatementLine;
+import com.swedenrosca.reconciliation.StatementReader;
+import com.swedenrosca.repository.BankTransactionRepository;
+import com.swedenrosca.repository.GroupFinancialsRepository;
+import com.swedenrosca.repository.OutboxRepository;
+import com.swedenrosca.repository.PaymentRepository;
+import com.swedenrosca.repository.RoundRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Settles payments from incoming bank transfers. The open payments are loaded once into an
+ * {@link OpenPaymentIndex}; the statement is then streamed and every batch of lines is matched against
+ * the index in memory and applied in one transaction: the matched payments are marked PAID with one
+ * UPDATE per previous status, group and round totals are moved once per group and round, receipts are
+ * queued, and every line is recorded in bank_transactions. Lines whose reference is already recorded
+ * are skipped, so importing a statement twice pays nothing twice. Unlike a settlement in the app, no
+ * balance is debited: the money arrived from the payer's bank.
+ */
+public class BankReconciliationService {
+    private static final Logger logger = LoggerFactory.getLogger(BankReconciliationService.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_DAYS_EARLY = 10;
+    public static final int DEFAULT_DAYS_LATE = 60;
+    // Length of bank_transactions.reference
+    private static final int MAX_REFERENCE_LENGTH = 100;
+
+    private final SessionFactory sessionFactory;
+    private final PaymentRepository paymentRepository;
+    private final RoundRepository roundRepository;
+    private final GroupFinancialsRepository groupFinancialsRepository;
+    private final OutboxRepository outboxRepository;
+    private final BankTransactionRepository bankTransactionRepository;
+    private final PaymentSettlementService paymentSettlementService;
+    private final DomainEventBus eventBus = DomainEventBus.getInstance();
+    private final ActivityLog activityLog = ActivityLog.getInstance();
+    private final int batchSize;
+    private final int daysEarly;
+    private final int daysLate;
+
+    public BankReconciliationService(SessionFactory sessionFactory, PaymentRepository paymentRepository,
+                                     RoundRepository roundRepository, GroupFinancialsRepository groupFinancialsRepository,
+                                     OutboxRepository outboxRepository, BankTransactionRepository bankTransactionRepository,
+                                     PaymentSettlementService paymentSettlementService) {
+        this(sessionFactory, paymentRepository, roundRepository, groupFinancialsRepository, outboxRepository,
+                bankTransactionRepository, paymentSettlementService, DEFAULT_BATCH_SIZE, DEFAULT_DAYS_EARLY, DEFAULT_DAYS_LATE);
+    }
+
+    public BankReconciliationService(SessionFactory sessionFactory, PaymentRepository paymentRepository,
+                                     RoundRepository roundRepository, GroupFinancialsRepository groupFinancialsRepository,
+                                     OutboxRepository outboxRepository, BankTransactionRepository bankTransactionRepository,
+                                     PaymentSettlementService paymentSettlementService,
+                                     int batchSize, int daysEarly, int daysLate) {
+        if (batchSize <= 0 || daysEarly < 0 || daysLate < 0) {
+            throw new IllegalArgumentException("Batch size must be positive and the match window must not be negative");
+        }
+        this.sessionFactory = sessionFactory;
+        this.paymentRepository = paymentRepository;
+        this.roundRepository = roundRepository;
+        this.groupFinancialsRepository = groupFinancialsRepository;
+        this.outboxRepository = outboxRepository;
+        this.bankTransactionRepository = bankTransactionRepository;
+        this.paymentSettlementService = paymentSettlementService;
+        this.batchSize = batchSize;
+        this.daysEarly = daysEarly;
+        this.daysLate = daysLate;
+    }
+
+    public Report reconcile(StatementReader statement) throws IOException {
+        long start = System.nanoTime();
+        OpenPaymentIndex index = loadOpenPayments();
+        Report report = new Report(statement.getSource(), index.size());
+        try (Stream<StatementLine> lines = statement.lines()) {
+            List<StatementLine> batch = new ArrayList<>(batchSize);
+            for (Iterator<StatementLine> iterator = lines.iterator(); iterator.hasNext(); ) {
+                StatementLine line = iterator.next();
+                report.lines++;
+                if (!line.isValid()) {
+                    report.invalid++;
+                    logger.warn("Skipping {} of {}", line, statement.getSource());
+                    continue;
+                }
+                if (line.getReference().length() > MAX_REFERENCE_LENGTH) {
+                    report.invalid++;
+                    logger.warn("Skipping {} of {}: reference longer than {} characters",
+                            line, statement.getSource(), MAX_REFERENCE_LENGTH);
+                    continue;
+                }
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    reconcileBatch(statement.getSource(), batch, index, report);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                reconcileBatch(statement.getSource(), batch, index, report);
+            }
+        }
+        report.durationMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Bank statement reconciled: {}", report);
+        return report;
+    }
+
+    private OpenPaymentIndex loadOpenPayments() {
+        long start = System.nanoTime();
+        OpenPaymentIndex index = new OpenPaymentIndex(daysEarly, daysLate);
+        try (Session session = sessionFactory.openSession();
+             Stream<OpenPayment> payments = paymentRepository.streamOpenPayments(session)) {
+            payments.forEach(index::add);
+        }
+        logger.debug("Indexed {} open payments in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    private void reconcileBatch(String source, List<StatementLine> batch, OpenPaymentIndex index, Report report) {
+        Set<String> recorded;
+        try (Session session = sessionFactory.openSession()) {
+            recorded = new HashSet<>(bankTransactionRepository.findExistingReferences(session, references(batch)));
+        }
+        // Matched before the transaction, so a retried transaction applies exactly the same matches
+        List<StatementLine> lines = new ArrayList<>(batch.size());
+        Map<String, OpenPayment> matches = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (StatementLine line : batch) {
+            if (recorded.contains(line.getReference()) || !seen.add(line.getReference())) {
+                report.duplicates++;
+                continue;
+            }
+            lines.add(line);
+            OpenPayment payment = index.claim(line);
+            if (payment != null) {
+                matches.put(line.getReference(), payment);
+            }
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+        Applied applied = ConflictRetry.run("Reconciling " + lines.size() + " lines of " + source,
+                () -> apply(source, lines, matches));
+        report.batches++;
+        report.duplicates += applied.duplicates;
+        report.matched += applied.matched;
+        report.alreadyPaid += applied.alreadyPaid;
+        report.unmatched += lines.size() - applied.duplicates - applied.matched;
+        eventBus.publishAll(applied.events);
+        activityLog.recordAll(applied.events);
+    }
+
+    private Applied apply(String source, List<StatementLine> lines, Map<String, OpenPayment> matches) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                Applied applied = new Applied();
+                // A concurrent import of the same statement may have recorded some of the lines since they were checked
+                Set<String> recorded = new HashSet<>(bankTransactionRepository.findExistingReferences(session, references(lines)));
+                List<Long> paymentIds = new ArrayList<>();
+                for (OpenPayment payment : matches.values()) {
+                    paymentIds.add(payment.getPaymentId());
+                }
+                Map<Long, PaymentStatus> statuses = paymentRepository.lockStatuses(session, paymentIds);
+
+                Map<PaymentStatus, List<Long>> idsByStatus = new EnumMap<>(PaymentStatus.class);
+                Map<PaymentStatus, Map<Long, Sum>> groupSums = new EnumMap<>(PaymentStatus.class);
+                // Sorted, so concurrent transactions lock rounds in the same order
+                Map<Long, Sum> roundSums = new TreeMap<>();
+                List<BankTransaction> transactions = new ArrayList<>(lines.size());
+                for (StatementLine line : lines) {
+                    if (recorded.contains(line.getReference())) {
+                        applied.duplicates++;
+                        continue;
+                    }
+                    OpenPayment match = matches.get(line.getReference());
+                    PaymentStatus from = match != null ? statuses.get(match.getPaymentId()) : null;
+                    // Paid in the app (or deleted) after the open payments were loaded
+                    boolean stale = match != null && (from == null || from == PaymentStatus.PAID);
+                    if (stale) {
+                        applied.alreadyPaid++;
+                    }
+                    OpenPayment payment = stale ? null : match;
+                    if (payment != null) {
+                        idsByStatus.computeIfAbsent(from, status -> new ArrayList<>()).add(payment.getPaymentId());
+                        groupSums.computeIfAbsent(from, status -> new HashMap<>())
+                                .computeIfAbsent(payment.getGroupId(), id -> new Sum(payment.getGroupId()))
+                                .add(payment.getAmount(), payment.getServiceFee());
+                        if (payment.getRoundId() != null) {
+                            roundSums.computeIfAbsent(payment.getRoundId(), id -> new Sum(payment.getGroupId()))
+                                    .add(payment.getAmount(), payment.getServiceFee());
+                        }
+                        outboxRepository.save(session, OutboxMessages.transferReceipt(payment.getPaymentId(),
+                                payment.getGroupName(), payment.getFirstName(), payment.getEmail(), payment.getAmount(),
+                                line.getReference()));
+                        applied.events.add(new PaymentPaid(payment.getPaymentId(), payment.getGroupId(),
+                                payment.getRoundId(), payment.getPayerId(), payment.getAmount()));
+                        applied.matched++;
+                    }
+                    transactions.add(new BankTransaction(line.getReference(), line.getBookingDate(), line.getAmount(),
+                            line.getClearingNumber(), line.getBankAccount(),
+                            payment != null ? payment.getPaymentId() : null, source, now));
+                }
+
+                for (Map.Entry<PaymentStatus, List<Long>> entry : idsByStatus.entrySet()) {
+                    paymentRepository.markAllPaid(session, entry.getValue(), entry.getKey(), now);
+                }
+                for (Map.Entry<PaymentStatus, Map<Long, Sum>> entry : groupSums.entrySet()) {
+                    for (Sum sum : entry.getValue().values()) {
+                        groupFinancialsRepository.recordTransition(session, entry.getKey(), PaymentStatus.PAID,
+                                new PaymentTotals(sum.groupId, sum.count, sum.amount, sum.fees));
+                    }
+                }
+                for (Map.Entry<Long, Sum> entry : roundSums.entrySet()) {
+                    roundRepository.recordPayments(session, entry.getKey(), entry.getValue().count, entry.getValue().amount);
+                    RoundCompleted completion = paymentSettlementService.completeRound(session, entry.getKey(),
+                            entry.getValue().groupId);
+                    if (completion != null) {
+                        applied.events.add(completion);
+                    }
+                }
+                bankTransactionRepository.saveAll(session, transactions);
+                session.getTransaction().commit();
+                return applied;
+            } catch (RuntimeException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static List<String> references(List<StatementLine> lines) {
+        List<String> references = new ArrayList<>(lines.size());
+        for (StatementLine line : lines) {
+            references.add(line.getReference());
+        }
+        return references;
+    }
+
+    private static final class Sum {
+        private final Long groupId;
+        private int count;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private BigDecimal fees = BigDecimal.ZERO;
+
+        Sum(Long groupId) {
+            this.groupId = groupId;
+        }
+
+        void add(BigDecimal paymentAmount, BigDecimal serviceFee) {
+            count++;
+            amount = amount.add(paymentAmount);
+            if (serviceFee != null) {
+                fees = fees.add(serviceFee);
+            }
+        }
+    }
+
+    private static final class Applied {
+        private final List<DomainEvent> events = new ArrayList<>();
+        private int matched;
+        private int alreadyPaid;
+        private int duplicates;
+    }
+
+    public static class Report {
+        private final String source;
+        private final int openPayments;
+        private long lines;
+        private long invalid;
+        private long duplicates;
+        private long matched;
+        private long unmatched;
+        private long alreadyPaid;
+        private int batches;
+        private long durationMillis;
+
+        Report(String source, int openPayments) {
+            this.source = source;
+            this.openPayments = openPayments;
+        }
+
+        public String getSource() { return source; }
+        public int getOpenPayments() { return openPayments; }
+        public long getLines() { return lines; }
+        public long getInvalid() { return invalid; }
+        public long getDuplicates() { return duplicates; }
+        public long getMatched() { return matched; }
+        public long getUnmatched() { return unmatched; }
+        public long getAlreadyPaid() { return alreadyPaid; }
+        public int getBatches() { return batches; }
+        public long getDurationMillis() { return durationMillis; }
+
+        @Override
+        public String toString() {
+            return "source=" + source + ", open payments=" + openPayments + ", lines=" + lines +
+                    ", matched=" + matched + ", unmatched=" + unmatched + " (" + alreadyPaid + " already paid)" +
+                    ", already imported=" + duplicates + ", invalid=" + invalid + ", batches=" + batches +
+                    ", duration=" + durationMillis + " ms";
+        }
+    }
+}
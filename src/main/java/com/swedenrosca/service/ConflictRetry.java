@@ -0,0 +1,81 @@
+package com.swedenrosca.service;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a unit of work that lost a race: an optimistic lock failure, a deadlock or lock wait timeout,
+ * or a duplicate key on one of the unique keys that concurrent inserts can collide on. Any other
+ * constraint violation is a bug and is thrown at once.
+ * Each attempt must open and close its own session. Waits between attempts grow exponentially, with jitter,
+ * up to {@link #MAX_BACKOFF_MILLIS}.
+ */
+final class ConflictRetry {
+    private static final Logger logger = LoggerFactory.getLogger(ConflictRetry.class);
+
+    static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 10;
+    private static final long MAX_BACKOFF_MILLIS = 200;
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    // As MySQL 8 names them in duplicate key errors: table.key
+    private static final Set<String> RACING_KEYS = Set.of(
+            "participants.uk_participants_group_turn",
+            "bank_transactions.primary",
+            "group_financials.primary");
+
+    private ConflictRetry() {}
+
+    static <T> T run(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new IllegalStateException(operation + " failed after " + attempt +
+                            " attempts because of concurrent updates, please try again", e);
+                }
+                long backoff = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempt - 1));
+                long sleep = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+                logger.debug("{}: conflict on attempt {}, retrying in {} ms", operation, attempt, sleep);
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException
+                    || cause instanceof LockAcquisitionException
+                    || cause instanceof PessimisticLockException
+                    || cause instanceof ConstraintViolationException violation && isRacingDuplicate(violation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRacingDuplicate(ConstraintViolationException e) {
+        String key = e.getConstraintName();
+        return e.getErrorCode() == MYSQL_DUPLICATE_ENTRY && key != null
+                && RACING_KEYS.contains(key.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,149 @@
+package com.swedenrosca.service;
+
+import com.swedenrosca.model.GroupFinancials;
+import com.swedenrosca.repository.GroupFinancialsRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks and rebuilds the group_financials aggregate table against the payments and rounds it is derived from.
+ */
+public class GroupFinancialsService {
+    private static final Logger logger = LoggerFactory.getLogger(GroupFinancialsService.class);
+
+    private final SessionFactory sessionFactory;
+    private final GroupFinancialsRepository groupFinancialsRepository;
+
+    public GroupFinancialsService(SessionFactory sessionFactory, GroupFinancialsRepository groupFinancialsRepository) {
+        this.sessionFactory = sessionFactory;
+        this.groupFinancialsRepository = groupFinancialsRepository;
+    }
+
+    public GroupFinancials getByGroupId(Long groupId) {
+        try (Session session = sessionFactory.openSession()) {
+            return groupFinancialsRepository.getByGroupId(session, groupId);
+        }
+    }
+
+    /**
+     * Compares the stored totals with totals recomputed from the payments table without changing anything.
+     */
+    public Report verify() {
+        return run(false);
+    }
+
+    /**
+     * Recomputes every group's totals from the payments table, reports the groups that had drifted,
+     * and overwrites the table, all in one transaction. The table is locked before the totals are computed,
+     * so a payment transition that commits meanwhile waits and then applies its delta to the rebuilt totals
+     * instead of being overwritten by them.
+     */
+    public Report rebuild() {
+        return run(true);
+    }
+
+    public void deleteAll() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            groupFinancialsRepository.deleteAll(session);
+            session.getTransaction().commit();
+        }
+    }
+
+    private Report run(boolean write) {
+        long start = System.nanoTime();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try {
+                // Locked first: the computing reads below then see every transition that updated the table before
+                List<GroupFinancials> rows = write
+                        ? groupFinancialsRepository.getAllForUpdate(session)
+                        : groupFinancialsRepository.getAll(session);
+                Map<Long, GroupFinancials> computed = groupFinancialsRepository.compute(session);
+                Map<Long, GroupFinancials> stored = new HashMap<>();
+                for (GroupFinancials financials : rows) {
+                    stored.put(financials.getGroupId(), financials);
+                }
+
+                List<Long> drifted = new ArrayList<>();
+                for (GroupFinancials expected : computed.values()) {
+                    GroupFinancials actual = stored.get(expected.getGroupId());
+                    if (!expected.sameTotals(actual)) {
+                        drifted.add(expected.getGroupId());
+                        logger.warn("Group {} financials drifted: stored {}, computed {}",
+                                expected.getGroupId(), actual, expected);
+                        if (write) {
+                            expected.setUpdatedAt(LocalDateTime.now());
+                            groupFinancialsRepository.save(session, expected);
+                        }
+                    }
+                }
+                // Rows of groups that no longer have any payments or payouts
+                int stale = 0;
+                for (Long groupId : stored.keySet()) {
+                    if (!computed.containsKey(groupId)) {
+                        stale++;
+                        if (write) {
+                            groupFinancialsRepository.deleteByGroupId(session, groupId);
+                        }
+                    }
+                }
+                session.getTransaction().commit();
+
+                Report report = new Report(computed.size(), drifted, stale, write,
+                        (System.nanoTime() - start) / 1_000_000);
+                if (drifted.isEmpty() && stale == 0) {
+                    logger.info("Group financials checked: {}", report);
+                } else {
+                    logger.warn("Group financials checked: {}", report);
+                }
+                return report;
+            } catch (RuntimeException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    public static class Report {
+        private final int groups;
+        private final List<Long> driftedGroupIds;
+        private final int staleRows;
+        private final boolean rebuilt;
+        private final long durationMillis;
+
+        Report(int groups, List<Long> driftedGroupIds, int staleRows, boolean rebuilt, long durationMillis) {
+            this.groups = groups;
+            this.driftedGroupIds = driftedGroupIds;
+            this.staleRows = staleRows;
+            this.rebuilt = rebuilt;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getGroups() { return groups; }
+        public List<Long> getDriftedGroupIds() { return driftedGroupIds; }
+        public int getStaleRows() { return staleRows; }
+        public boolean isRebuilt() { return rebuilt; }
+        public long getDurationMillis() { return durationMillis; }
+
+        public boolean hasDrift() {
+            return !driftedGroupIds.isEmpty() || staleRows > 0;
+        }
+
+        @Override
+        public String toString() {
+            return "groups=" + groups + ", drifted=" + driftedGroupIds.size() + ", stale rows=" + staleRows +
+                    (rebuilt ? ", rebuilt" : ", verified only") + ", duration=" + durationMillis + " ms";
+        }
+    }
+}
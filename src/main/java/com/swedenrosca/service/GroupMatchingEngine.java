@@ -0,0 +1,511 @@
+package com.swedenrosca.service;
+
+import com.swedenrosca.activity.ActivityLog;
+import com.swedenrosca.event.DomainEvent;
+import com.swedenrosca.event.DomainEventBus;
+import com.swedenrosca.event.GroupFilled;
+import com.swedenrosca.event.ParticipantJoined;
+import com.swedenrosca.model.*;
+import com.swedenrosca.repository.GroupRepository;
+import com.swedenrosca.repository.ParticipantRepository;
+import com.swedenrosca.repository.PaymentPlanRepository;
+import com.swedenrosca.repository.RoundRepository;
+import com.swedenrosca.repository.TurnOrderIndex;
+import com.swedenrosca.repository.UserRepository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Places waiting users into groups. All candidates, open groups and plans are read once and bucketed
+ * by (monthly contribution, number of members); open groups in a bucket are topped up first and the
+ * rest of the bucket is split into new groups. Buckets are independent, so each one is assigned and written
+ * by its own task on a bounded ForkJoinPool, in batched transactions of {@link #GROUPS_PER_TRANSACTION} groups.
+ */
+public class GroupMatchingEngine {
+    private static final Logger logger = LoggerFactory.getLogger(GroupMatchingEngine.class);
+
+    static final int GROUPS_PER_TRANSACTION = 100;
+    // Each worker holds one pooled connection while it persists, so stay well below the pool size
+    public static final int DEFAULT_PARALLELISM = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
+    private final SessionFactory sessionFactory;
+    private final GroupRepository groupRepository;
+    private final ParticipantRepository participantRepository;
+    private final PaymentPlanRepository paymentPlanRepository;
+    private final RoundRepository roundRepository;
+    private final UserRepository userRepository;
+    private final int parallelism;
+    private final DomainEventBus eventBus = DomainEventBus.getInstance();
+    private final ActivityLog activityLog = ActivityLog.getInstance();
+
+    public GroupMatchingEngine(SessionFactory sessionFactory, GroupRepository groupRepository,
+                               ParticipantRepository participantRepository,
+                               PaymentPlanRepository paymentPlanRepository,
+                               RoundRepository roundRepository,
+                               UserRepository userRepository) {
+        this(sessionFactory, groupRepository, participantRepository, paymentPlanRepository, roundRepository,
+                userRepository, DEFAULT_PARALLELISM);
+    }
+
+    public GroupMatchingEngine(SessionFactory sessionFactory, GroupRepository groupRepository,
+                               ParticipantRepository participantRepository,
+                               PaymentPlanRepository paymentPlanRepository,
+                               RoundRepository roundRepository,
+                               UserRepository userRepository,
+                               int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        this.sessionFactory = sessionFactory;
+        this.groupRepository = groupRepository;
+        this.participantRepository = participantRepository;
+        this.paymentPlanRepository = paymentPlanRepository;
+        this.roundRepository = roundRepository;
+        this.userRepository = userRepository;
+    }
+
+    public Report match() {
+        long start = System.nanoTime();
+        Map<BucketKey, Bucket> buckets = new LinkedHashMap<>();
+        int candidateCount;
+        try (Session session = sessionFactory.openSession()) {
+            for (PaymentPlan plan : paymentPlanRepository.getAll(session)) {
+                buckets.computeIfAbsent(new BucketKey(plan.getMonthlyPayment(), plan.getMonthsCount()), Bucket::new)
+                        .plan = plan;
+            }
+            for (Group group : groupRepository.getOpenWithParticipants(session)) {
+                Bucket bucket = buckets.computeIfAbsent(
+                        new BucketKey(group.getMonthlyContribution(), group.getMaxMembers()), Bucket::new);
+                bucket.openGroups.add(GroupFill.existing(group, TurnOrderIndex.getInstance().freeSlots(group)));
+            }
+            List<MatchCandidate> candidates = userRepository.getMatchCandidates(session);
+            candidateCount = candidates.size();
+            for (MatchCandidate candidate : candidates) {
+                buckets.computeIfAbsent(
+                        new BucketKey(candidate.getMonthlyContribution(), candidate.getNumberOfMembers()), Bucket::new)
+                        .userIds.add(candidate.getUserId());
+            }
+        }
+        long loaded = System.nanoTime();
+
+        // Largest buckets first, so a big bucket does not start last and stretch the run
+        List<Bucket> work = new ArrayList<>();
+        for (Bucket bucket : buckets.values()) {
+            if (!bucket.userIds.isEmpty()) {
+                work.add(bucket);
+            }
+        }
+        work.sort(Comparator.comparingInt((Bucket bucket) -> bucket.userIds.size()).reversed());
+
+        List<BucketReport> bucketReports = new ArrayList<>(work.size());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<BucketReport>> tasks = new ArrayList<>(work.size());
+            for (Bucket bucket : work) {
+                tasks.add(pool.submit(() -> process(bucket)));
+            }
+            for (ForkJoinTask<BucketReport> task : tasks) {
+                bucketReports.add(task.join());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Report report = new Report(candidateCount, parallelism, bucketReports,
+                (loaded - start) / 1_000_000, (System.nanoTime() - loaded) / 1_000_000);
+        logger.info("Group matching finished: {}", report);
+        for (BucketReport bucketReport : bucketReports) {
+            logger.debug("Bucket {}", bucketReport);
+        }
+        return report;
+    }
+
+    /**
+     * Assigns and persists one bucket. Runs on a pool worker with its own session; each chunk of groups
+     * is a separate transaction, and a failed chunk is rolled back without affecting the others.
+     */
+    private BucketReport process(Bucket bucket) {
+        long start = System.nanoTime();
+        List<GroupFill> fills = new ArrayList<>();
+        int unmatched = assign(bucket, fills);
+        long assigned = System.nanoTime();
+
+        int matched = 0;
+        int failed = 0;
+        int created = 0;
+        int completed = 0;
+        try (Session session = sessionFactory.openSession()) {
+            for (int from = 0; from < fills.size(); from += GROUPS_PER_TRANSACTION) {
+                List<GroupFill> chunk = fills.subList(from, Math.min(from + GROUPS_PER_TRANSACTION, fills.size()));
+                int seats = chunk.stream().mapToInt(fill -> fill.userIds.size()).sum();
+                session.beginTransaction();
+                try {
+                    persist(session, chunk);
+                    session.getTransaction().commit();
+                    matched += seats;
+                    for (GroupFill fill : chunk) {
+                        if (fill.isNew()) {
+                            created++;
+                        }
+                        if (fill.isFull()) {
+                            completed++;
+                        }
+                    }
+                    publishEvents(chunk);
+                } catch (RuntimeException e) {
+                    if (session.getTransaction().isActive()) {
+                        session.getTransaction().rollback();
+                    }
+                    failed += seats;
+                    logger.error("Failed to persist group assignments for {} users", seats, e);
+                } finally {
+                    session.clear();
+                }
+            }
+        }
+        return new BucketReport(bucket.key.contribution, bucket.key.members, bucket.userIds.size(),
+                matched, unmatched, failed, created, completed,
+                (assigned - start) / 1_000_000, (System.nanoTime() - assigned) / 1_000_000,
+                Thread.currentThread().getName());
+    }
+
+    /**
+     * Seats the bucket's users in its open groups, then in new groups. Returns the number of users left without a group.
+     * Users are seated in id order and turn orders are handed out in ascending order, so the result does not
+     * depend on which worker runs the bucket.
+     */
+    private int assign(Bucket bucket, List<GroupFill> fills) {
+        Deque<Long> waiting = new ArrayDeque<>(bucket.userIds);
+        for (GroupFill fill : bucket.openGroups) {
+            while (!waiting.isEmpty() && fill.hasFreeTurn()) {
+                fill.seat(waiting.poll());
+            }
+            if (!fill.userIds.isEmpty()) {
+                fills.add(fill);
+            }
+        }
+        if (waiting.isEmpty()) {
+            return 0;
+        }
+        if (bucket.plan == null) {
+            logger.warn("No payment plan for {} SEK over {} months; {} users left unmatched",
+                    bucket.key.contribution, bucket.key.members, waiting.size());
+            return waiting.size();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        while (!waiting.isEmpty()) {
+            GroupFill fill = GroupFill.created(newGroup(bucket.plan, now));
+            while (!waiting.isEmpty() && fill.hasFreeTurn()) {
+                fill.seat(waiting.poll());
+            }
+            fills.add(fill);
+        }
+        return 0;
+    }
+
+    private void persist(Session session, List<GroupFill> chunk) {
+        List<Group> newGroups = new ArrayList<>();
+        for (GroupFill fill : chunk) {
+            if (fill.isNew()) {
+                if (fill.isFull()) {
+                    fill.group.setStatus(GroupStatus.PENDING_APPROVAL);
+                }
+                newGroups.add(fill.group);
+            }
+        }
+        groupRepository.saveAll(session, newGroups);
+
+        List<Round> rounds = new ArrayList<>();
+        List<Participant> participants = new ArrayList<>();
+        for (GroupFill fill : chunk) {
+            if (fill.isNew()) {
+                rounds.addAll(newRounds(fill.group));
+            }
+            Group group = session.getReference(Group.class, fill.group.getId());
+            for (int i = 0; i < fill.userIds.size(); i++) {
+                participants.add(newParticipant(session.getReference(User.class, fill.userIds.get(i)),
+                        group, fill.turnOrders.get(i)));
+            }
+        }
+        roundRepository.saveAll(session, rounds);
+        participantRepository.saveAll(session, participants);
+
+        // Existing groups were read before assignment; a join since then fails the chunk rather than overfill
+        // the group. Done after the batched inserts, which clear the session.
+        for (GroupFill fill : chunk) {
+            if (fill.isNew()) {
+                continue;
+            }
+            Group current = groupRepository.getById(session, fill.group.getId());
+            if (current == null || !Objects.equals(current.getVersion(), fill.group.getVersion())) {
+                throw new OptimisticLockException("Group " + fill.group.getId() + " changed since matching started");
+            }
+            session.lock(current, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            if (fill.isFull()) {
+                current.setStatus(GroupStatus.PENDING_APPROVAL);
+            }
+        }
+    }
+
+    private void publishEvents(List<GroupFill> chunk) {
+        for (GroupFill fill : chunk) {
+            Long groupId = fill.group.getId();
+            for (int i = 0; i < fill.userIds.size(); i++) {
+                publish(new ParticipantJoined(groupId, fill.userIds.get(i), fill.turnOrders.get(i)));
+            }
+            if (fill.isFull()) {
+                publish(new GroupFilled(groupId, fill.group.getMaxMembers()));
+            }
+        }
+    }
+
+    private void publish(DomainEvent event) {
+        eventBus.publish(event);
+        activityLog.record(event);
+    }
+
+    private static Group newGroup(PaymentPlan plan, LocalDateTime now) {
+        Group group = new Group();
+        group.setPaymentPlan(plan);
+        group.setMonthlyContribution(plan.getMonthlyPayment());
+        group.setMaxMembers(plan.getMonthsCount());
+        group.setStatus(GroupStatus.WAITING_FOR_MEMBERS);
+        group.setPaymentBy(PaymentBy.USER_PAYMENT);
+        group.setStartDate(now);
+        group.setEndDate(now.plusMonths(plan.getMonthsCount()));
+        group.setTotalAmount(plan.getMonthlyPayment().multiply(BigDecimal.valueOf(plan.getMonthsCount())));
+        group.setGroupName(group.generateGroupName(group.getStartDate(), group.getEndDate(), group.getTotalAmount()));
+        return group;
+    }
+
+    private static List<Round> newRounds(Group group) {
+        List<Round> rounds = new ArrayList<>(group.getMaxMembers());
+        for (int i = 1; i <= group.getMaxMembers(); i++) {
+            Round round = new Round();
+            round.setGroup(group);
+            round.setRoundNumber(i);
+            round.setStatus(RoundStatus.PENDING_APPROVAL);
+            round.setStartDate(group.getStartDate().plusMonths(i - 1));
+            round.setEndDate(group.getStartDate().plusMonths(i));
+            round.setAmount(group.getMonthlyContribution());
+            rounds.add(round);
+        }
+        return rounds;
+    }
+
+    private static Participant newParticipant(User user, Group group, int turnOrder) {
+        Participant participant = new Participant();
+        participant.setUser(user);
+        participant.setGroup(group);
+        participant.setTurnOrder(turnOrder);
+        participant.setRole(GroupRole.PAYER);
+        participant.setPaymentStatus(PaymentStatus.PENDING);
+        participant.setReceiveStatus(ReceiveStatus.PENDING);
+        participant.setPaymentBy(PaymentBy.USER_PAYMENT);
+        return participant;
+    }
+
+    /**
+     * Contribution is compared by value, so 500 and 500.00 land in the same bucket.
+     */
+    private static final class BucketKey {
+        private final BigDecimal contribution;
+        private final int members;
+
+        BucketKey(BigDecimal contribution, int members) {
+            this.contribution = contribution == null ? null : contribution.stripTrailingZeros();
+            this.members = members;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof BucketKey other)) return false;
+            return members == other.members && Objects.equals(contribution, other.contribution);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(contribution) + members;
+        }
+    }
+
+    private static final class Bucket {
+        private final BucketKey key;
+        private PaymentPlan plan;
+        private final List<GroupFill> openGroups = new ArrayList<>();
+        private final List<Long> userIds = new ArrayList<>();
+
+        Bucket(BucketKey key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A group and the users seated in it during this run.
+     */
+    private static final class GroupFill {
+        private final Group group;
+        private final boolean created;
+        private final BitSet free;
+        private final List<Long> userIds = new ArrayList<>();
+        private final List<Integer> turnOrders = new ArrayList<>();
+
+        private GroupFill(Group group, boolean created, BitSet free) {
+            this.group = group;
+            this.created = created;
+            this.free = free;
+        }
+
+        static GroupFill existing(Group group, BitSet free) {
+            return new GroupFill(group, false, free);
+        }
+
+        static GroupFill created(Group group) {
+            BitSet free = new BitSet(group.getMaxMembers() + 1);
+            free.set(1, group.getMaxMembers() + 1);
+            return new GroupFill(group, true, free);
+        }
+
+        boolean isNew() {
+            return created;
+        }
+
+        boolean hasFreeTurn() {
+            return free.nextSetBit(1) >= 0;
+        }
+
+        boolean isFull() {
+            return !hasFreeTurn();
+        }
+
+        void seat(Long userId) {
+            int turnOrder = free.nextSetBit(1);
+            free.clear(turnOrder);
+            userIds.add(userId);
+            turnOrders.add(turnOrder);
+        }
+    }
+
+    /**
+     * Outcome and timings of one bucket, for spotting skew between buckets.
+     */
+    public static class BucketReport {
+        private final BigDecimal monthlyContribution;
+        private final int members;
+        private final int candidates;
+        private final int matched;
+        private final int unmatched;
+        private final int failed;
+        private final int groupsCreated;
+        private final int groupsFilled;
+        private final long assignMillis;
+        private final long persistMillis;
+        private final String worker;
+
+        BucketReport(BigDecimal monthlyContribution, int members, int candidates, int matched, int unmatched,
+                     int failed, int groupsCreated, int groupsFilled, long assignMillis, long persistMillis,
+                     String worker) {
+            this.monthlyContribution = monthlyContribution;
+            this.members = members;
+            this.candidates = candidates;
+            this.matched = matched;
+            this.unmatched = unmatched;
+            this.failed = failed;
+            this.groupsCreated = groupsCreated;
+            this.groupsFilled = groupsFilled;
+            this.assignMillis = assignMillis;
+            this.persistMillis = persistMillis;
+            this.worker = worker;
+        }
+
+        public BigDecimal getMonthlyContribution() { return monthlyContribution; }
+        public int getMembers() { return members; }
+        public int getCandidates() { return candidates; }
+        public int getMatched() { return matched; }
+        public int getUnmatched() { return unmatched; }
+        public int getFailed() { return failed; }
+        public int getGroupsCreated() { return groupsCreated; }
+        public int getGroupsFilled() { return groupsFilled; }
+        public long getAssignMillis() { return assignMillis; }
+        public long getPersistMillis() { return persistMillis; }
+        public long getTotalMillis() { return assignMillis + persistMillis; }
+        public String getWorker() { return worker; }
+
+        @Override
+        public String toString() {
+            return (monthlyContribution == null ? "-" : monthlyContribution.toPlainString()) + " SEK x " + members +
+                    ": candidates=" + candidates + ", matched=" + matched + ", unmatched=" + unmatched +
+                    ", failed=" + failed + ", assign=" + assignMillis + " ms, persist=" + persistMillis +
+                    " ms on " + worker;
+        }
+    }
+
+    public static class Report {
+        private final int candidates;
+        private final int parallelism;
+        private final List<BucketReport> buckets;
+        private final long loadMillis;
+        private final long matchMillis;
+
+        Report(int candidates, int parallelism, List<BucketReport> buckets, long loadMillis, long matchMillis) {
+            this.candidates = candidates;
+            this.parallelism = parallelism;
+            this.buckets = List.copyOf(buckets);
+            this.loadMillis = loadMillis;
+            this.matchMillis = matchMillis;
+        }
+
+        public int getCandidates() { return candidates; }
+        public int getParallelism() { return parallelism; }
+        public List<BucketReport> getBuckets() { return buckets; }
+        public long getLoadMillis() { return loadMillis; }
+        public long getMatchMillis() { return matchMillis; }
+
+        public int getMatched() { return buckets.stream().mapToInt(BucketReport::getMatched).sum(); }
+        public int getUnmatched() { return buckets.stream().mapToInt(BucketReport::getUnmatched).sum(); }
+        public int getFailed() { return buckets.stream().mapToInt(BucketReport::getFailed).sum(); }
+        public int getGroupsCreated() { return buckets.stream().mapToInt(BucketReport::getGroupsCreated).sum(); }
+        public int getGroupsFilled() { return buckets.stream().mapToInt(BucketReport::getGroupsFilled).sum(); }
+
+        public BucketReport getSlowestBucket() {
+            return buckets.stream().max(Comparator.comparingLong(BucketReport::getTotalMillis)).orElse(null);
+        }
+
+        /**
+         * Slowest bucket time over mean bucket time; 1.0 means perfectly even buckets.
+         */
+        public double getSkew() {
+            double mean = buckets.stream().mapToLong(BucketReport::getTotalMillis).average().orElse(0);
+            BucketReport slowest = getSlowestBucket();
+            return slowest == null || mean == 0 ? 1.0 : slowest.getTotalMillis() / mean;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("candidates=%d, matched=%d, unmatched=%d, failed=%d, groups created=%d, " +
+                            "groups filled=%d, buckets=%d, parallelism=%d, load=%d ms, match=%d ms, skew=%.2f, slowest=[%s]",
+                    candidates, getMatched(), getUnmatched(), getFailed(), getGroupsCreated(), getGroupsFilled(),
+                    buckets.size(), parallelism, loadMillis, matchMillis, getSkew(), getSlowestBucket());
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.swedenrosca.service;
 
+import com.swedenrosca.activity.ActivityLog;
+import com.swedenrosca.event.DomainEvent;
+import com.swedenrosca.event.DomainEventBus;
+import com.swedenrosca.event.GroupActivated;
+import com.swedenrosca.event.GroupFilled;
+import com.swedenrosca.event.ParticipantJoined;
 import com.swedenrosca.model.*;
 import com.swedenrosca.repository.*;
+import jakarta.persistence.LockModeType;
 import org.hibernate.*;
 import java.util.List;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,13 +28,18 @@ public class GroupService {
     private final RoundRepository roundRepository;
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
+    private final GroupFinancialsRepository groupFinancialsRepository;
+    private final GroupMatchingEngine matchingEngine;
+    private final DomainEventBus eventBus = DomainEventBus.getInstance();
+    private final ActivityLog activityLog = ActivityLog.getInstance();
 
     public GroupService(SessionFactory sessionFactory, GroupRepository groupRepository, 
                        ParticipantRepository participantRepository, 
                        PaymentPlanRepository paymentPlanRepository,
                        RoundRepository roundRepository,
                        PaymentRepository paymentRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       GroupFinancialsRepository groupFinancialsRepository) {
         this.sessionFactory = sessionFactory;
         this.groupRepository = groupRepository;
         this.participantRepository = participantRepository;
@@ -34,6 +47,9 @@ public class GroupService {
         this.roundRepository = roundRepository;
         this.paymentRepository = paymentRepository;
         this.userRepository = userRepository;
+        this.groupFinancialsRepository = groupFinancialsRepository;
+        this.matchingEngine = new GroupMatchingEngine(sessionFactory, groupRepository, participantRepository,
+                paymentPlanRepository, roundRepository, userRepository);
     }
 
     public List<Group> findAvailableGroupsByPaymentPlan(PaymentPlan plan, GroupStatus status) {
@@ -64,19 +80,87 @@ public class GroupService {
         }
     }
 
-    public void joinGroup(User user, Group group, int turnOrder) {
+    /**
+     * Adds the user to the group at the given turn order and returns the group as it is after the join
+     * (its status is PENDING_APPROVAL if the user filled the last place).
+     */
+    public Group joinGroup(User user, Group group, int turnOrder) {
+        return join(group.getId(), user, turnOrder);
+    }
+
+    /**
+     * Fullness, membership and turn order are checked against the group as it is in this transaction, and
+     * the group's version is force-incremented, so concurrent joins to the same group serialize on commit.
+     * The losing join rolls back and is retried against fresh state; other groups are not affected.
+     */
+    private Group join(Long groupId, User user, int turnOrder) {
+        return ConflictRetry.run("Joining group " + groupId, () -> {
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                try {
+                    Group freshGroup = groupRepository.getById(session, groupId);
+                    if (freshGroup == null) {
+                        throw new IllegalArgumentException("Group not found with id: " + groupId);
+                    }
+                    if (freshGroup.getStatus() != GroupStatus.WAITING_FOR_MEMBERS) {
+                        throw new IllegalStateException("Cannot add user to group with status: " + freshGroup.getStatus());
+                    }
+                    if (turnOrder <= 0 || turnOrder > freshGroup.getMaxMembers()) {
+                        throw new IllegalArgumentException("Invalid turn order requested: " + turnOrder);
+                    }
+                    long members = participantRepository.countByGroupId(session, groupId);
+                    if (members >= freshGroup.getMaxMembers()) {
+                        throw new IllegalStateException("Group is full: " + freshGroup.getGroupName());
+                    }
+                    if (participantRepository.existsByUserIdAndGroup(session, user.getId(), groupId)) {
+                        throw new IllegalStateException("User already in group: " + user.getUsername());
+                    }
+                    if (!TurnOrderIndex.getInstance().isFree(session, groupId, turnOrder)) {
+                        throw new IllegalStateException("Turn order " + turnOrder + " is already taken");
+                    }
+
+                    Participant participant = new Participant();
+                    participant.setUser(user);
+                    participant.setGroup(freshGroup);
+                    participant.setTurnOrder(turnOrder);
+                    participant.setRole(GroupRole.PAYER);
+                    participant.setPaymentStatus(PaymentStatus.PENDING);
+                    participant.setReceiveStatus(ReceiveStatus.PENDING);
+                    participant.setPaymentBy(PaymentBy.USER_PAYMENT);
+                    participantRepository.save(session, participant);
+
+                    session.lock(freshGroup, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+                    boolean filled = members + 1 == freshGroup.getMaxMembers();
+                    if (filled) {
+                        freshGroup.setStatus(GroupStatus.PENDING_APPROVAL);
+                        logger.info("Group {} is now full and status updated to PENDING_APPROVAL", freshGroup.getGroupName());
+                    }
+                    session.getTransaction().commit();
+                    logger.info("User {} joined group {} with turn order {}", user.getUsername(), freshGroup.getGroupName(), turnOrder);
+                    publish(new ParticipantJoined(groupId, user.getId(), turnOrder));
+                    if (filled) {
+                        publish(new GroupFilled(groupId, freshGroup.getMaxMembers()));
+                    }
+                    return freshGroup;
+                } catch (RuntimeException e) {
+                    if (session.getTransaction().isActive()) {
+                        session.getTransaction().rollback();
+                    }
+                    throw e;
+                }
+            }
+        });
+    }
+
+    public List<Integer> getAvailableTurnOrders(Group group) {
         try (Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-            // Reload group to attach to this session
-            Group attachedGroup = groupRepository.getById(session, group.getId());
-            Participant participant = new Participant();
-            participant.setUser(user);
-            participant.setGroup(attachedGroup);
-            participant.setPaymentBy(PaymentBy.USER_PAYMENT);
-            participant.setRole(GroupRole.PAYER);
-            participant.setTurnOrder(turnOrder);
-            participantRepository.save(session, participant);
-            session.getTransaction().commit();
+            return groupRepository.getAvailableTurnOrders(session, group.getId());
+        }
+    }
+
+    public boolean isTurnOrderAvailable(Group group, int turnOrder) {
+        try (Session session = sessionFactory.openSession()) {
+            return TurnOrderIndex.getInstance().isFree(session, group.getId(), turnOrder);
         }
     }
 
@@ -134,6 +218,12 @@ public class GroupService {
         }
     }
 
+    public List<GroupSummary> getGroupSummaries(GroupStatus... statuses) {
+        try (Session session = sessionFactory.openSession()) {
+            return groupRepository.getSummaries(session, List.of(statuses));
+        }
+    }
+
     public List<Group> getAllGroups() {
         try (Session session = sessionFactory.openSession()) {
             return groupRepository.getAll(session);
@@ -214,6 +304,20 @@ public class GroupService {
             List<Participant> participants = freshGroup.getParticipants();
             List<Round> rounds = roundRepository.getByGroup(session, freshGroup);
 
+            // Set winners and expected payment counts first; the batched payment insert below clears the session
+            for (Round round : rounds) {
+                round.setExpectedCount(round.getExpectedCount() + participants.size());
+                for (Participant participant : participants) {
+                    if (round.getRoundNumber() == participant.getTurnOrder()) {
+                        round.setWinnerParticipant(participant);
+                        roundRepository.update(session, round);
+                        logger.info("Set participant {} as winner for round {}", participant.getUser().getUsername(), round.getRoundNumber());
+                    }
+                }
+            }
+            session.flush();
+
+            List<Payment> payments = new ArrayList<>(participants.size() * rounds.size());
             for (Participant participant : participants) {
                 for (Round round : rounds) {
                     Payment payment = new Payment();
@@ -224,267 +328,134 @@ public class GroupService {
                     payment.setDueDate(round.getStartDate().plusDays(5));
                     payment.setCreatedAt(LocalDateTime.now());
                     payment.setServiceFee(BigDecimal.ZERO);
-
-                    if (round.getRoundNumber() == participant.getTurnOrder()) {
-                        round.setWinnerParticipant(participant);
-                        roundRepository.update(session, round);
-                        logger.info("Set participant {} as winner for round {}", participant.getUser().getUsername(), round.getRoundNumber());
-                    }
-
-                    logger.info("Preparing to save payment: groupId={}, roundId={}, participantId={}, payerId={}, amount={}, status={}, dueDate={}, createdAt={}, paymentBy={}",
-                        freshGroup.getId(),
-                        round.getId(),
-                        participant.getId(),
-                        participant.getId(),
-                        freshGroup.getMonthlyContribution(),
-                        PaymentStatus.PENDING,
-                        round.getStartDate().plusDays(5),
-                        LocalDateTime.now(),
-                        PaymentBy.USER_PAYMENT
-                    );
-
-                    try {
-                        paymentRepository.save(session, payment);
-                        logger.info("Saved payment: groupId={}, roundId={}, participantId={}", 
-                            freshGroup.getId(), round.getId(), participant.getId());
-                    } catch (Exception e) {
-                        logger.error("Failed to save payment: groupId={}, roundId={}, participantId={}. Exception: {}",
-                            freshGroup.getId(), round.getId(), participant.getId(), e.getMessage(), e);
-                    }
+                    payments.add(payment);
                 }
             }
+            paymentRepository.saveAll(session, payments);
+            groupFinancialsRepository.recordTransition(session, null, PaymentStatus.PENDING,
+                    totals(freshGroup.getId(), payments));
+            logger.info("Saved {} payments for group {}", payments.size(), freshGroup.getId());
             session.getTransaction().commit();
             logger.info("Group {} activated: all payments and winners set.", freshGroup.getGroupName());
+            publish(new GroupActivated(freshGroup.getId(), rounds.size(), payments.size()));
         }
     }
 
-    public void addUserToGroupAsParticipant(Group group, User user, PaymentPlan paymentPlan, int requestedTurnOrder) {
-        logger.info("Starting to add user {} to group {}", user.getUsername(), group.getGroupName());
-        logger.info("Current group status: {}, members: {}/{}", 
-            group.getStatus(), 
-            group.getParticipants().size(), 
-            group.getMaxMembers());
-
-        if (group == null || user == null || paymentPlan == null) {
-            throw new IllegalArgumentException("Group, user and payment plan must not be null");
+    /**
+     * Activates a group: creates any missing round per member and one pending payment per member and round,
+     * all in a single transaction using batched inserts.
+     */
+    public void activateGroupWithPayments(Group group) {
+        if (group == null) {
+            throw new IllegalArgumentException("Group must not be null");
         }
-    
         try (Session session = sessionFactory.openSession()) {
             session.beginTransaction();
-            
-            // Check group status
-            if (!group.getStatus().equals(GroupStatus.WAITING_FOR_MEMBERS)) {
-                throw new IllegalStateException("Cannot add user to group with status: " + group.getStatus());
-            }
-        
-            // Check if group is full
-            if (group.getParticipants().size() >= group.getMaxMembers()) {
-                throw new IllegalStateException("Group is full: " + group.getGroupName());
-            }
-        
-            // Check if user is already in group
-            boolean alreadyInGroup = group.getParticipants().stream()
-                    .anyMatch(p -> p.getUser().getId().equals(user.getId()));
-            if (alreadyInGroup) {
-                throw new IllegalStateException("User already in group: " + user.getUsername());
+            Group freshGroup = groupRepository.getById(session, group.getId());
+            if (freshGroup == null) {
+                throw new IllegalStateException("Group not found");
             }
-        
-            // Validate requested turn order
-            if (requestedTurnOrder <= 0 || requestedTurnOrder > group.getMaxMembers()) {
-                throw new IllegalArgumentException("Invalid turn order requested: " + requestedTurnOrder);
+            int maxMembers = freshGroup.getMaxMembers();
+            LocalDateTime groupStart = freshGroup.getStartDate() != null ? freshGroup.getStartDate() : LocalDateTime.now();
+
+            List<Participant> participants = new ArrayList<>(participantRepository.getByGroup(session, freshGroup));
+            participants.sort((p1, p2) -> Integer.compare(p1.getTurnOrder(), p2.getTurnOrder()));
+
+            // Rounds may already exist (rounds are unique per group and number); only the missing ones are created
+            Map<Integer, Round> existingRounds = new HashMap<>();
+            for (Round round : roundRepository.getByGroup(session, freshGroup, FetchPlan.MINIMAL)) {
+                existingRounds.put(round.getRoundNumber(), round);
             }
-        
-            boolean turnOrderTaken = group.getParticipants().stream()
-                    .anyMatch(p -> p.getTurnOrder() == requestedTurnOrder);
-            if (turnOrderTaken) {
-                throw new IllegalStateException("Turn order " + requestedTurnOrder + " is already taken");
+
+            // Create a round for each turn, with its winner set before insert
+            List<Round> rounds = new ArrayList<>(maxMembers);
+            List<Round> newRounds = new ArrayList<>(maxMembers);
+            for (int i = 1; i <= maxMembers; i++) {
+                Round round = existingRounds.get(i);
+                if (round == null) {
+                    round = new Round();
+                    round.setGroup(freshGroup);
+                    round.setRoundNumber(i);
+                    round.setStatus(RoundStatus.PENDING_APPROVAL);
+                    round.setStartDate(groupStart.plusMonths(i - 1));
+                    round.setEndDate(groupStart.plusMonths(i));
+                    round.setAmount(freshGroup.getMonthlyContribution());
+                    newRounds.add(round);
+                }
+                round.setExpectedCount(round.getExpectedCount() + participants.size());
+                for (Participant participant : participants) {
+                    if (participant.getTurnOrder() == i) {
+                        round.setWinnerParticipant(participant);
+                        round.setStatus(RoundStatus.ACTIVE);
+                    }
+                }
+                rounds.add(round);
             }
-        
-            // Create new participant
-            Participant participant = new Participant();
-            participant.setUser(user);
-            participant.setGroup(group);
-            participant.setTurnOrder(requestedTurnOrder);
-            participant.setRole(GroupRole.PAYER);
-            participant.setPaymentStatus(PaymentStatus.PENDING);
-            participant.setReceiveStatus(ReceiveStatus.PENDING);
-            participant.setPaymentBy(PaymentBy.USER_PAYMENT);
-        
-            // Save participant to database
-            participantRepository.save(session, participant);
-            logger.info("Saved new participant with turn order {}", requestedTurnOrder);
-        
-            // Get fresh group data to ensure we have the latest participant count
-            Group freshGroup = groupRepository.getById(session, group.getId());
-            if (freshGroup != null) {
-                logger.info("Fresh group data - members: {}/{}", 
-                    freshGroup.getParticipants().size(), 
-                    freshGroup.getMaxMembers());
-                
-                // Check if group is now full and update status
-                if (freshGroup.getParticipants().size() == freshGroup.getMaxMembers()) {
-                    freshGroup.setStatus(GroupStatus.PENDING_APPROVAL);
-                    groupRepository.update(session, freshGroup);
-                    logger.info("Group {} is now full and status updated to PENDING_APPROVAL", freshGroup.getGroupName());
-                } else {
-                    logger.info("Group {} is not full yet, keeping status as {}", 
-                        freshGroup.getGroupName(), 
-                        freshGroup.getStatus());
+
+            // Create payments for all participants for each round
+            LocalDateTime now = LocalDateTime.now();
+            List<Payment> payments = new ArrayList<>(rounds.size() * participants.size());
+            for (Round round : rounds) {
+                for (Participant participant : participants) {
+                    Payment payment = new Payment();
+                    payment.setGroup(freshGroup);
+                    payment.setCreator(participant.getUser());
+                    payment.setAmount(freshGroup.getMonthlyContribution());
+                    payment.setStatus(PaymentStatus.PENDING);
+                    payment.setPaymentBy(PaymentBy.USER_PAYMENT);
+                    payment.setCreatedAt(now);
+                    payment.setRound(round);
+                    payment.setDueDate(round.getStartDate().plusDays(5));
+                    payment.setPaymentPlan(freshGroup.getPaymentPlan());
+                    payments.add(payment);
                 }
-            } else {
-                logger.error("Could not retrieve fresh group data after adding participant");
             }
+
+            freshGroup.setStatus(GroupStatus.ACTIVE);
+            groupRepository.update(session, freshGroup);
+            session.flush();
+
+            roundRepository.saveAll(session, newRounds);
+            paymentRepository.saveAll(session, payments);
+            groupFinancialsRepository.recordTransition(session, null, PaymentStatus.PENDING,
+                    totals(freshGroup.getId(), payments));
             session.getTransaction().commit();
+            group.setStatus(GroupStatus.ACTIVE);
+            logger.info("Group {} activated: {} rounds and {} payments created", freshGroup.getGroupName(), newRounds.size(), payments.size());
+            publish(new GroupActivated(freshGroup.getId(), rounds.size(), payments.size()));
         }
     }
 
-    private Group createNewGroup(PaymentPlan paymentPlan) {
-        try (Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-            Group group = new Group();
-            group.setPaymentPlan(paymentPlan);
-            group.setMonthlyContribution(paymentPlan.getMonthlyPayment());
-            group.setMaxMembers(paymentPlan.getMonthsCount());
-            group.setStatus(GroupStatus.WAITING_FOR_MEMBERS);
-            group.setPaymentBy(PaymentBy.USER_PAYMENT);
-            group.setStartDate(LocalDateTime.now());
-            group.setEndDate(LocalDateTime.now().plusMonths(paymentPlan.getMonthsCount()));
-            group.setTotalAmount(paymentPlan.getMonthlyPayment().multiply(BigDecimal.valueOf(paymentPlan.getMonthsCount())));
-            group.setGroupName(group.generateGroupName(group.getStartDate(), group.getEndDate(), group.getTotalAmount()));
-            
-            // Save the group first to get its ID
-            groupRepository.save(session, group);
-            
-            // Create rounds for each month
-            for (int i = 1; i <= group.getMaxMembers(); i++) {
-                Round round = new Round();
-                round.setGroup(group);
-                round.setRoundNumber(i);
-                round.setStatus(RoundStatus.PENDING_APPROVAL);
-                round.setStartDate(group.getStartDate().plusMonths(i - 1));
-                round.setEndDate(group.getStartDate().plusMonths(i));
-                round.setAmount(group.getMonthlyContribution());
-                round.setWinnerParticipant(null);
-                
-                roundRepository.save(session, round);
-                logger.info("Created round {} for group {}", i, group.getGroupName());
-            }
-            
-            session.getTransaction().commit();
-            return group;
-        }
+    private void publish(DomainEvent event) {
+        eventBus.publish(event);
+        activityLog.record(event);
     }
 
-    private List<Group> findMatchingGroup(PaymentPlan paymentPlan) {
-        try (Session session = sessionFactory.openSession()) {
-            return groupRepository.findAvailableGroupsByPaymentPlan(session, paymentPlan, GroupStatus.WAITING_FOR_MEMBERS);
+    private static PaymentTotals totals(Long groupId, List<Payment> payments) {
+        BigDecimal amount = BigDecimal.ZERO;
+        BigDecimal fees = BigDecimal.ZERO;
+        for (Payment payment : payments) {
+            amount = amount.add(payment.getAmount());
+            if (payment.getServiceFee() != null) {
+                fees = fees.add(payment.getServiceFee());
+            }
         }
+        return new PaymentTotals(groupId, payments.size(), amount, fees);
     }
 
-    private Group findOrCreateGroup(PaymentPlan paymentPlan) {
-        List<Group> matches = findMatchingGroup(paymentPlan);
-        if (matches.isEmpty()) {
-            return createNewGroup(paymentPlan);
-        } else {
-            return matches.get(0);
+    public void addUserToGroupAsParticipant(Group group, User user, PaymentPlan paymentPlan, int requestedTurnOrder) {
+        if (group == null || user == null || paymentPlan == null) {
+            throw new IllegalArgumentException("Group, user and payment plan must not be null");
         }
+        logger.info("Starting to add user {} to group {}", user.getUsername(), group.getGroupName());
+        join(group.getId(), user, requestedTurnOrder);
     }
 
-    public void matchAndDistribute() {
-        try (Session session = sessionFactory.openSession()) {
-            session.beginTransaction();
-            List<User> users = userRepository.getAll(session);
-
-            for (User user : users) {
-                // Skip if user is already in a group
-                if (participantRepository.getByUser(session, user) != null) {
-                    logger.debug("Skipping user {} - already in a group", user.getUsername());
-                    continue;
-                }
-                
-                // Find a matching payment plan for the user based on their preferences
-                PaymentPlan userPreferredPlan = paymentPlanRepository.findByPaymentAndMonths(session,
-                    user.getMonthlyContribution(),
-                    user.getNumberOfMembers()
-                ).stream().findFirst().orElse(null);
-
-                if (userPreferredPlan == null) {
-                    paymentPlanRepository.save(session, userPreferredPlan);
-                    continue;
-                }
-                PaymentPlan updatedUserPreferredPlan = paymentPlanRepository.getById(session, userPreferredPlan.getId());
-
-                // Find or create a group that matches the user's preferred payment plan
-                Group group = findOrCreateGroup(updatedUserPreferredPlan);
-                updateGroupStatusIfFull(group);
-
-                if (group == null) {
-                    logger.error("Failed to find or create group for user {}", user.getUsername());
-                    continue;
-                }
-
-                // Get fresh group data to ensure we have the latest participant count
-                Group freshGroup = groupRepository.getById(session, group.getId());
-                if (freshGroup == null) {
-                    logger.error("Group not found after creation. Skipping user {}", user.getUsername());
-                    continue;
-                }
-
-                logger.info("Processing group: {} for user: {}. Current members: {}/{}", 
-                    freshGroup.getGroupName(), 
-                    user.getUsername(),
-                    freshGroup.getParticipants().size(),
-                    freshGroup.getMaxMembers());
-
-                // Add the user to the group if there is space
-                if (freshGroup.getParticipants().size() < freshGroup.getMaxMembers()) {
-                    try {
-                        // Get all taken turn orders
-                        List<Integer> takenTurnOrders = freshGroup.getParticipants().stream()
-                            .map(Participant::getTurnOrder)
-                            .collect(Collectors.toList());
-                        
-                        // Get all available turn orders
-                        List<Integer> availableTurnOrders = new ArrayList<>();
-                        for (int i = 1; i <= freshGroup.getMaxMembers(); i++) {
-                            if (!takenTurnOrders.contains(i)) {
-                                availableTurnOrders.add(i);
-                            }
-                        }
-
-                        // For matchAndDistribute, we'll assign turn orders sequentially
-                        int nextTurnOrder = availableTurnOrders.get(0);
-                        addUserToGroupAsParticipant(freshGroup, user, userPreferredPlan, nextTurnOrder);
-                        logger.info("Added user {} to group {} with turn order {}", 
-                            user.getUsername(), 
-                            freshGroup.getGroupName(),
-                            nextTurnOrder);
-                        
-                        // Get fresh group data again after adding participant
-                        Group updatedGroup = groupRepository.getById(session, freshGroup.getId());
-                        if (updatedGroup != null) {
-                            logger.debug("Updated member count: {}/{}", 
-                                updatedGroup.getParticipants().size(),
-                                updatedGroup.getMaxMembers());
-                            // Update group status if needed
-                            updateGroupStatusIfFull(updatedGroup);
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error adding user {} to group {}: {}", 
-                            user.getUsername(), 
-                            freshGroup.getGroupName(),
-                            e.getMessage(), 
-                            e);
-                    }
-                } else {
-                    logger.warn("No space in matching group {} for user: {}", 
-                        freshGroup.getGroupName(), 
-                        user.getUsername());
-                }
-            }
-            session.getTransaction().commit();
-            logger.info("Match and distribute process completed");
-        }
+    /**
+     * Places every waiting user in a group; see {@link GroupMatchingEngine}.
+     */
+    public GroupMatchingEngine.Report matchAndDistribute() {
+        return matchingEngine.match();
     }
 
     public List<Group> getOpenGroups() {
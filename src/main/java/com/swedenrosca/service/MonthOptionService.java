@@ -4,6 +4,7 @@ import com.swedenrosca.model.MonthOption;
 import com.swedenrosca.repository.MonthOptionRepository;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import com.swedenrosca.util.ReferenceDataCache;
 import java.util.List;
 
 public class MonthOptionService {
@@ -27,6 +28,7 @@ public class MonthOptionService {
             monthOptionRepository.save(session, option);
             session.getTransaction().commit();
         }
+        ReferenceDataCache.evict(sessionFactory, MonthOption.class);
     }
 
     public void update(MonthOption option) {
@@ -35,6 +37,7 @@ public class MonthOptionService {
             monthOptionRepository.update(session, option);
             session.getTransaction().commit();
         }
+        ReferenceDataCache.evict(sessionFactory, MonthOption.class);
     }
 
     public void deleteById(Long id) {
@@ -43,6 +46,7 @@ public class MonthOptionService {
             monthOptionRepository.deleteById(session, id);
             session.getTransaction().commit();
         }
+        ReferenceDataCache.evict(sessionFactory, MonthOption.class);
     }
 
     public MonthOption findById(Long id) {
@@ -57,5 +61,6 @@ public class MonthOptionService {
             monthOptionRepository.deleteAll(session);
             session.getTransaction().commit();
         }
+        ReferenceDataCache.evict(sessionFactory, MonthOption.class);
     }
 } 
\ No newline at end of file
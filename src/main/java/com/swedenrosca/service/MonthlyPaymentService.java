@@ -3,7 +3,7 @@ package com.swedenrosca.service;
 import com.swedenrosca.model.MonthlyPayment;
 import com.swedenrosca.model.Group;
 import com.swedenrosca.repository.MonthlyPaymentRepository;
-import com.swedenrosca.repository.SingletonSessionFactory;
+import com.swedenrosca.util.SingletonSessionFactory;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import java.util.List;
@@ -0,0 +1,128 @@
+package com.swedenrosca.service;
+
+import com.swedenrosca.model.PaymentKey;
+import com.swedenrosca.model.PaymentStatus;
+import com.swedenrosca.model.PaymentTotals;
+import com.swedenrosca.repository.GroupFinancialsRepository;
+import com.swedenrosca.repository.PaymentRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Promotes overdue payments across all groups: PENDING to LATE once the due date has passed,
+ * and LATE to MISSED once the grace period has also passed. Overdue payments are selected in keyset
+ * chunks ordered by (dueDate, id), so a run only reads the rows it moves, and moved with one conditional
+ * UPDATE per chunk, each chunk in its own short transaction
+ * together with the matching group_financials update.
+ */
+public class OverduePaymentSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(OverduePaymentSweeper.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final int DEFAULT_GRACE_DAYS = 30;
+
+    private final SessionFactory sessionFactory;
+    private final PaymentRepository paymentRepository;
+    private final GroupFinancialsRepository groupFinancialsRepository;
+    private final int chunkSize;
+    private final int graceDays;
+
+    public OverduePaymentSweeper(SessionFactory sessionFactory, PaymentRepository paymentRepository,
+                                 GroupFinancialsRepository groupFinancialsRepository) {
+        this(sessionFactory, paymentRepository, groupFinancialsRepository, DEFAULT_CHUNK_SIZE, DEFAULT_GRACE_DAYS);
+    }
+
+    public OverduePaymentSweeper(SessionFactory sessionFactory, PaymentRepository paymentRepository,
+                                 GroupFinancialsRepository groupFinancialsRepository, int chunkSize, int graceDays) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.sessionFactory = sessionFactory;
+        this.paymentRepository = paymentRepository;
+        this.groupFinancialsRepository = groupFinancialsRepository;
+        this.chunkSize = chunkSize;
+        this.graceDays = graceDays;
+    }
+
+    public Report sweep() {
+        return sweep(LocalDateTime.now());
+    }
+
+    public Report sweep(LocalDateTime now) {
+        long start = System.nanoTime();
+        // LATE -> MISSED first, so payments that just became LATE are not also counted as MISSED in the same run
+        Transition missed = transition(PaymentStatus.LATE, PaymentStatus.MISSED, now.minusDays(graceDays));
+        Transition late = transition(PaymentStatus.PENDING, PaymentStatus.LATE, now);
+        Report report = new Report(late.updated, missed.updated, late.chunks + missed.chunks,
+                (System.nanoTime() - start) / 1_000_000);
+        logger.info("Overdue payment sweep finished: {}", report);
+        return report;
+    }
+
+    private Transition transition(PaymentStatus from, PaymentStatus to, LocalDateTime cutoff) {
+        Transition result = new Transition();
+        PaymentKey last = null;
+        while (true) {
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                List<PaymentKey> keys = paymentRepository.findKeysByStatusDueBefore(session, from, cutoff, last, chunkSize);
+                if (keys.isEmpty()) {
+                    session.getTransaction().commit();
+                    return result;
+                }
+                List<Long> ids = new ArrayList<>(keys.size());
+                for (PaymentKey key : keys) {
+                    ids.add(key.getId());
+                }
+                result.updated += paymentRepository.transitionStatus(session, ids, from, to);
+                // The chunk's ids were read in the from status, so the ones now in the to status are exactly
+                // the rows this transaction moved
+                for (PaymentTotals totals : paymentRepository.sumByGroup(session, ids, to)) {
+                    groupFinancialsRepository.recordTransition(session, from, to, totals);
+                }
+                result.chunks++;
+                session.getTransaction().commit();
+                last = keys.get(keys.size() - 1);
+                if (ids.size() < chunkSize) {
+                    return result;
+                }
+            }
+        }
+    }
+
+    private static class Transition {
+        private int updated;
+        private int chunks;
+    }
+
+    public static class Report {
+        private final int markedLate;
+        private final int markedMissed;
+        private final int chunks;
+        private final long durationMillis;
+
+        Report(int markedLate, int markedMissed, int chunks, long durationMillis) {
+            this.markedLate = markedLate;
+            this.markedMissed = markedMissed;
+            this.chunks = chunks;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getMarkedLate() { return markedLate; }
+        public int getMarkedMissed() { return markedMissed; }
+        public int getChunks() { return chunks; }
+        public long getDurationMillis() { return durationMillis; }
+
+        @Override
+        public String toString() {
+            return "marked late=" + markedLate + ", marked missed=" + markedMissed +
+                    ", chunks=" + chunks + ", duration=" + durationMillis + " ms";
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.swedenrosca.service;
 
 import com.swedenrosca.model.*;
 import com.swedenrosca.repository.*;
+import com.swedenrosca.util.SingletonSessionFactory;
 import org.hibernate.*;
 import java.util.List;
 
@@ -22,6 +23,14 @@ public class ParticipantService {
         }
     }
 
+    public void addParticipants(List<Participant> participants) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            participantRepository.saveAll(session, participants);
+            session.getTransaction().commit();
+        }
+    }
+
     public void updateParticipant(Participant participant) {
         try (Session session = sessionFactory.openSession()) {
             session.beginTransaction();
@@ -4,6 +4,7 @@ import com.swedenrosca.model.PaymentOption;
 import com.swedenrosca.repository.PaymentOptionRepository;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import com.swedenrosca.util.ReferenceDataCache;
 import org.hibernate.Transaction;
 import java.util.List;
 
@@ -32,6 +33,7 @@ public class PaymentOptionService {
             if (tx != null) tx.rollback();
             throw e;
         }
+        ReferenceDataCache.evict(sessionFactory, PaymentOption.class);
     }
 
     public void update(PaymentOption option) {
@@ -44,6 +46,7 @@ public class PaymentOptionService {
             if (tx != null) tx.rollback();
             throw e;
         }
+        ReferenceDataCache.evict(sessionFactory, PaymentOption.class);
     }
 
     public void deleteById(Long id) {
@@ -56,6 +59,7 @@ public class PaymentOptionService {
             if (tx != null) tx.rollback();
             throw e;
         }
+        ReferenceDataCache.evict(sessionFactory, PaymentOption.class);
     }
 
     public PaymentOption findById(Long id) {
@@ -74,6 +78,7 @@ public class PaymentOptionService {
             if (tx != null) tx.rollback();
             throw e;
         }
+        ReferenceDataCache.evict(sessionFactory, PaymentOption.class);
     }
 
     public List<PaymentOption> getAll() {
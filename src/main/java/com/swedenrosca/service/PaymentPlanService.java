@@ -3,6 +3,7 @@ package com.swedenrosca.service;
 import com.swedenrosca.model.PaymentPlan;
 import com.swedenrosca.repository.*;
 import org.hibernate.*;
+import com.swedenrosca.util.ReferenceDataCache;
 import java.util.List;
 
 public class PaymentPlanService {
@@ -20,6 +21,7 @@ public class PaymentPlanService {
             paymentPlanRepository.save(session, plan);
             session.getTransaction().commit();
         }
+        ReferenceDataCache.evict(sessionFactory, PaymentPlan.class);
     }
 
     public void updatePaymentPlan(PaymentPlan plan) {
@@ -28,6 +30,7 @@ public class PaymentPlanService {
             paymentPlanRepository.update(session, plan);
             session.getTransaction().commit();
         }
+        ReferenceDataCache.evict(sessionFactory, PaymentPlan.class);
     }
 
     public void deletePaymentPlan(PaymentPlan plan) {
@@ -36,6 +39,7 @@ public class PaymentPlanService {
             paymentPlanRepository.delete(session, plan);
             session.getTransaction().commit();
         }
+        ReferenceDataCache.evict(sessionFactory, PaymentPlan.class);
     }
 
     public PaymentPlan getById(Long id) {
@@ -56,6 +60,7 @@ public class PaymentPlanService {
             paymentPlanRepository.deleteAll(session);
             session.getTransaction().commit();
         }
+        ReferenceDataCache.evict(sessionFactory, PaymentPlan.class);
     }
 
     public PaymentPlan createPaymentPlan(int monthlyPayment, int monthsCount) {
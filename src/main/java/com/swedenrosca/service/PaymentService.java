@@ -2,6 +2,7 @@ package com.swedenrosca.service;
 
 import com.swedenrosca.model.*;
 import com.swedenrosca.repository.*;
+import com.swedenrosca.util.SingletonSessionFactory;
 import org.hibernate.*;
 import java.util.List;
 import java.util.Collection;
@@ -120,6 +121,21 @@ public class PaymentService {
         }
     }
 
+    public List<Payment> getByRound(Round round, FetchPlan plan) {
+        try (Session session = sessionFactory.openSession()) {
+            return paymentRepository.getByRound(session, round, plan);
+        }
+    }
+
+    public List<Payment> getPaymentsPageAfter(Payment last, int pageSize) {
+        try (Session session = sessionFactory.openSession()) {
+            return paymentRepository.getPageAfter(session,
+                    last != null ? last.getDueDate() : null,
+                    last != null ? last.getId() : null,
+                    pageSize);
+        }
+    }
+
     public List<Payment> getAllPayments() {
         try (Session session = sessionFactory.openSession()) {
             return paymentRepository.listAll(session);
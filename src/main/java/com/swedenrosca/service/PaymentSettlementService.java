@@ -0,0 +1,191 @@
+package com.swedenrosca.service;
+
+import com.swedenrosca.activity.ActivityLog;
+import com.swedenrosca.event.DomainEvent;
+import com.swedenrosca.event.DomainEventBus;
+import com.swedenrosca.event.PaymentPaid;
+import com.swedenrosca.event.RoundCompleted;
+import com.swedenrosca.model.Payment;
+import com.swedenrosca.model.Participant;
+import com.swedenrosca.model.PaymentStatus;
+import com.swedenrosca.model.PaymentTotals;
+import com.swedenrosca.model.User;
+import com.swedenrosca.outbox.OutboxMessages;
+import com.swedenrosca.model.Round;
+import com.swedenrosca.repository.FetchPlan;
+import com.swedenrosca.repository.GroupFinancialsRepository;
+import com.swedenrosca.repository.OutboxRepository;
+import com.swedenrosca.repository.ParticipantRepository;
+import com.swedenrosca.repository.PaymentRepository;
+import com.swedenrosca.repository.RoundRepository;
+import com.swedenrosca.repository.UserRepository;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Settles a member's payment in one short transaction: marks the payment paid, debits the payer,
+ * adds it to the round's paid counters, and completes the round and pays out the winner when it was
+ * the round's last unpaid payment, moves the amounts in the group's financial totals, and queues the
+ * receipt and payout instruction in the outbox. Every step is a conditional update, so a payment cannot be paid
+ * twice, a balance cannot be overdrawn and a round is completed exactly once; the counter increment
+ * holds the round's row lock, so settlements of the same round run one after another from there.
+ */
+public class PaymentSettlementService {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentSettlementService.class);
+
+    private final SessionFactory sessionFactory;
+    private final PaymentRepository paymentRepository;
+    private final RoundRepository roundRepository;
+    private final UserRepository userRepository;
+    private final ParticipantRepository participantRepository;
+    private final GroupFinancialsRepository groupFinancialsRepository;
+    private final OutboxRepository outboxRepository;
+    private final DomainEventBus eventBus = DomainEventBus.getInstance();
+    private final ActivityLog activityLog = ActivityLog.getInstance();
+
+    public PaymentSettlementService(SessionFactory sessionFactory, PaymentRepository paymentRepository,
+                                    RoundRepository roundRepository, UserRepository userRepository,
+                                    ParticipantRepository participantRepository,
+                                    GroupFinancialsRepository groupFinancialsRepository,
+                                    OutboxRepository outboxRepository) {
+        this.sessionFactory = sessionFactory;
+        this.paymentRepository = paymentRepository;
+        this.roundRepository = roundRepository;
+        this.userRepository = userRepository;
+        this.participantRepository = participantRepository;
+        this.groupFinancialsRepository = groupFinancialsRepository;
+        this.outboxRepository = outboxRepository;
+    }
+
+    public Settlement settle(Long paymentId, Long userId) {
+        return ConflictRetry.run("Settling payment " + paymentId, () -> settleOnce(paymentId, userId));
+    }
+
+    private Settlement settleOnce(Long paymentId, Long userId) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try {
+                Payment payment = paymentRepository.getById(session, paymentId, FetchPlan.MINIMAL);
+                if (payment == null) {
+                    throw new IllegalArgumentException("Payment not found with id: " + paymentId);
+                }
+                PaymentStatus from = payment.getStatus();
+                if (from == PaymentStatus.PAID) {
+                    throw new IllegalStateException("This payment has already been paid");
+                }
+                if (payment.getCreator() != null && !payment.getCreator().getId().equals(userId)) {
+                    throw new IllegalStateException("This payment belongs to another member");
+                }
+                BigDecimal amount = payment.getAmount();
+                Long groupId = payment.getGroup().getId();
+                Long roundId = payment.getRound() != null ? payment.getRound().getId() : null;
+
+                // Conditional on the status read above, so the financial totals move out of the right bucket
+                if (paymentRepository.markPaid(session, paymentId, userId, from, LocalDateTime.now()) == 0) {
+                    throw new OptimisticLockException("Payment " + paymentId + " changed while it was being settled");
+                }
+                groupFinancialsRepository.recordTransition(session, from, PaymentStatus.PAID,
+                        new PaymentTotals(groupId, 1, amount, payment.getServiceFee()));
+                if (userRepository.debitBalance(session, userId, amount) == 0) {
+                    throw new IllegalStateException("There is not enough balance to pay this payment");
+                }
+
+                RoundCompleted completion = null;
+                if (roundId != null) {
+                    roundRepository.recordPayment(session, roundId, amount);
+                    completion = completeRound(session, roundId, groupId);
+                }
+                boolean roundCompleted = completion != null;
+                Long winnerUserId = roundCompleted ? completion.getWinnerUserId() : null;
+                BigDecimal payout = roundCompleted ? completion.getPayout() : BigDecimal.ZERO;
+
+                BigDecimal payerBalance = userRepository.getBalance(session, userId);
+                User payer = userRepository.getById(session, userId);
+                outboxRepository.save(session, OutboxMessages.paymentReceipt(paymentId, payment.getGroup().getGroupName(),
+                        payer, amount, payerBalance));
+                BigDecimal winnerBalance = winnerUserId != null ? userRepository.getBalance(session, winnerUserId) : null;
+                session.getTransaction().commit();
+
+                publish(new PaymentPaid(paymentId, groupId, roundId, userId, amount));
+                if (roundCompleted) {
+                    publish(completion);
+                    logger.info("Payment {} settled; round {} completed, {} SEK paid out to user {}",
+                            paymentId, roundId, payout, winnerUserId);
+                } else {
+                    logger.info("Payment {} settled by user {}", paymentId, userId);
+                }
+                return new Settlement(paymentId, amount, payerBalance, roundCompleted, winnerUserId, payout,
+                        winnerBalance);
+            } catch (RuntimeException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Completes the round if its paid counters now cover every expected payment, then credits the winner
+     * with the payout, marks it received and queues the payout instruction, all in the caller's transaction. Returns the
+     * completion to publish after commit, or null if the round is not complete or was completed earlier.
+     */
+    RoundCompleted completeRound(Session session, Long roundId, Long groupId) {
+        if (roundRepository.completeIfFullyPaid(session, roundId) != 1) {
+            return null;
+        }
+        Round round = roundRepository.getById(session, roundId, FetchPlan.ROUND_SETTLEMENT);
+        Participant winner = round.getWinnerParticipant();
+        if (winner == null) {
+            return new RoundCompleted(roundId, groupId, null, BigDecimal.ZERO);
+        }
+        Long winnerUserId = winner.getUser().getId();
+        BigDecimal payout = round.getGroup().getTotalAmount();
+        userRepository.creditBalance(session, winnerUserId, payout);
+        participantRepository.markReceived(session, winner.getId(), LocalDateTime.now());
+        groupFinancialsRepository.recordPayout(session, groupId, payout);
+        outboxRepository.save(session, OutboxMessages.payoutInstruction(roundId, round.getRoundNumber(),
+                round.getGroup().getGroupName(), winner.getUser(), payout));
+        return new RoundCompleted(roundId, groupId, winnerUserId, payout);
+    }
+
+    private void publish(DomainEvent event) {
+        eventBus.publish(event);
+        activityLog.record(event);
+    }
+
+    public static class Settlement {
+        private final Long paymentId;
+        private final BigDecimal amount;
+        private final BigDecimal payerBalance;
+        private final boolean roundCompleted;
+        private final Long winnerUserId;
+        private final BigDecimal payout;
+        private final BigDecimal winnerBalance;
+
+        Settlement(Long paymentId, BigDecimal amount, BigDecimal payerBalance, boolean roundCompleted,
+                   Long winnerUserId, BigDecimal payout, BigDecimal winnerBalance) {
+            this.paymentId = paymentId;
+            this.amount = amount;
+            this.payerBalance = payerBalance;
+            this.roundCompleted = roundCompleted;
+            this.winnerUserId = winnerUserId;
+            this.payout = payout;
+            this.winnerBalance = winnerBalance;
+        }
+
+        public Long getPaymentId() { return paymentId; }
+        public BigDecimal getAmount() { return amount; }
+        public BigDecimal getPayerBalance() { return payerBalance; }
+        public boolean isRoundCompleted() { return roundCompleted; }
+        public Long getWinnerUserId() { return winnerUserId; }
+        public BigDecimal getPayout() { return payout; }
+        public BigDecimal getWinnerBalance() { return winnerBalance; }
+    }
+}
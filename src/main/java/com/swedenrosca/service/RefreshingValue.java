@@ -0,0 +1,85 @@
+package com.swedenrosca.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * A value that is loaded once and then served from memory. After the time to live it is still served,
+ * but the first read starts one reload on the executor, so only the very first read waits for the loader.
+ * A failed reload keeps the old value and is retried on a later read.
+ */
+final class RefreshingValue<T> {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshingValue.class);
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final long ttlNanos;
+    private final Executor executor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile T value;
+    private volatile long loadedAtNanos;
+
+    RefreshingValue(String name, Supplier<T> loader, long ttlNanos, Executor executor) {
+        this.name = name;
+        this.loader = loader;
+        this.ttlNanos = ttlNanos;
+        this.executor = executor;
+    }
+
+    T get() {
+        T current = value;
+        if (current == null) {
+            return loadNow();
+        }
+        if (System.nanoTime() - loadedAtNanos >= ttlNanos) {
+            refresh();
+        }
+        return current;
+    }
+
+    /**
+     * Starts a reload on the executor unless one is already running.
+     */
+    void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    load();
+                } catch (RuntimeException e) {
+                    logger.warn("Refreshing {} failed; keeping the previous value: {}", name, e.toString());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    void invalidate() {
+        loadedAtNanos = System.nanoTime() - ttlNanos;
+    }
+
+    private synchronized T loadNow() {
+        // Another caller may have finished the first load while this one waited for the lock
+        T current = value;
+        return current != null ? current : load();
+    }
+
+    private T load() {
+        long start = System.nanoTime();
+        T loaded = loader.get();
+        value = loaded;
+        loadedAtNanos = System.nanoTime();
+        logger.debug("Loaded {} in {} ms", name, (loadedAtNanos - start) / 1_000_000);
+        return loaded;
+    }
+}
@@ -2,6 +2,7 @@ package com.swedenrosca.service;
 
 import com.swedenrosca.model.*;
 import com.swedenrosca.repository.*;
+import com.swedenrosca.util.SingletonSessionFactory;
 import org.hibernate.*;
 import java.util.List;
 import java.math.BigDecimal;
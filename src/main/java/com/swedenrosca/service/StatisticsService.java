@@ -0,0 +1,97 @@
+package com.swedenrosca.service;
+
+import com.swedenrosca.model.GroupStatistics;
+import com.swedenrosca.model.PaymentStatistics;
+import com.swedenrosca.model.UserStatistics;
+import com.swedenrosca.repository.GroupRepository;
+import com.swedenrosca.repository.PaymentRepository;
+import com.swedenrosca.repository.UserRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Payment, group and user statistics for the admin menu. Each comes from one aggregate query and is kept
+ * in memory; once older than the time to live it is still returned while a background thread reloads it,
+ * so the numbers can lag the database by up to the time to live plus one query.
+ */
+public class StatisticsService {
+    public static final long DEFAULT_TTL_SECONDS = 30;
+
+    private final SessionFactory sessionFactory;
+    private final ExecutorService executor;
+    private final RefreshingValue<PaymentStatistics> paymentStatistics;
+    private final RefreshingValue<GroupStatistics> groupStatistics;
+    private final RefreshingValue<UserStatistics> userStatistics;
+
+    public StatisticsService(SessionFactory sessionFactory, PaymentRepository paymentRepository,
+                             GroupRepository groupRepository, UserRepository userRepository) {
+        this(sessionFactory, paymentRepository, groupRepository, userRepository, DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public StatisticsService(SessionFactory sessionFactory, PaymentRepository paymentRepository,
+                             GroupRepository groupRepository, UserRepository userRepository,
+                             long ttl, TimeUnit unit) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        this.sessionFactory = sessionFactory;
+        // One thread: the three queries never compete with each other for connections
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statistics-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long ttlNanos = unit.toNanos(ttl);
+        this.paymentStatistics = new RefreshingValue<>("payment statistics",
+                () -> query(paymentRepository::getStatistics), ttlNanos, executor);
+        this.groupStatistics = new RefreshingValue<>("group statistics",
+                () -> query(groupRepository::getStatistics), ttlNanos, executor);
+        this.userStatistics = new RefreshingValue<>("user statistics",
+                () -> query(userRepository::getStatistics), ttlNanos, executor);
+    }
+
+    public PaymentStatistics getPaymentStatistics() {
+        return paymentStatistics.get();
+    }
+
+    public GroupStatistics getGroupStatistics() {
+        return groupStatistics.get();
+    }
+
+    public UserStatistics getUserStatistics() {
+        return userStatistics.get();
+    }
+
+    /**
+     * Loads all statistics in the background, so that the first request does not wait for the queries.
+     */
+    public void warmUp() {
+        paymentStatistics.refresh();
+        groupStatistics.refresh();
+        userStatistics.refresh();
+    }
+
+    /**
+     * Makes the next request of each statistic start a reload, e.g. after a bulk change.
+     */
+    public void invalidate() {
+        paymentStatistics.invalidate();
+        groupStatistics.invalidate();
+        userStatistics.invalidate();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T query(Function<Session, T> aggregate) {
+        try (Session session = sessionFactory.openSession()) {
+            return aggregate.apply(session);
+        }
+    }
+}
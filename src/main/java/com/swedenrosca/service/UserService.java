@@ -50,6 +50,12 @@ public class UserService {
         }
     }
 
+    public List<User> getUsersPageAfter(User last, int pageSize) {
+        try (Session session = sessionFactory.openSession()) {
+            return userRepository.getPageAfter(session, last != null ? last.getId() : null, pageSize);
+        }
+    }
+
     public User getUserByUsername(String username) {
         try (Session session = sessionFactory.openSession()) {
             return userRepository.getByUsername(session, username);
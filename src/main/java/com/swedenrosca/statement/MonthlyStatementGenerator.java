@@ -0,0 +1,271 @@
+package com.swedenrosca.statement;
+
+import com.swedenrosca.model.StatementEntry;
+import com.swedenrosca.model.StatementRecipient;
+import com.swedenrosca.repository.PaymentRepository;
+import com.swedenrosca.repository.UserRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes every member's statement of what they paid and received in a month, as
+ * {@code <root>/<yyyy-MM>/<userId / 1000>/statement-<userId>.<ext>}. Members without any payment or payout
+ * that month get no statement. The calling thread pages through the users by id and hands each page to a
+ * worker pool; a worker loads the whole page's payments and payouts with one query and renders and writes
+ * the statements. The hand-off queue is bounded and a full queue makes the caller do the page itself, so
+ * the users read ahead stay within a few pages. A failing member or page is counted and logged, and the run
+ * carries on.
+ */
+public class MonthlyStatementGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyStatementGenerator.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    // Each worker holds a pooled connection while it queries, so keep well below the pool size
+    public static final int DEFAULT_THREADS = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int MAX_REPORTED_FAILURES = 20;
+
+    private final SessionFactory sessionFactory;
+    private final UserRepository userRepository;
+    private final PaymentRepository paymentRepository;
+    private final Path root;
+    private final Set<StatementFormat> formats;
+    private final int chunkSize;
+    private final int threads;
+    private final StatementRenderer renderer = new StatementRenderer();
+    private final StatementFileWriter fileWriter = new StatementFileWriter();
+
+    public MonthlyStatementGenerator(SessionFactory sessionFactory, UserRepository userRepository,
+                                     PaymentRepository paymentRepository, Path root) {
+        this(sessionFactory, userRepository, paymentRepository, root, EnumSet.allOf(StatementFormat.class),
+                DEFAULT_CHUNK_SIZE, DEFAULT_THREADS);
+    }
+
+    public MonthlyStatementGenerator(SessionFactory sessionFactory, UserRepository userRepository,
+                                     PaymentRepository paymentRepository, Path root, Set<StatementFormat> formats,
+                                     int chunkSize, int threads) {
+        if (formats.isEmpty() || chunkSize <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Formats are required; chunk size and threads must be positive");
+        }
+        this.sessionFactory = sessionFactory;
+        this.userRepository = userRepository;
+        this.paymentRepository = paymentRepository;
+        this.root = root;
+        this.formats = EnumSet.copyOf(formats);
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    public Report generate(YearMonth month) {
+        long totalUsers;
+        try (Session session = sessionFactory.openSession()) {
+            totalUsers = userRepository.count(session);
+        }
+        Report report = new Report(month, root.resolve(month.toString()), totalUsers);
+        logger.info("Generating {} statements for {} users into {} with {} threads",
+                month, totalUsers, report.directory, threads);
+
+        ThreadPoolExecutor workers = newWorkerPool();
+        try (Session session = sessionFactory.openSession()) {
+            Long afterId = null;
+            while (true) {
+                List<StatementRecipient> page = userRepository.getStatementRecipientsAfter(session, afterId, chunkSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getUserId();
+                workers.execute(() -> generateChunk(page, month, report));
+            }
+        } finally {
+            workers.shutdown();
+            awaitTermination(workers, report);
+        }
+        report.finish();
+        if (report.getFailedUsers() > 0) {
+            logger.warn("Statements for {} finished with failures: {}; first failed users {}",
+                    month, report, report.getFailedUserIds());
+        } else {
+            logger.info("Statements for {} finished: {}", month, report);
+        }
+        return report;
+    }
+
+    private void generateChunk(List<StatementRecipient> recipients, YearMonth month, Report report) {
+        List<Long> userIds = new ArrayList<>(recipients.size());
+        for (StatementRecipient recipient : recipients) {
+            userIds.add(recipient.getUserId());
+        }
+        Map<Long, List<StatementEntry>> entriesByUser = new HashMap<>();
+        try (Session session = sessionFactory.openSession()) {
+            for (StatementEntry entry : paymentRepository.getStatementEntries(session, userIds,
+                    month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay())) {
+                entriesByUser.computeIfAbsent(entry.getUserId(), id -> new ArrayList<>()).add(entry);
+            }
+        } catch (RuntimeException e) {
+            report.chunkFailed(userIds);
+            logger.error("Could not load statements of users {} to {}", userIds.get(0), userIds.get(userIds.size() - 1), e);
+            return;
+        }
+
+        for (StatementRecipient recipient : recipients) {
+            List<StatementEntry> entries = entriesByUser.get(recipient.getUserId());
+            if (entries == null) {
+                report.users.incrementAndGet();
+                continue;
+            }
+            try {
+                Path directory = report.directory.resolve(String.format("%04d", recipient.getUserId() / 1000));
+                for (StatementFormat format : formats) {
+                    String content = renderer.render(format, recipient, month, entries);
+                    report.bytes.addAndGet(fileWriter.write(
+                            directory.resolve("statement-" + recipient.getUserId() + "." + format.getExtension()), content));
+                    report.files.incrementAndGet();
+                }
+                report.statements.incrementAndGet();
+            } catch (Exception e) {
+                report.userFailed(recipient.getUserId());
+                logger.error("Could not write the {} statement of user {}", month, recipient.getUserId(), e);
+            }
+            report.users.incrementAndGet();
+        }
+        report.logProgress();
+    }
+
+    private ThreadPoolExecutor newWorkerPool() {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "statements-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor executor, Report report) {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.info("Statements still being written: {}", report);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing statements", e);
+        }
+    }
+
+    /**
+     * Counters of a run, updated by the workers while it is running, so it also serves as progress.
+     */
+    public static class Report {
+        private final YearMonth month;
+        private final Path directory;
+        private final long totalUsers;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong lastProgressNanos = new AtomicLong(startNanos);
+        private final AtomicLong users = new AtomicLong();
+        private final AtomicLong statements = new AtomicLong();
+        private final AtomicLong files = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong failedUsers = new AtomicLong();
+        private final AtomicLong failedChunks = new AtomicLong();
+        private final List<Long> failedUserIds = Collections.synchronizedList(new ArrayList<>());
+        private volatile long durationMillis = -1;
+
+        Report(YearMonth month, Path directory, long totalUsers) {
+            this.month = month;
+            this.directory = directory;
+            this.totalUsers = totalUsers;
+        }
+
+        public YearMonth getMonth() { return month; }
+        public Path getDirectory() { return directory; }
+        public long getTotalUsers() { return totalUsers; }
+        public long getUsers() { return users.get(); }
+        public long getStatements() { return statements.get(); }
+        public long getFiles() { return files.get(); }
+        public long getBytes() { return bytes.get(); }
+        public long getFailedUsers() { return failedUsers.get(); }
+        public long getFailedChunks() { return failedChunks.get(); }
+
+        public List<Long> getFailedUserIds() {
+            synchronized (failedUserIds) {
+                return new ArrayList<>(failedUserIds);
+            }
+        }
+
+        public long getDurationMillis() {
+            return durationMillis >= 0 ? durationMillis : elapsedMillis();
+        }
+
+        /**
+         * Share of the users handled so far, between 0 and 1.
+         */
+        public double getProgress() {
+            return totalUsers == 0 ? 1 : Math.min(1, (double) users.get() / totalUsers);
+        }
+
+        public double getUsersPerSecond() {
+            long millis = getDurationMillis();
+            return millis == 0 ? 0 : users.get() * 1000.0 / millis;
+        }
+
+        void userFailed(Long userId) {
+            failedUsers.incrementAndGet();
+            if (failedUserIds.size() < MAX_REPORTED_FAILURES) {
+                failedUserIds.add(userId);
+            }
+        }
+
+        void chunkFailed(List<Long> userIds) {
+            failedChunks.incrementAndGet();
+            for (Long userId : userIds) {
+                userFailed(userId);
+            }
+            users.addAndGet(userIds.size());
+        }
+
+        void logProgress() {
+            long now = System.nanoTime();
+            long last = lastProgressNanos.get();
+            if (now - last >= PROGRESS_INTERVAL_NANOS && lastProgressNanos.compareAndSet(last, now)) {
+                logger.info("Statements for {}: {}", month, this);
+            }
+        }
+
+        void finish() {
+            durationMillis = elapsedMillis();
+        }
+
+        private long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d users (%.1f%%), %d statements, %d files, %.1f MB, %d failed users " +
+                            "(%d failed chunks), %.0f users/s, %d ms",
+                    users.get(), totalUsers, getProgress() * 100, statements.get(), files.get(),
+                    bytes.get() / (1024.0 * 1024.0), failedUsers.get(), failedChunks.get(), getUsersPerSecond(),
+                    getDurationMillis());
+        }
+    }
+}
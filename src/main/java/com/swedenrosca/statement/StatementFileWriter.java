@@ -0,0 +1,67 @@
+package com.swedenrosca.statement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes statement files through file channels. Each thread encodes into its own reusable direct buffer,
+ * so writing a file allocates no byte arrays, and directories are created once per run.
+ */
+public class StatementFileWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+    private final ThreadLocal<CharsetEncoder> encoders = ThreadLocal.withInitial(StandardCharsets.UTF_8::newEncoder);
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Replaces the file with the content, UTF-8 encoded, and returns the number of bytes written.
+     */
+    public long write(Path file, CharSequence content) throws IOException {
+        Path directory = file.getParent();
+        if (directory != null && !directories.contains(directory)) {
+            Files.createDirectories(directory);
+            directories.add(directory);
+        }
+        ByteBuffer buffer = buffers.get();
+        CharsetEncoder encoder = encoders.get().reset();
+        CharBuffer chars = CharBuffer.wrap(content);
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            boolean flushing = false;
+            boolean done = false;
+            while (!done) {
+                buffer.clear();
+                // Encode until all input is consumed, then flush the encoder; either may need several buffers
+                CoderResult result = flushing ? encoder.flush(buffer) : encoder.encode(chars, buffer, true);
+                if (!flushing && result.isUnderflow()) {
+                    flushing = true;
+                    result = encoder.flush(buffer);
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+                done = flushing && result.isUnderflow();
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+            }
+        } catch (CharacterCodingException e) {
+            throw new IOException("Could not encode " + file, e);
+        }
+        return written;
+    }
+}
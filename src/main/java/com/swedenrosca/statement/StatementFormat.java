@@ -0,0 +1,16 @@
+package com.swedenrosca.statement;
+
+public enum StatementFormat {
+    TEXT("txt"),
+    HTML("html");
+
+    private final String extension;
+
+    StatementFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
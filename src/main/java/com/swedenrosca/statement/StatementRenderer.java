@@ -0,0 +1,122 @@
+package com.swedenrosca.statement;
+
+import com.swedenrosca.model.StatementEntry;
+import com.swedenrosca.model.StatementRecipient;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders one member's monthly statement. Stateless, so one instance is shared by all workers.
+ */
+public class StatementRenderer {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+
+    public String render(StatementFormat format, StatementRecipient recipient, YearMonth month,
+                         List<StatementEntry> entries) {
+        return switch (format) {
+            case TEXT -> renderText(recipient, month, entries);
+            case HTML -> renderHtml(recipient, month, entries);
+        };
+    }
+
+    private String renderText(StatementRecipient recipient, YearMonth month, List<StatementEntry> entries) {
+        String newline = System.lineSeparator();
+        StringBuilder text = new StringBuilder(256 + entries.size() * 80)
+                .append("Statement for ").append(MONTH_FORMAT.format(month)).append(newline)
+                .append(recipient.getFirstName()).append(' ').append(recipient.getLastName())
+                .append(" (member ").append(recipient.getUserId()).append(")").append(newline)
+                .append(newline)
+                .append(String.format("%-10s  %-8s  %-30s  %6s  %12s  %8s", "Date", "Type", "Group", "Round", "Amount", "Fee"))
+                .append(newline);
+        for (StatementEntry entry : entries) {
+            text.append(String.format("%-10s  %-8s  %-30s  %6s  %12s  %8s",
+                    DATE_FORMAT.format(entry.getDate()), entry.isPayout() ? "Payout" : "Payment",
+                    truncate(entry.getGroupName(), 30), entry.getRoundNumber() != null ? entry.getRoundNumber() : "",
+                    (entry.isPayout() ? "+" : "-") + entry.getAmount(), entry.getFee() != null ? entry.getFee() : ""))
+                    .append(newline);
+        }
+        Totals totals = Totals.of(entries);
+        text.append(newline)
+                .append("Paid:     ").append(totals.paid).append(" SEK").append(newline)
+                .append("Fees:     ").append(totals.fees).append(" SEK").append(newline)
+                .append("Received: ").append(totals.received).append(" SEK").append(newline)
+                .append("Net:      ").append(totals.received.subtract(totals.paid)).append(" SEK").append(newline);
+        return text.toString();
+    }
+
+    private String renderHtml(StatementRecipient recipient, YearMonth month, List<StatementEntry> entries) {
+        String title = "Statement for " + MONTH_FORMAT.format(month);
+        StringBuilder html = new StringBuilder(512 + entries.size() * 160)
+                .append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"UTF-8\">\n<title>")
+                .append(title).append("</title>\n</head>\n<body>\n<h1>").append(title).append("</h1>\n<p>")
+                .append(escape(recipient.getFirstName())).append(' ').append(escape(recipient.getLastName()))
+                .append(" (member ").append(recipient.getUserId()).append(")</p>\n")
+                .append("<table>\n<tr><th>Date</th><th>Type</th><th>Group</th><th>Round</th><th>Amount</th><th>Fee</th></tr>\n");
+        for (StatementEntry entry : entries) {
+            html.append("<tr><td>").append(DATE_FORMAT.format(entry.getDate()))
+                    .append("</td><td>").append(entry.isPayout() ? "Payout" : "Payment")
+                    .append("</td><td>").append(escape(entry.getGroupName()))
+                    .append("</td><td>").append(entry.getRoundNumber() != null ? entry.getRoundNumber() : "")
+                    .append("</td><td>").append(entry.isPayout() ? "+" : "-").append(entry.getAmount())
+                    .append("</td><td>").append(entry.getFee() != null ? entry.getFee() : "")
+                    .append("</td></tr>\n");
+        }
+        Totals totals = Totals.of(entries);
+        html.append("</table>\n<dl>\n")
+                .append("<dt>Paid</dt><dd>").append(totals.paid).append(" SEK</dd>\n")
+                .append("<dt>Fees</dt><dd>").append(totals.fees).append(" SEK</dd>\n")
+                .append("<dt>Received</dt><dd>").append(totals.received).append(" SEK</dd>\n")
+                .append("<dt>Net</dt><dd>").append(totals.received.subtract(totals.paid)).append(" SEK</dd>\n")
+                .append("</dl>\n</body>\n</html>\n");
+        return html.toString();
+    }
+
+    private static String truncate(String value, int length) {
+        return value == null ? "" : value.length() <= length ? value : value.substring(0, length - 1) + "\u2026";
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '&' -> escaped.append("&amp;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&#39;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static final class Totals {
+        private BigDecimal paid = BigDecimal.ZERO;
+        private BigDecimal fees = BigDecimal.ZERO;
+        private BigDecimal received = BigDecimal.ZERO;
+
+        static Totals of(List<StatementEntry> entries) {
+            Totals totals = new Totals();
+            for (StatementEntry entry : entries) {
+                if (entry.isPayout()) {
+                    totals.received = totals.received.add(entry.getAmount());
+                } else {
+                    totals.paid = totals.paid.add(entry.getAmount());
+                    if (entry.getFee() != null) {
+                        totals.fees = totals.fees.add(entry.getFee());
+                    }
+                }
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.swedenrosca.ui;
+
+import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Fills a TableView page by page as the user scrolls to the bottom.
+ * The page function receives the last loaded row (null for the first page) and the page size,
+ * and is expected to run a keyset query for the rows after it. Pages are fetched off the JavaFX thread,
+ * one at a time for all tables; a failed page is logged and reported to the error handler on the JavaFX thread.
+ */
+public class LazyTableLoader<T> {
+    private static final Logger logger = LoggerFactory.getLogger(LazyTableLoader.class);
+
+    private static final ExecutorService PAGE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "table-page-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final TableView<T> table;
+    private final BiFunction<T, Integer, List<T>> pageLoader;
+    private final int pageSize;
+    private final Consumer<RuntimeException> errorHandler;
+    private boolean loading;
+    private boolean exhausted;
+    private int generation;
+
+    public LazyTableLoader(TableView<T> table, int pageSize, BiFunction<T, Integer, List<T>> pageLoader,
+                           Consumer<RuntimeException> errorHandler) {
+        this.table = table;
+        this.pageSize = pageSize;
+        this.pageLoader = pageLoader;
+        this.errorHandler = errorHandler;
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(this::attachScrollListener));
+    }
+
+    /**
+     * Clears the table and loads the first page.
+     */
+    public void reload() {
+        generation++;
+        table.getItems().clear();
+        loading = false;
+        exhausted = false;
+        loadNextPage();
+    }
+
+    public void clear() {
+        generation++;
+        table.getItems().clear();
+        loading = false;
+        exhausted = true;
+    }
+
+    private void attachScrollListener() {
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= scrollBar.getMax()) {
+                        loadNextPage();
+                    }
+                });
+            }
+        }
+    }
+
+    private void loadNextPage() {
+        if (loading || exhausted) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+        List<T> items = table.getItems();
+        T last = items.isEmpty() ? null : items.get(items.size() - 1);
+        PAGE_EXECUTOR.execute(() -> {
+            try {
+                List<T> page = pageLoader.apply(last, pageSize);
+                Platform.runLater(() -> {
+                    if (requestGeneration != generation) {
+                        return;
+                    }
+                    table.getItems().addAll(page);
+                    exhausted = page.size() < pageSize;
+                    loading = false;
+                });
+            } catch (RuntimeException e) {
+                logger.error("Could not load a page of {} rows", pageSize, e);
+                Platform.runLater(() -> {
+                    if (requestGeneration == generation) {
+                        loading = false;
+                        errorHandler.accept(e);
+                    }
+                });
+            }
+        });
+    }
+}
@@ -1,19 +1,40 @@
 package com.swedenrosca.ui;
 
+import com.swedenrosca.activity.ActivityLog;
 import com.swedenrosca.controller.*;
+import com.swedenrosca.event.DomainEvent;
+import com.swedenrosca.event.DomainEventBus;
+import com.swedenrosca.event.EventLogListener;
+import com.swedenrosca.export.PaymentExportFormat;
+import com.swedenrosca.export.PaymentExporter;
 import com.swedenrosca.model.*;
+import com.swedenrosca.outbox.FileOutboxSink;
+import com.swedenrosca.outbox.OutboxDispatcher;
+import com.swedenrosca.outbox.SmtpOutboxSink;
+import com.swedenrosca.reconciliation.CsvStatementReader;
+import com.swedenrosca.reconciliation.Iso20022StatementReader;
+import com.swedenrosca.reconciliation.StatementReader;
+import com.swedenrosca.reminder.OutboxReminderSink;
+import com.swedenrosca.reminder.PaymentReminderJob;
 import com.swedenrosca.repository.*;
 import com.swedenrosca.seed.DemoDataGenerator;
+import com.swedenrosca.statement.MonthlyStatementGenerator;
+import com.swedenrosca.util.ReferenceDataCache;
+import com.swedenrosca.util.SingletonSessionFactory;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.hibernate.SessionFactory;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.util.StringConverter;
@@ -23,7 +44,10 @@ import javafx.geometry.Pos;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.nio.file.Path;
 import java.math.BigDecimal;
 import javafx.util.Pair;
 import java.util.ArrayList;
@@ -38,7 +62,9 @@ import com.swedenrosca.controller.ParticipantController;
 import com.swedenrosca.controller.PaymentPlanController;
 
 public class SavingsApplication extends Application {
-    private final org.hibernate.SessionFactory sessionFactory = SingletonSessionFactory.getSessionFactory();
+    private static final int TABLE_PAGE_SIZE = 100;
+
+    private SessionFactory sessionFactory;
     private User currentUser;
     private Stage primaryStage;
     private TableView<Payment> paymentsToMakeTable;
@@ -46,35 +72,46 @@ public class SavingsApplication extends Application {
     private Label toReceiveLabel;  // Add this line
 
     // Controllers
-    private final MonthlyPaymentController monthlyPaymentController;
-    private final PaymentController paymentController;
-    private final RoundController roundController;
-    private final GroupController groupController;
-    private final UserController userController;
-    private final ParticipantController participantController;
-    private final AdminMonthPaymentController adminMonthPaymentController;
-    private final PaymentPlanController paymentPlanController;
+    private MonthlyPaymentController monthlyPaymentController;
+    private PaymentController paymentController;
+    private RoundController roundController;
+    private GroupController groupController;
+    private UserController userController;
+    private ParticipantController participantController;
+    private AdminMonthPaymentController adminMonthPaymentController;
+    private PaymentPlanController paymentPlanController;
 
     // Services
-    private final UserService userService;
-    private final GroupService groupService;
-    private final ParticipantService participantService;
-    private final PaymentService paymentService;
-    private final RoundService roundService;
-    private final PaymentOptionService paymentOptionService;
-    private final MonthlyPaymentService monthlyPaymentService;
-    private final MonthOptionService monthOptionService;
-    private final PaymentPlanService paymentPlanService;
+    private UserService userService;
+    private GroupService groupService;
+    private ParticipantService participantService;
+    private PaymentService paymentService;
+    private RoundService roundService;
+    private PaymentOptionService paymentOptionService;
+    private MonthlyPaymentService monthlyPaymentService;
+    private MonthOptionService monthOptionService;
+    private PaymentPlanService paymentPlanService;
+    private OverduePaymentSweeper overduePaymentSweeper;
+    private PaymentSettlementService paymentSettlementService;
+    private GroupFinancialsService groupFinancialsService;
+    private OutboxDispatcher outboxDispatcher;
+    private PaymentReminderJob paymentReminderJob;
+    private BankReconciliationService bankReconciliationService;
+    private PaymentExporter paymentExporter;
+    private MonthlyStatementGenerator monthlyStatementGenerator;
 
     // DemoDataGenerator
-    private final DemoDataGenerator demoDataGenerator;
+    private DemoDataGenerator demoDataGenerator;
+
+    // Enabled once the SessionFactory, services and demo data are ready
+    private final BooleanProperty servicesReady = new SimpleBooleanProperty(false);
 
     // Replace SimpleIntegerProperty with IntegerProperty
     private IntegerProperty selectedGroupId = new SimpleIntegerProperty();
 
-    public SavingsApplication() {
-        SessionFactory sessionFactory = SingletonSessionFactory.getSessionFactory();
-        
+    private void initializeServices() {
+        this.sessionFactory = SingletonSessionFactory.getSessionFactory();
+
         // Initialize repositories
         UserRepository userRepository = new UserRepository();
         GroupRepository groupRepository = new GroupRepository();
@@ -85,10 +122,13 @@ public class SavingsApplication extends Application {
         MonthOptionRepository monthOptionRepository = new MonthOptionRepository();
         PaymentOptionRepository paymentOptionRepository = new PaymentOptionRepository();
         MonthlyPaymentRepository monthlyPaymentRepository = new MonthlyPaymentRepository();
+        GroupFinancialsRepository groupFinancialsRepository = new GroupFinancialsRepository();
+        OutboxRepository outboxRepository = new OutboxRepository();
+        BankTransactionRepository bankTransactionRepository = new BankTransactionRepository();
 
         // Initialize services
         this.userService = new UserService(sessionFactory, userRepository);
-        this.groupService = new GroupService(sessionFactory, groupRepository, participantRepository, paymentPlanRepository, roundRepository, paymentRepository, userRepository);
+        this.groupService = new GroupService(sessionFactory, groupRepository, participantRepository, paymentPlanRepository, roundRepository, paymentRepository, userRepository, groupFinancialsRepository);
         this.participantService = new ParticipantService(participantRepository);
         this.paymentService = new PaymentService(paymentRepository, groupRepository, participantRepository);
         this.roundService = new RoundService(roundRepository, groupRepository, participantRepository, userRepository);
@@ -96,6 +136,27 @@ public class SavingsApplication extends Application {
         this.monthlyPaymentService = new MonthlyPaymentService(monthlyPaymentRepository);
         this.monthOptionService = new MonthOptionService(sessionFactory, monthOptionRepository);
         this.paymentPlanService = new PaymentPlanService(sessionFactory, paymentPlanRepository);
+        this.overduePaymentSweeper = new OverduePaymentSweeper(sessionFactory, paymentRepository, groupFinancialsRepository);
+        this.paymentSettlementService = new PaymentSettlementService(sessionFactory, paymentRepository, roundRepository, userRepository, participantRepository, groupFinancialsRepository, outboxRepository);
+        this.groupFinancialsService = new GroupFinancialsService(sessionFactory, groupFinancialsRepository);
+        this.paymentReminderJob = new PaymentReminderJob(sessionFactory, paymentRepository, new OutboxReminderSink(sessionFactory, outboxRepository));
+        this.paymentExporter = new PaymentExporter(sessionFactory, paymentRepository);
+        this.monthlyStatementGenerator = new MonthlyStatementGenerator(sessionFactory, userRepository, paymentRepository, Path.of("statements"));
+        this.bankReconciliationService = new BankReconciliationService(sessionFactory, paymentRepository, roundRepository, groupFinancialsRepository, outboxRepository, bankTransactionRepository, paymentSettlementService);
+
+        // Services publish after commit; listeners run on the event bus threads
+        DomainEventBus.getInstance().subscribe(DomainEvent.class, "event-log", new EventLogListener());
+        ActivityLog.getInstance().start(Path.of("activity"));
+
+        // Outbox messages go to files; receipts and reminders are mailed instead when a local SMTP server is configured
+        this.outboxDispatcher = new OutboxDispatcher(sessionFactory, outboxRepository, new FileOutboxSink(Path.of("outbox")));
+        String smtpHost = System.getProperty("outbox.smtp.host");
+        if (smtpHost != null) {
+            SmtpOutboxSink smtpSink = new SmtpOutboxSink(smtpHost, Integer.getInteger("outbox.smtp.port", 25), "no-reply@swedenrosca.local");
+            outboxDispatcher.route(OutboxMessage.PAYMENT_RECEIPT, smtpSink);
+            outboxDispatcher.route(OutboxMessage.PAYMENT_REMINDER, smtpSink);
+        }
+        outboxDispatcher.start();
 
         // Initialize controllers with services
         this.monthlyPaymentController = new MonthlyPaymentController(monthlyPaymentService);
@@ -120,14 +181,48 @@ public class SavingsApplication extends Application {
         );
     }
 
+    @Override
+    public void init() {
+        // Build the SessionFactory while the JavaFX toolkit and login screen come up
+        SingletonSessionFactory.startAsync();
+    }
+
     @Override
     public void start(Stage primaryStage) {
         System.out.println("SavingsApplication start method reached.");
         this.primaryStage = primaryStage;
+
+        Thread startupThread = new Thread(() -> {
+            initializeServices();
+            loadDemoData();
+            Platform.runLater(() -> servicesReady.set(true));
+        }, "savings-startup");
+        startupThread.setDaemon(true);
+        startupThread.start();
+
+        applyGlobalStyle();
+
+        // Show the login screen right away; login is enabled once startup completes
+        showLoginScreen();
+    }
+
+    @Override
+    public void stop() {
+        // Let listeners finish what they are doing while the database is still there
+        DomainEventBus.getInstance().shutdown(5, TimeUnit.SECONDS);
+        ActivityLog.getInstance().stop(5, TimeUnit.SECONDS);
+        if (outboxDispatcher != null) {
+            outboxDispatcher.stop();
+        }
+        SingletonSessionFactory.shutdown();
+    }
+
+    private void loadDemoData() {
         try {
             // Clear all existing data using services
             System.out.println("\n=== Clearing existing data ===");
             paymentService.deleteAll();
+            groupFinancialsService.deleteAll();
             roundService.deleteAll();
             participantService.deleteAll();
             groupService.deleteAll();
@@ -153,7 +248,9 @@ public class SavingsApplication extends Application {
             System.err.println("Error during startup: " + e.getMessage());
             e.printStackTrace();
         }
+    }
 
+    private void applyGlobalStyle() {
         // Add global CSS styling
         String css = """
             .root {
@@ -331,9 +428,6 @@ public class SavingsApplication extends Application {
             
         Scene scene = new Scene(new VBox(), 800, 600);
         scene.getStylesheets().add("data:text/css;base64," + java.util.Base64.getEncoder().encodeToString(css.getBytes()));
-        
-        // First, show the login screen
-        showLoginScreen();
     }
 
     private void showLoginScreen() {
@@ -369,12 +463,19 @@ public class SavingsApplication extends Application {
 
         loginButton.setOnAction(e -> handleLogin(usernameField.getText(), passwordField.getText()));
         registerButton.setOnAction(e -> showRegistrationScreen(null)); // You may want to update registration as well
+        loginButton.disableProperty().bind(servicesReady.not());
+        registerButton.disableProperty().bind(servicesReady.not());
+
+        Label startupLabel = new Label("Starting up, please wait...");
+        startupLabel.visibleProperty().bind(servicesReady.not());
+        startupLabel.managedProperty().bind(startupLabel.visibleProperty());
 
         formBox.getChildren().addAll(
             new Label("Login to Your Account"),
             usernameField,
             passwordField,
-            buttonBox
+            buttonBox,
+            startupLabel
         );
 
         root.getChildren().addAll(
@@ -588,6 +689,12 @@ public class SavingsApplication extends Application {
         Button viewPaymentsBtn = new Button("View All Payments");
         Button refreshPaymentBtn = new Button("Refresh");
         Button clearTableBtn = new Button("Clear Table");
+        Button sweepOverdueBtn = new Button("Mark Overdue Payments");
+        Button rebuildFinancialsBtn = new Button("Rebuild Financials");
+        Button sendRemindersBtn = new Button("Send Payment Reminders");
+        Button importStatementBtn = new Button("Import Bank Statement");
+        Button exportPaymentsBtn = new Button("Export Payments");
+        Button generateStatementsBtn = new Button("Generate Monthly Statements");
         
         actionButtonsBox.getChildren().addAll(
             showAllGroupsBtn,
@@ -595,6 +702,12 @@ public class SavingsApplication extends Application {
             showPendingGroupsBtn,
             activateAllPendingBtn,
             viewPaymentsBtn,
+            sweepOverdueBtn,
+            rebuildFinancialsBtn,
+            sendRemindersBtn,
+            importStatementBtn,
+            exportPaymentsBtn,
+            generateStatementsBtn,
             refreshPaymentBtn,
             clearTableBtn
         );
@@ -613,42 +726,39 @@ public class SavingsApplication extends Application {
             searchField
         );
 
-        // Create main table
-        TableView<Group> mainTable = new TableView<>();
+        // Create main table, bound to summaries loaded with one aggregate query
+        TableView<GroupSummary> mainTable = new TableView<>();
         mainTable.setPrefHeight(400); // Increased from default to 400
         
         // Basic columns
-        TableColumn<Group, String> groupNameCol = new TableColumn<>("Group Name");
-        TableColumn<Group, String> statusCol = new TableColumn<>("Status");
-        TableColumn<Group, Integer> memberCountCol = new TableColumn<>("Members");
-        TableColumn<Group, String> contributionCol = new TableColumn<>("Monthly Contribution");
-        TableColumn<Group, String> paidAmountCol = new TableColumn<>("Paid Amount");
+        TableColumn<GroupSummary, String> groupNameCol = new TableColumn<>("Group Name");
+        TableColumn<GroupSummary, String> statusCol = new TableColumn<>("Status");
+        TableColumn<GroupSummary, Long> memberCountCol = new TableColumn<>("Members");
+        TableColumn<GroupSummary, String> contributionCol = new TableColumn<>("Monthly Contribution");
+        TableColumn<GroupSummary, String> paidAmountCol = new TableColumn<>("Paid Amount");
+        TableColumn<GroupSummary, String> outstandingAmountCol = new TableColumn<>("Outstanding");
+        TableColumn<GroupSummary, Long> lateCountCol = new TableColumn<>("Late");
         
         // Set up cell value factories
         groupNameCol.setCellValueFactory(cellData -> 
             new SimpleStringProperty(cellData.getValue().getGroupName()));
         statusCol.setCellValueFactory(cellData -> 
             new SimpleStringProperty(cellData.getValue().getStatus().toString()));
-        memberCountCol.setCellValueFactory(cellData -> {
-            Group group = cellData.getValue();
-            return new SimpleIntegerProperty(participantService.getByGroup(group).size()).asObject();
-        });
+        memberCountCol.setCellValueFactory(cellData -> 
+            new SimpleLongProperty(cellData.getValue().getMemberCount()).asObject());
         contributionCol.setCellValueFactory(cellData -> 
-            new SimpleStringProperty(cellData.getValue().getMonthlyContribution().toString() + " SEK"));
-        paidAmountCol.setCellValueFactory(cellData -> {
-            Group group = cellData.getValue();
-            // Get all payments for this group
-            List<Payment> payments = paymentService.getByGroup(group);
-            // Sum all PAID payments
-            java.math.BigDecimal paidSum = payments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.PAID)
-                .map(Payment::getAmount)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-            return new SimpleStringProperty(paidSum + " SEK");
-        });
+            new SimpleStringProperty(cellData.getValue().getMonthlyContribution() + " SEK"));
+        paidAmountCol.setCellValueFactory(cellData -> 
+            new SimpleStringProperty(cellData.getValue().getPaidAmount() + " SEK"));
         paidAmountCol.setPrefWidth(150);
+        outstandingAmountCol.setCellValueFactory(cellData -> 
+            new SimpleStringProperty(cellData.getValue().getOutstandingAmount() + " SEK"));
+        outstandingAmountCol.setPrefWidth(150);
+        lateCountCol.setCellValueFactory(cellData -> 
+            new SimpleLongProperty(cellData.getValue().getLateCount()).asObject());
 
-        mainTable.getColumns().addAll(groupNameCol, statusCol, memberCountCol, contributionCol, paidAmountCol);
+        mainTable.getColumns().addAll(groupNameCol, statusCol, memberCountCol, contributionCol, paidAmountCol,
+            outstandingAmountCol, lateCountCol);
 
         // Add action buttons for selected group
         HBox selectedGroupActions = new HBox(10);
@@ -656,30 +766,29 @@ public class SavingsApplication extends Application {
         Button viewDetailsBtn = new Button("View Details");
         selectedGroupActions.getChildren().addAll(activateSelectedBtn, viewDetailsBtn);
 
+        // Connection pool status
+        Label poolStatsLabel = new Label(SingletonSessionFactory.getPoolMetrics().snapshot().toString());
+        poolStatsLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #555555;");
+
         // Add all components to content
         content.getChildren().addAll(
             headerLabel,
             actionButtonsBox,
             filterBox,
             mainTable,
-            selectedGroupActions
+            selectedGroupActions,
+            poolStatsLabel
         );
 
         // Set up button handlers
         showAllGroupsBtn.setOnAction(e -> {
             mainTable.getItems().clear();
-            mainTable.getItems().addAll(groupService.getAllGroups());
+            mainTable.getItems().addAll(groupService.getGroupSummaries());
         });
 
-        showActiveGroupsBtn.setOnAction(e -> {
-            mainTable.getItems().clear();
-            mainTable.getItems().addAll(groupService.getAllActiveGroups());
-        });
+        showActiveGroupsBtn.setOnAction(e -> refreshMainTable(mainTable, "Active"));
 
-        showPendingGroupsBtn.setOnAction(e -> {
-            mainTable.getItems().clear();
-            mainTable.getItems().addAll(groupService.getAllPendingApprovalGroups());
-        });
+        showPendingGroupsBtn.setOnAction(e -> refreshMainTable(mainTable, "Pending"));
 
         activateAllPendingBtn.setOnAction(e -> {
             List<Group> pendingGroups = groupService.getAllPendingApprovalGroups();
@@ -691,27 +800,137 @@ public class SavingsApplication extends Application {
         });
 
         activateSelectedBtn.setOnAction(e -> {
-            Group selectedGroup = mainTable.getSelectionModel().getSelectedItem();
-            if (selectedGroup == null) {
+            GroupSummary selectedSummary = mainTable.getSelectionModel().getSelectedItem();
+            if (selectedSummary == null) {
                 showAlert("Error", "Please select a group first", Alert.AlertType.ERROR);
                 return;
             }
+            Group selectedGroup = groupService.getGroupById(selectedSummary.getGroupId());
             activateGroup(selectedGroup);
             refreshMainTable(mainTable, "All");
         });
 
         viewDetailsBtn.setOnAction(e -> {
-            Group selectedGroup = mainTable.getSelectionModel().getSelectedItem();
-            if (selectedGroup == null) {
+            GroupSummary selectedSummary = mainTable.getSelectionModel().getSelectedItem();
+            if (selectedSummary == null) {
                 showAlert("Error", "Please select a group first", Alert.AlertType.ERROR);
                 return;
             }
+            Group selectedGroup = groupService.getGroupById(selectedSummary.getGroupId());
             showGroupDetails(selectedGroup);
         });
 
         viewPaymentsBtn.setOnAction(e -> showAllPaymentsDialog());
 
-        refreshPaymentBtn.setOnAction(e -> refreshMainTable(mainTable, "All"));
+        refreshPaymentBtn.setOnAction(e -> {
+            refreshMainTable(mainTable, "All");
+            poolStatsLabel.setText(SingletonSessionFactory.getPoolMetrics().snapshot().toString());
+        });
+
+        sweepOverdueBtn.setOnAction(e -> {
+            try {
+                OverduePaymentSweeper.Report report = overduePaymentSweeper.sweep();
+                showAlert("Overdue Payments",
+                    "Marked late: " + report.getMarkedLate() + "\nMarked missed: " + report.getMarkedMissed() +
+                    "\nTook " + report.getDurationMillis() + " ms",
+                    Alert.AlertType.INFORMATION);
+                refreshMainTable(mainTable, "All");
+            } catch (Exception ex) {
+                showAlert("Error", "Error marking overdue payments: " + ex.getMessage(), Alert.AlertType.ERROR);
+            }
+        });
+
+        rebuildFinancialsBtn.setOnAction(e -> {
+            try {
+                GroupFinancialsService.Report report = groupFinancialsService.rebuild();
+                showAlert("Group Financials",
+                    "Groups: " + report.getGroups() + "\nDrifted: " + report.getDriftedGroupIds().size() +
+                    (report.getDriftedGroupIds().isEmpty() ? "" : " " + report.getDriftedGroupIds()) +
+                    "\nStale rows removed: " + report.getStaleRows() +
+                    "\nTook " + report.getDurationMillis() + " ms",
+                    report.hasDrift() ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION);
+                refreshMainTable(mainTable, "All");
+            } catch (Exception ex) {
+                showAlert("Error", "Error rebuilding group financials: " + ex.getMessage(), Alert.AlertType.ERROR);
+            }
+        });
+
+        sendRemindersBtn.setOnAction(e -> {
+            try {
+                PaymentReminderJob.Report report = paymentReminderJob.run();
+                showAlert("Payment Reminders",
+                    "Users reminded: " + report.getWritten() + "\nAlready reminded today: " + (report.getDigests() - report.getWritten()) +
+                    "\nWithout email: " + report.getSkippedUsers() + "\nPayments: " + report.getPayments() +
+                    "\nTook " + report.getDurationMillis() + " ms",
+                    Alert.AlertType.INFORMATION);
+            } catch (Exception ex) {
+                showAlert("Error", "Error sending payment reminders: " + ex.getMessage(), Alert.AlertType.ERROR);
+            }
+        });
+
+        importStatementBtn.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Import Bank Statement");
+            chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Bank statements (CSV, ISO 20022 XML)", "*.csv", "*.xml"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+            java.io.File file = chooser.showOpenDialog(primaryStage);
+            if (file == null) {
+                return;
+            }
+            StatementReader statement = file.getName().toLowerCase().endsWith(".xml")
+                ? new Iso20022StatementReader(file.toPath())
+                : new CsvStatementReader(file.toPath());
+            try {
+                BankReconciliationService.Report report = bankReconciliationService.reconcile(statement);
+                showAlert("Bank Statement",
+                    "Lines: " + report.getLines() + "\nMatched: " + report.getMatched() +
+                    "\nUnmatched: " + report.getUnmatched() + " (" + report.getAlreadyPaid() + " already paid)" +
+                    "\nAlready imported: " + report.getDuplicates() + "\nUnreadable: " + report.getInvalid() +
+                    "\nTook " + report.getDurationMillis() + " ms",
+                    report.getUnmatched() + report.getInvalid() > 0 ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION);
+                refreshMainTable(mainTable, "All");
+            } catch (Exception ex) {
+                showAlert("Error", "Error importing bank statement: " + ex.getMessage(), Alert.AlertType.ERROR);
+            }
+        });
+
+        exportPaymentsBtn.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Export Payments");
+            chooser.setInitialFileName("payments.csv");
+            chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*." + PaymentExportFormat.CSV.getExtension()),
+                new FileChooser.ExtensionFilter("Compact columnar", "*." + PaymentExportFormat.COLUMNAR.getExtension()));
+            java.io.File file = chooser.showSaveDialog(primaryStage);
+            if (file == null) {
+                return;
+            }
+            try {
+                PaymentExportFormat format = PaymentExportFormat.forFile(file.toPath());
+                PaymentExporter.Report report = paymentExporter.export(file.toPath(), format);
+                showAlert("Payments Export",
+                    "Exported " + report.getRows() + " payments to " + report.getFile().getFileName() +
+                    "\nSize: " + report.getBytes() / 1024 + " KB\nTook " + report.getDurationMillis() + " ms",
+                    Alert.AlertType.INFORMATION);
+            } catch (Exception ex) {
+                showAlert("Error", "Error exporting payments: " + ex.getMessage(), Alert.AlertType.ERROR);
+            }
+        });
+
+        generateStatementsBtn.setOnAction(e -> {
+            try {
+                YearMonth month = YearMonth.now().minusMonths(1);
+                MonthlyStatementGenerator.Report report = monthlyStatementGenerator.generate(month);
+                showAlert("Monthly Statements",
+                    "Statements for " + month + ": " + report.getStatements() + " of " + report.getTotalUsers() + " users" +
+                    "\nWritten to " + report.getDirectory().toAbsolutePath() +
+                    "\nFailed users: " + report.getFailedUsers() + "\nTook " + report.getDurationMillis() + " ms",
+                    report.getFailedUsers() > 0 ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION);
+            } catch (Exception ex) {
+                showAlert("Error", "Error generating statements: " + ex.getMessage(), Alert.AlertType.ERROR);
+            }
+        });
 
         // Add clear table button handler
         clearTableBtn.setOnAction(e -> {
@@ -784,72 +1003,21 @@ public class SavingsApplication extends Application {
 
     private void activateGroup(Group group) {
         try {
-            int maxMembers = group.getMaxMembers();
-            LocalDateTime groupStart = group.getStartDate() != null ? group.getStartDate() : LocalDateTime.now();
-            LocalDateTime groupEnd = groupStart.plusMonths(maxMembers);
-
-            // Create a round for each turn/order
-            List<Round> rounds = new ArrayList<>();
-            for (int i = 1; i <= maxMembers; i++) {
-                Round round = new Round();
-                round.setGroup(group);
-                round.setRoundNumber(i);
-                round.setStatus(RoundStatus.PENDING_APPROVAL);
-                round.setStartDate(groupStart.plusMonths(i - 1));
-                round.setEndDate(groupStart.plusMonths(i));
-                round.setAmount(group.getMonthlyContribution());
-                roundService.createRound(round);
-                rounds.add(round);
-            }
-
-            // Update group status to ACTIVE
-            group.setStatus(GroupStatus.ACTIVE);
-            groupService.updateGroup(group);
-
-            // Get all participants sorted by turn order
-            List<Participant> participants = participantService.getByGroup( group);
-            participants.sort((p1, p2) -> Integer.compare(p1.getTurnOrder(), p2.getTurnOrder()));
-
-            // For each round, set the winner and create payments for all participants
-            for (Round round : rounds) {
-                int roundOrder = round.getRoundNumber();
-                // Set winner for this round (participant with matching turn order)
-                for (Participant participant : participants) {
-                    if (participant.getTurnOrder() == roundOrder) {
-                        round.setWinnerParticipant(participant);
-                        round.setStatus(RoundStatus.ACTIVE);
-                        roundService.updateRound(round);
-                    }
-                }
-                // Create payments for all participants for this round
-                for (Participant participant : participants) {
-                    Payment payment = new Payment();
-                    payment.setGroup(group);
-                    payment.setCreator(participant.getUser());
-                    payment.setAmount(group.getMonthlyContribution());
-                    payment.setStatus(PaymentStatus.PENDING);
-                    payment.setPaymentBy(PaymentBy.USER_PAYMENT);
-                    payment.setCreatedAt(LocalDateTime.now());
-                    payment.setRound(round);
-                    payment.setDueDate(round.getStartDate().plusDays(5)); // Example: due 5 days after round start
-                    payment.setPaymentPlan(group.getPaymentPlan()); // Add payment plan
-                    paymentService.createPayment(payment);
-                }
-            }
-
+            // Rounds and payments are created in one batched transaction
+            groupService.activateGroupWithPayments(group);
             showAlert("Success", "Group " + group.getGroupName() + " activated successfully", Alert.AlertType.INFORMATION);
         } catch (Exception ex) {
             showAlert("Error", "Failed to activate group: " + ex.getMessage(), Alert.AlertType.ERROR);
         }
     }
 
-    private void refreshMainTable(TableView<Group> table, String status) {
-        List<Group> groups;
+    private void refreshMainTable(TableView<GroupSummary> table, String status) {
+        List<GroupSummary> groups;
         switch (status) {
-            case "Active" -> groups = groupService.getAllActiveGroups();
-            case "Pending" -> groups = groupService.getAllPendingApprovalGroups();
-            case "Waiting" -> groups = groupService.getAllWaitingForMembersGroups();
-            default -> groups = groupService.getAllActiveGroups();
+            case "Active" -> groups = groupService.getGroupSummaries(GroupStatus.ACTIVE);
+            case "Pending" -> groups = groupService.getGroupSummaries(GroupStatus.PENDING_APPROVAL);
+            case "Waiting" -> groups = groupService.getGroupSummaries(GroupStatus.WAITING_FOR_MEMBERS);
+            default -> groups = groupService.getGroupSummaries(GroupStatus.ACTIVE);
         }
         table.getItems().clear();
         table.getItems().addAll(groups);
@@ -900,16 +1068,13 @@ public class SavingsApplication extends Application {
 
         userTable.getColumns().addAll(usernameCol, roleCol, emailCol, nameCol);
 
+        // Users are loaded page by page as the table is scrolled
+        LazyTableLoader<User> usersLoader = new LazyTableLoader<>(userTable, TABLE_PAGE_SIZE,
+            userService::getUsersPageAfter,
+            ex -> showAlert("Error", "Error loading users: " + ex.getMessage(), Alert.AlertType.ERROR));
+
         // Add button handlers
-        viewAllUsersBtn.setOnAction(e -> {
-            try {
-                List<User> allUsers = userService.getAllUsers();
-                userTable.getItems().clear();
-                userTable.getItems().addAll(allUsers);
-            } catch (Exception ex) {
-                showAlert("Error", "Failed to load users: " + ex.getMessage(), Alert.AlertType.ERROR);
-            }
-        });
+        viewAllUsersBtn.setOnAction(e -> usersLoader.reload());
 
         manageUserRolesBtn.setOnAction(e -> {
             User selectedUser = userTable.getSelectionModel().getSelectedItem();
@@ -951,7 +1116,7 @@ public class SavingsApplication extends Application {
         });
 
         // Add clear button handler
-        clearUsersBtn.setOnAction(e -> userTable.getItems().clear());
+        clearUsersBtn.setOnAction(e -> usersLoader.clear());
 
         // Add all components to the content
         content.getChildren().addAll(
@@ -1196,10 +1361,7 @@ public class SavingsApplication extends Application {
                 Round round = p.getRound();
                 if (round != null && round.getWinnerParticipant() != null &&
                     round.getWinnerParticipant().getUser().getId().equals(currentUser.getId())) {
-                    List<Payment> roundPayments = paymentService.getByRound(round);
-                    boolean allPaid = roundPayments.stream()
-                        .allMatch(pay -> pay.getPaymentStatus() == PaymentStatus.PAID);
-                    if (!allPaid) {
+                    if (!round.isFullyPaid()) {
                         // It's still pending, so show the group total
                         totalToReceive = totalToReceive.add(p.getGroup().getTotalAmount());
                     }
@@ -1324,17 +1486,7 @@ public class SavingsApplication extends Application {
                 if (!matchingGroups.isEmpty()) {
                     // If there's an existing group, show only available turn orders
                     Group existingGroup = matchingGroups.get(0);
-                    List<Participant> existingParticipants = participantService.getByGroup(existingGroup);
-                    Set<Integer> takenTurnOrders = existingParticipants.stream()
-                        .map(Participant::getTurnOrder)
-                        .collect(Collectors.toSet());
-                    
-                    turnOrderComboBox.getItems().clear();
-                    for (int i = 1; i <= selectedMonth.getMonthsCount(); i++) {
-                        if (!takenTurnOrders.contains(i)) {
-                            turnOrderComboBox.getItems().add(i);
-                        }
-                    }
+                    turnOrderComboBox.getItems().setAll(groupService.getAvailableTurnOrders(existingGroup));
                     
                     if (turnOrderComboBox.getItems().isEmpty()) {
                         showAlert("Information", "This group is full. Please select different options.", Alert.AlertType.INFORMATION);
@@ -1391,33 +1543,21 @@ public class SavingsApplication extends Application {
                     } else {
                         selectedGroup = matchingGroups.get(0);
                         // Check if the selected turn order is available
-                        try (org.hibernate.Session session = sessionFactory.openSession()) {
-                            List<Participant> existingParticipants = participantService.getByGroup( selectedGroup);
-                            boolean turnOrderTaken = existingParticipants.stream()
-                                .anyMatch(p -> p.getTurnOrder() == selectedTurnOrder);
-                            if (turnOrderTaken) {
-                                showAlert("Error", "Selected turn order is already taken. Please choose another one.", Alert.AlertType.ERROR);
-                                return null;
-                            }
+                        if (!groupService.isTurnOrderAvailable(selectedGroup, selectedTurnOrder)) {
+                            showAlert("Error", "Selected turn order is already taken. Please choose another one.", Alert.AlertType.ERROR);
+                            return null;
                         }
                     }
 
                     // Join group
-                    groupService.joinGroup(currentUser, selectedGroup, selectedTurnOrder);
-
-                    // Check if this was the last member to join
-                    try (org.hibernate.Session session = sessionFactory.openSession()) {
-                        List<Participant> allParticipants = participantService.getByGroup( selectedGroup);
-                        if (allParticipants.size() == selectedGroup.getMaxMembers()) {
-                            selectedGroup.setStatus(GroupStatus.PENDING_APPROVAL);
-                            groupService.updateGroup(selectedGroup);
-                            showAlert("Success", "Successfully joined group: " + selectedGroup.getGroupName() +
-                                "\nYour turn order: " + selectedTurnOrder +
-                                "\nGroup is now complete and pending approval!", Alert.AlertType.INFORMATION);
-                        } else {
-                            showAlert("Success", "Successfully joined group: " + selectedGroup.getGroupName() +
-                                "\nYour turn order: " + selectedTurnOrder, Alert.AlertType.INFORMATION);
-                        }
+                    Group joinedGroup = groupService.joinGroup(currentUser, selectedGroup, selectedTurnOrder);
+                    if (joinedGroup.getStatus() == GroupStatus.PENDING_APPROVAL) {
+                        showAlert("Success", "Successfully joined group: " + joinedGroup.getGroupName() +
+                            "\nYour turn order: " + selectedTurnOrder +
+                            "\nGroup is now complete and pending approval!", Alert.AlertType.INFORMATION);
+                    } else {
+                        showAlert("Success", "Successfully joined group: " + joinedGroup.getGroupName() +
+                            "\nYour turn order: " + selectedTurnOrder, Alert.AlertType.INFORMATION);
                     }
 
                     // Refresh all tables in the user dashboard
@@ -1620,16 +1760,15 @@ public class SavingsApplication extends Application {
         TableView<Payment> paymentsTable = createPaymentsTable();
         paymentsTable.setPrefHeight(600);
 
-        // Load all payments
-        List<Payment> allPayments = paymentService.getAllPayments();
-        paymentsTable.getItems().addAll(allPayments);
+        // Load payments page by page as the table is scrolled
+        LazyTableLoader<Payment> paymentsLoader = new LazyTableLoader<>(paymentsTable, TABLE_PAGE_SIZE,
+            paymentService::getPaymentsPageAfter,
+            ex -> showAlert("Error", "Error loading payments: " + ex.getMessage(), Alert.AlertType.ERROR));
+        paymentsLoader.reload();
 
         // Add refresh button
         Button refreshPaymentBtn = new Button("Refresh");
-        refreshPaymentBtn.setOnAction(e -> {
-            paymentsTable.getItems().clear();
-            paymentsTable.getItems().addAll(paymentService.getAllPayments());
-        });
+        refreshPaymentBtn.setOnAction(e -> paymentsLoader.reload());
 
         content.getChildren().addAll(paymentsLabel, paymentsTable, refreshPaymentBtn);
         dialog.getDialogPane().setContent(content);
@@ -1732,49 +1871,18 @@ public class SavingsApplication extends Application {
         dialog.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
                 try {
-                    // Update payment status
+                    // Mark paid, debit the payer and pay out a completed round in one transaction
+                    PaymentSettlementService.Settlement settlement =
+                        paymentSettlementService.settle(payment.getId(), currentUser.getId());
                     payment.setPaymentStatus(PaymentStatus.PAID);
-                    payment.setPaidAt(LocalDateTime.now());
-                    paymentService.updatePayment(payment);
-
-                    // Deduct paid amount from current user's balance
-                    BigDecimal newBalance = currentUser.getCurrentBalance().subtract(payment.getAmount());
-                    currentUser.setCurrentBalance(newBalance);
-                    userService.updateUser(currentUser);
-
-                    // Update the round status if all payments for this round are paid
-                    Round round = payment.getRound();
-                    if (round != null) {
-                        List<Payment> roundPayments = paymentService.getByRound(round);
-                        boolean allPaid = roundPayments.stream()
-                            .allMatch(p -> p.getPaymentStatus() == PaymentStatus.PAID);
-                        
-                        if (allPaid) {
-                            round.setStatus(RoundStatus.COMPLETED);
-                            roundService.updateRound(round);
-
-                            // Give the group total to the winner
-                            Participant winner = round.getWinnerParticipant();
-                            if (winner != null) {
-                                User winnerUser = winner.getUser();
-                                BigDecimal groupTotal = round.getGroup().getTotalAmount();
-                                
-                                // Update winner's balance
-                                BigDecimal winnerNewBalance = winnerUser.getCurrentBalance().add(groupTotal);
-                                winnerUser.setCurrentBalance(winnerNewBalance);
-                                userService.updateUser(winnerUser);
-                                
-                                // If the winner is the current user, update their displayed balance
-                                if (winnerUser.getId().equals(currentUser.getId())) {
-                                    currentUser.setCurrentBalance(winnerNewBalance);
-                                    
-                                    // Show success message for receiving the payment
-                                    showAlert("Success", 
-                                        "You have received the group payment of " + groupTotal + " SEK!", 
-                                        Alert.AlertType.INFORMATION);
-                                }
-                            }
-                        }
+                    currentUser.setCurrentBalance(settlement.getPayerBalance());
+
+                    // If the winner is the current user, update their displayed balance
+                    if (settlement.isRoundCompleted() && currentUser.getId().equals(settlement.getWinnerUserId())) {
+                        currentUser.setCurrentBalance(settlement.getWinnerBalance());
+                        showAlert("Success",
+                            "You have received the group payment of " + settlement.getPayout() + " SEK!",
+                            Alert.AlertType.INFORMATION);
                     }
 
                     showAlert("Success", "Payment processed successfully", Alert.AlertType.INFORMATION);
@@ -1818,10 +1926,7 @@ public class SavingsApplication extends Application {
                         // where p.getRound() is not null, its winner participant is not null,
                         // and the winner is the currentUser.
                         // Therefore, the explicit 'round' variable and the 'if' condition are redundant.
-                        List<Payment> roundPayments = paymentService.getByRound(p.getRound());
-                        boolean allPaid = roundPayments.stream()
-                                .allMatch(pay -> pay.getPaymentStatus() == PaymentStatus.PAID);
-                            if (!allPaid) {
+                            if (!p.getRound().isFullyPaid()) {
                                 // It's still pending, so show the group total
                                 totalToReceive = totalToReceive.add(p.getGroup().getTotalAmount());
                             }
@@ -2100,12 +2205,22 @@ public class SavingsApplication extends Application {
         paymentTab.setContent(paymentContent);
 
         optionsTabPane.getTabs().addAll(monthTab, paymentTab);
-        content.getChildren().addAll(headerLabel, optionsTabPane);
+
+        // Second-level cache statistics for the option tables
+        Label cacheStatsLabel = new Label();
+        cacheStatsLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #555555;");
+        Button refreshCacheStatsBtn = new Button("Refresh Cache Stats");
+        refreshCacheStatsBtn.setOnAction(e -> cacheStatsLabel.setText(ReferenceDataCache.statisticsSummary(sessionFactory)));
+        HBox cacheStatsBox = new HBox(10, refreshCacheStatsBtn, cacheStatsLabel);
+        cacheStatsBox.setAlignment(Pos.CENTER_LEFT);
+
+        content.getChildren().addAll(headerLabel, optionsTabPane, cacheStatsBox);
         tab.setContent(content);
 
         // Initial data load
         refreshMonthTable(monthTable);
         refreshPaymentTable(paymentTable);
+        cacheStatsLabel.setText(ReferenceDataCache.statisticsSummary(sessionFactory));
 
         return tab;
     }
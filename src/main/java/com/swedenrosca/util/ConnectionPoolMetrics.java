@@ -0,0 +1,128 @@
+package com.swedenrosca.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live metrics for the HikariCP pool behind the Hibernate SessionFactory.
+ * Attached once after the factory is built; read with {@link #snapshot()}.
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile PoolStats poolStats;
+    private volatile String poolName;
+
+    private ConnectionPoolMetrics() {}
+
+    /**
+     * Attaches a metrics tracker to the pool of the given factory, or returns the one already attached.
+     */
+    public static synchronized ConnectionPoolMetrics attach(SessionFactory sessionFactory) {
+        HikariDataSource dataSource = dataSource(sessionFactory);
+        if (dataSource.getMetricsTrackerFactory() instanceof ConnectionPoolMetrics existing) {
+            return existing;
+        }
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+        dataSource.setMetricsTrackerFactory(metrics);
+        return metrics;
+    }
+
+    private static HikariDataSource dataSource(SessionFactory sessionFactory) {
+        ConnectionProvider provider = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        if (provider == null || !provider.isUnwrappableAs(HikariDataSource.class)) {
+            throw new IllegalStateException("SessionFactory is not backed by a HikariCP pool");
+        }
+        return provider.unwrap(HikariDataSource.class);
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                totalWaitNanos.add(elapsedAcquiredNanos);
+                maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public Snapshot snapshot() {
+        PoolStats stats = poolStats;
+        long count = acquisitions.sum();
+        long waitNanos = totalWaitNanos.sum();
+        return new Snapshot(
+                poolName,
+                stats != null ? stats.getActiveConnections() : 0,
+                stats != null ? stats.getIdleConnections() : 0,
+                stats != null ? stats.getTotalConnections() : 0,
+                stats != null ? stats.getPendingThreads() : 0,
+                count,
+                count == 0 ? 0.0 : (double) waitNanos / count / TimeUnit.MILLISECONDS.toNanos(1),
+                (double) maxWaitNanos.get() / TimeUnit.MILLISECONDS.toNanos(1),
+                timeouts.sum());
+    }
+
+    public static class Snapshot {
+        private final String poolName;
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int waitingThreads;
+        private final long acquisitions;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+        private final long timeouts;
+
+        Snapshot(String poolName, int active, int idle, int total, int waitingThreads, long acquisitions,
+                 double averageWaitMillis, double maxWaitMillis, long timeouts) {
+            this.poolName = poolName;
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.waitingThreads = waitingThreads;
+            this.acquisitions = acquisitions;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.timeouts = timeouts;
+        }
+
+        public String getPoolName() { return poolName; }
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getTotal() { return total; }
+        public int getWaitingThreads() { return waitingThreads; }
+        public long getAcquisitions() { return acquisitions; }
+        public double getAverageWaitMillis() { return averageWaitMillis; }
+        public double getMaxWaitMillis() { return maxWaitMillis; }
+        public long getTimeouts() { return timeouts; }
+
+        @Override
+        public String toString() {
+            return String.format("Pool %s: active=%d, idle=%d, total=%d, waiting=%d, acquisitions=%d, avgWait=%.2f ms, maxWait=%.2f ms, timeouts=%d",
+                    poolName, active, idle, total, waitingThreads, acquisitions, averageWaitMillis, maxWaitMillis, timeouts);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.swedenrosca.util;
+
+import com.swedenrosca.model.MonthOption;
+import com.swedenrosca.model.PaymentOption;
+import com.swedenrosca.model.PaymentPlan;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Second-level cache helpers for the reference data entities (PaymentOption, MonthOption, PaymentPlan).
+ * Queries over these entities are cached in {@link #QUERY_REGION}.
+ */
+public final class ReferenceDataCache {
+
+    public static final String QUERY_REGION = "reference-data";
+
+    private ReferenceDataCache() {}
+
+    /**
+     * Evicts the cached instances of the given entity and all cached reference data query results.
+     */
+    public static void evict(SessionFactory sessionFactory, Class<?> entityClass) {
+        sessionFactory.getCache().evictEntityData(entityClass);
+        sessionFactory.getCache().evictQueryRegion(QUERY_REGION);
+    }
+
+    public static String statisticsSummary(SessionFactory sessionFactory) {
+        Statistics statistics = sessionFactory.getStatistics();
+        StringBuilder summary = new StringBuilder(String.format(
+                "Second-level cache: %d hits, %d misses, %d puts | Query cache: %d hits, %d misses",
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount()));
+        for (Class<?> entityClass : new Class<?>[] {PaymentOption.class, MonthOption.class, PaymentPlan.class}) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(entityClass.getName());
+            if (region != null) {
+                summary.append(String.format("%n%s: %d hits, %d misses, %d puts",
+                        entityClass.getSimpleName(), region.getHitCount(), region.getMissCount(),
+                        region.getPutCount()));
+            }
+        }
+        return summary.toString();
+    }
+}
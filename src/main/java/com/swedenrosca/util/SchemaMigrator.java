@@ -0,0 +1,244 @@
+package com.swedenrosca.util;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned SQL scripts under {@code db/migration} in order and records each one,
+ * with a checksum, in the {@code schema_version} table. Runs before the SessionFactory is built,
+ * which then only validates the schema.
+ */
+public final class SchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String LOCATION = "db/migration/";
+    private static final List<String> SCRIPTS = List.of(
+            "V1__baseline_schema.sql",
+            "V2__indexes_and_constraints.sql",
+            "V3__group_version_and_unique_turn_order.sql",
+            "V4__round_payment_counters.sql",
+            "V5__group_financials.sql",
+            "V6__outbox.sql",
+            "V7__payment_reminder_index.sql",
+            "V8__bank_transactions.sql",
+            "V9__sequence_tables_for_upgraded_schemas.sql",
+            "V10__payment_due_date_keyset_index.sql",
+            "V11__overdue_sweep_index.sql",
+            "V12__outbox_sequence.sql",
+            "V13__group_sequence.sql");
+
+    // A database created by hbm2ddl before migrations existed already has this table. It is recorded as V1
+    // without running it; V9 adds the sequence tables such a schema is missing
+    private static final String BASELINE_PROBE_TABLE = "users";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private SchemaMigrator() {}
+
+    public static void migrate(ConnectionProvider connectionProvider) {
+        Connection connection = null;
+        try {
+            connection = connectionProvider.getConnection();
+            migrate(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Schema migration failed: " + e.getMessage(), e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionProvider.closeConnection(connection);
+                } catch (SQLException e) {
+                    logger.warn("Could not release migration connection", e);
+                }
+            }
+        }
+    }
+
+    public static void migrate(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        // MySQL commits DDL implicitly, so each statement stands on its own
+        connection.setAutoCommit(true);
+        try {
+            createVersionTable(connection);
+            List<Migration> migrations = loadMigrations();
+            Map<Integer, String> applied = appliedChecksums(connection);
+
+            if (applied.isEmpty() && tableExists(connection, BASELINE_PROBE_TABLE)) {
+                Migration baseline = migrations.get(0);
+                logger.info("Existing schema found, recording it as version {} ({})",
+                        baseline.version, baseline.description);
+                record(connection, baseline, 0);
+                applied.put(baseline.version, baseline.checksum);
+            }
+
+            int count = 0;
+            for (Migration migration : migrations) {
+                String checksum = applied.get(migration.version);
+                if (checksum != null) {
+                    if (!checksum.equals(migration.checksum)) {
+                        throw new IllegalStateException("Migration " + migration.fileName +
+                                " has changed since it was applied");
+                    }
+                    continue;
+                }
+                long start = System.nanoTime();
+                for (String sql : statements(migration.script)) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(sql);
+                    }
+                }
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                record(connection, migration, millis);
+                logger.info("Applied migration {} in {} ms", migration.fileName, millis);
+                count++;
+            }
+            logger.info("Schema is at version {} ({} migrations applied)",
+                    migrations.get(migrations.size() - 1).version, count);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists schema_version (" +
+                    "version integer not null, " +
+                    "description varchar(200) not null, " +
+                    "checksum char(64) not null, " +
+                    "applied_at datetime(6) not null, " +
+                    "execution_ms bigint not null, " +
+                    "primary key (version)) engine=InnoDB");
+        }
+    }
+
+    private static Map<Integer, String> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select version, checksum from schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        return applied;
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        try (ResultSet rs = connection.getMetaData()
+                .getTables(connection.getCatalog(), null, table, new String[] {"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private static void record(Connection connection, Migration migration, long millis) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into schema_version (version, description, checksum, applied_at, execution_ms) " +
+                "values (?, ?, ?, ?, ?)")) {
+            statement.setInt(1, migration.version);
+            statement.setString(2, migration.description);
+            statement.setString(3, migration.checksum);
+            statement.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setLong(5, millis);
+            statement.executeUpdate();
+        }
+    }
+
+    private static List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        int previous = 0;
+        for (String fileName : SCRIPTS) {
+            Matcher matcher = SCRIPT_NAME.matcher(fileName);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Invalid migration name: " + fileName);
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            if (version <= previous) {
+                throw new IllegalStateException("Migrations out of order at " + fileName);
+            }
+            previous = version;
+            String script = read(LOCATION + fileName);
+            migrations.add(new Migration(fileName, version, matcher.group(2).replace('_', ' '),
+                    script, sha256(script)));
+        }
+        return migrations;
+    }
+
+    /**
+     * Splits a script into statements on semicolons that end a line, dropping {@code --} comment lines.
+     */
+    private static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static String read(String resource) {
+        try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration script not found: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read migration script " + resource, e);
+        }
+    }
+
+    private static String sha256(String script) {
+        try {
+            // Normalise line endings so a checkout on another platform does not change the checksum
+            byte[] bytes = script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Migration {
+        private final String fileName;
+        private final int version;
+        private final String description;
+        private final String script;
+        private final String checksum;
+
+        Migration(String fileName, int version, String description, String script, String checksum) {
+            this.fileName = fileName;
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.checksum = checksum;
+        }
+    }
+}
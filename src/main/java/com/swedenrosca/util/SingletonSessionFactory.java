@@ -1,36 +1,138 @@
 package com.swedenrosca.util;
 
 import org.hibernate.SessionFactory;
-import org.hibernate.cfg.Configuration;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.swedenrosca.model.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Single application-wide SessionFactory. The factory is built once, on a background thread
+ * when {@link #startAsync()} is called, and closed (together with its connection pool) by {@link #shutdown()}.
+ */
 public class SingletonSessionFactory {
-    private static SessionFactory sessionFactory;
+    private static final Logger logger = LoggerFactory.getLogger(SingletonSessionFactory.class);
+
+    private static CompletableFuture<SessionFactory> bootstrap;
+    private static StandardServiceRegistry registry;
+    private static ConnectionPoolMetrics poolMetrics;
 
     private SingletonSessionFactory() {}
 
-    public static synchronized SessionFactory getSessionFactory() {
+    /**
+     * Starts building the SessionFactory in the background if that has not happened yet.
+     */
+    public static synchronized CompletableFuture<SessionFactory> startAsync() {
+        if (bootstrap == null) {
+            bootstrap = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    bootstrap.complete(build());
+                } catch (Throwable e) {
+                    logger.error("Error creating SessionFactory", e);
+                    bootstrap.completeExceptionally(e);
+                }
+            }, "session-factory-bootstrap");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return bootstrap;
+    }
+
+    /**
+     * Returns the SessionFactory, waiting for the background bootstrap to finish if necessary.
+     */
+    public static SessionFactory getSessionFactory() {
+        try {
+            return startAsync().join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Error creating SessionFactory: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public static ConnectionPoolMetrics getPoolMetrics() {
+        getSessionFactory();
+        return poolMetrics;
+    }
+
+    public static synchronized void shutdown() {
+        if (bootstrap == null) {
+            return;
+        }
+        SessionFactory sessionFactory = bootstrap.getNow(null);
         if (sessionFactory == null) {
-            try {
-                Configuration configuration = new Configuration();
-                configuration.configure("hibernate.cfg.xml");
-                
-                // Add all entity classes
-                configuration.addAnnotatedClass(User.class);
-                configuration.addAnnotatedClass(Group.class);
-                configuration.addAnnotatedClass(Participant.class);
-                configuration.addAnnotatedClass(Payment.class);
-                configuration.addAnnotatedClass(Round.class);
-                configuration.addAnnotatedClass(PaymentPlan.class);
-                configuration.addAnnotatedClass(PaymentOption.class);
-                configuration.addAnnotatedClass(MonthOption.class);
-                configuration.addAnnotatedClass(MonthlyPayment.class);
-                
-                sessionFactory = configuration.buildSessionFactory();
-            } catch (Exception e) {
-                throw new RuntimeException("Error creating SessionFactory: " + e.getMessage(), e);
-            }
+            // Still building (or failed); close once the build completes
+            bootstrap.thenAccept(SingletonSessionFactory::close);
+        } else {
+            close(sessionFactory);
+        }
+    }
+
+    private static synchronized void close(SessionFactory sessionFactory) {
+        if (sessionFactory.isOpen()) {
+            logger.info("Closing SessionFactory");
+            sessionFactory.close();
+        }
+        if (registry != null) {
+            StandardServiceRegistryBuilder.destroy(registry);
+            registry = null;
+        }
+    }
+
+    private static SessionFactory build() {
+        long start = System.nanoTime();
+        long phase = start;
+        StandardServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+                .configure("hibernate.cfg.xml")
+                .build();
+        try {
+            // Starting the connection provider opens the pool
+            ConnectionProvider connectionProvider = serviceRegistry.getService(ConnectionProvider.class);
+            phase = logPhase("service registry and connection pool", phase);
+
+            // Hibernate only validates the schema; the migrator owns DDL
+            SchemaMigrator.migrate(connectionProvider);
+            phase = logPhase("schema migrations", phase);
+
+            Metadata metadata = new MetadataSources(serviceRegistry)
+                    .addAnnotatedClass(User.class)
+                    .addAnnotatedClass(Group.class)
+                    .addAnnotatedClass(Participant.class)
+                    .addAnnotatedClass(Payment.class)
+                    .addAnnotatedClass(Round.class)
+                    .addAnnotatedClass(PaymentPlan.class)
+                    .addAnnotatedClass(PaymentOption.class)
+                    .addAnnotatedClass(MonthOption.class)
+                    .addAnnotatedClass(MonthlyPayment.class)
+                    .addAnnotatedClass(GroupFinancials.class)
+                    .addAnnotatedClass(OutboxMessage.class)
+                    .addAnnotatedClass(BankTransaction.class)
+                    .buildMetadata();
+            phase = logPhase("metadata", phase);
+
+            SessionFactory sessionFactory = metadata.buildSessionFactory();
+            logPhase("session factory", phase);
+
+            registry = serviceRegistry;
+            poolMetrics = ConnectionPoolMetrics.attach(sessionFactory);
+            logger.info("SessionFactory ready in {} ms", (System.nanoTime() - start) / 1_000_000);
+            return sessionFactory;
+        } catch (RuntimeException e) {
+            StandardServiceRegistryBuilder.destroy(serviceRegistry);
+            throw e;
         }
-        return sessionFactory;
     }
-} 
\ No newline at end of file
+
+    private static long logPhase(String name, long phaseStart) {
+        long now = System.nanoTime();
+        logger.info("Startup phase '{}' took {} ms", name, (now - phaseStart) / 1_000_000);
+        return now;
+    }
+}
@@ -0,0 +1,5 @@
+-- The admin payment table pages through all payments in (due_date, id) order; without this index every
+-- page sorts the whole table.
+
+create index idx_payments_due_id
+    on payments (due_date, id);
@@ -0,0 +1,7 @@
+-- The overdue sweep scans one status in (due_date, id) order below a cutoff, so it only reads payments
+-- that are actually overdue; (status, id) made it read every not yet due payment of the status as well.
+
+create index idx_payments_status_due_id
+    on payments (status, due_date, id);
+
+drop index idx_payments_status_id on payments;
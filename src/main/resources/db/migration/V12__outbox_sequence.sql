@@ -0,0 +1,13 @@
+-- Outbox messages are written in bulk (reminder digests, reconciliation receipts); IDENTITY ids ruled out
+-- JDBC batching, so they now come from a pooled sequence like payments, rounds and participants.
+-- A stored value v hands out ids v - 49 .. v (allocation size 50), hence max(id) + 50.
+
+create table outbox_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into outbox_seq (next_val)
+select coalesce(max(id), 0) + 50 from outbox;
+
+alter table outbox
+    modify id bigint not null;
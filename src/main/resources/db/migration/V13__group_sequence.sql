@@ -0,0 +1,12 @@
+-- The matching engine creates groups in bulk; IDENTITY ids ruled out JDBC batching for them, so groups now
+-- take pooled sequence ids like payments, rounds and participants.
+-- A stored value v hands out ids v - 49 .. v (allocation size 50), hence max(id) + 50.
+-- saving_groups.id keeps auto_increment: MySQL does not allow changing a column that foreign keys
+-- reference, and explicitly supplied ids work alongside it.
+
+create table group_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into group_seq (next_val)
+select coalesce(max(id), 0) + 50 from saving_groups;
@@ -0,0 +1,194 @@
+-- Baseline schema, matching the entity mappings at the time the migrator was introduced.
+-- Databases created earlier by hbm2ddl are recorded at this version without running it.
+
+create table month_option (
+    months_count integer not null,
+    id bigint not null auto_increment,
+    primary key (id)
+) engine=InnoDB;
+
+create table monthly_payments (
+    monthNumber integer not null,
+    id bigint not null auto_increment,
+    paymentBy enum ('USER_PAYMENT','SYSTEM_PAYMENT','SYSTEM_PAYOUT','COMPANY_COVER') not null,
+    status enum ('PAID','MISSED','LATE','PENDING') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table participant_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into participant_seq values ( 1 );
+
+create table participants (
+    turnOrder integer not null,
+    group_id bigint not null,
+    id bigint not null,
+    paid_at datetime(6),
+    received_at datetime(6),
+    user_id bigint not null,
+    paymentBy enum ('USER_PAYMENT','SYSTEM_PAYMENT','SYSTEM_PAYOUT','COMPANY_COVER') not null,
+    paymentStatus enum ('PAID','MISSED','LATE','PENDING') not null,
+    receive_status enum ('PENDING','RECEIVED','NOT_RECEIVED') not null,
+    role enum ('PAYER','RECIPIENT') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table payment_option (
+    monthly_payment integer not null,
+    id bigint not null auto_increment,
+    primary key (id)
+) engine=InnoDB;
+
+create table payment_plan (
+    monthly_payment decimal(38,2) not null,
+    months_count integer not null,
+    created_at datetime(6) not null,
+    group_id bigint,
+    id bigint not null auto_increment,
+    primary key (id)
+) engine=InnoDB;
+
+create table payment_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into payment_seq values ( 1 );
+
+create table payments (
+    amount decimal(38,2) not null,
+    service_fee decimal(38,2),
+    created_at datetime(6) not null,
+    creator_id bigint,
+    due_date datetime(6) not null,
+    group_id bigint not null,
+    id bigint not null,
+    paid_at datetime(6),
+    payment_plan_id bigint,
+    round_id bigint,
+    payment_type enum ('USER_PAYMENT','SYSTEM_PAYMENT','SYSTEM_PAYOUT','COMPANY_COVER') not null,
+    status enum ('PAID','MISSED','LATE','PENDING') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table round_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into round_seq values ( 1 );
+
+create table rounds (
+    amount decimal(38,2) not null,
+    round_number integer not null,
+    end_date datetime(6) not null,
+    group_id bigint not null,
+    id bigint not null,
+    start_date datetime(6) not null,
+    winner_participant_id bigint,
+    status enum ('PENDING_APPROVAL','ACTIVE','COMPLETED','BLOCKED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table saving_groups (
+    max_members integer,
+    monthly_contribution decimal(38,2),
+    total_amount decimal(38,2),
+    creator_id bigint,
+    end_date datetime(6),
+    id bigint not null auto_increment,
+    payment_plan_id bigint,
+    start_date datetime(6),
+    group_name varchar(255),
+    payment_by enum ('USER_PAYMENT','SYSTEM_PAYMENT','SYSTEM_PAYOUT','COMPANY_COVER'),
+    status enum ('WAITING_FOR_MEMBERS','PENDING_APPROVAL','ACTIVE','COMPLETED','BLOCKED'),
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    `Current Balance` decimal(38,2),
+    monthly_contribution decimal(38,2),
+    number_of_members integer,
+    id bigint not null auto_increment,
+    bank_account varchar(255),
+    clearing_number varchar(255),
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    mobile_number varchar(255) not null,
+    password varchar(255) not null,
+    personal_number varchar(255) not null,
+    username varchar(255) not null,
+    role enum ('ADMIN','USER','CUSTOMER_SERVICE','COMPANY') not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table users
+   add constraint UK_fxx2haemdco9f40mqv7s52lbn unique (bank_account);
+
+alter table users
+   add constraint UK_6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table users
+   add constraint UK_r7c96a004bv8w16jgdm8imich unique (mobile_number);
+
+alter table users
+   add constraint UK_6ff9eqia6nd9gavmrxp1e93di unique (personal_number);
+
+alter table users
+   add constraint UK_r43af9ap4edm43mmtq01oddj6 unique (username);
+
+alter table participants
+   add constraint FK54uoxnx830ils6jfq5ouiwfub
+   foreign key (group_id)
+   references saving_groups (id);
+
+alter table participants
+   add constraint FKghixrahoj1s8cloinfx8lyeqa
+   foreign key (user_id)
+   references users (id);
+
+alter table payment_plan
+   add constraint FKcjwgx7voco58q7xyrsam6t986
+   foreign key (group_id)
+   references saving_groups (id);
+
+alter table payments
+   add constraint FK8y0kvmbql5i3hdjariwn6jh5d
+   foreign key (creator_id)
+   references users (id);
+
+alter table payments
+   add constraint FK1fbe65j8hpya1tu05wa96wogr
+   foreign key (group_id)
+   references saving_groups (id);
+
+alter table payments
+   add constraint FK9jmhtfkdiinc90lo72sgwe2ub
+   foreign key (payment_plan_id)
+   references payment_plan (id);
+
+alter table payments
+   add constraint FKo21m1x7hh7pbykkoijhcknmcj
+   foreign key (round_id)
+   references rounds (id);
+
+alter table rounds
+   add constraint FKa0pmmssp90tyye5fxfi5lfqi5
+   foreign key (group_id)
+   references saving_groups (id);
+
+alter table rounds
+   add constraint FKoahq6jss02e0m0g6o9ojppogu
+   foreign key (winner_participant_id)
+   references participants (id);
+
+alter table saving_groups
+   add constraint FK17t5jg97xqw6m6dapv29h9f4m
+   foreign key (creator_id)
+   references users (id);
+
+alter table saving_groups
+   add constraint FKrhhkvwb5fh8ks0d3q3qp8f3bp
+   foreign key (payment_plan_id)
+   references payment_plan (id);
@@ -0,0 +1,24 @@
+-- Indexes for the hot payment, participant, round and group predicates.
+-- Indexes on foreign key columns replace the ones MySQL created implicitly for the constraints.
+
+create index idx_payments_group_status_due
+    on payments (group_id, status, due_date);
+
+create index idx_payments_round_status
+    on payments (round_id, status);
+
+create index idx_payments_creator
+    on payments (creator_id);
+
+-- Overdue sweep: keyset scan over one status in id order
+create index idx_payments_status_id
+    on payments (status, id);
+
+create index idx_participants_group_turn
+    on participants (group_id, turnOrder);
+
+alter table rounds
+    add constraint uk_rounds_group_round unique (group_id, round_number);
+
+create index idx_saving_groups_matching
+    on saving_groups (status, monthly_contribution, max_members);
@@ -0,0 +1,11 @@
+-- Optimistic locking for groups, and at most one participant per turn order in a group.
+-- Adding the unique key fails if a group already has duplicate turn orders; resolve those first.
+
+alter table saving_groups
+    add column version bigint not null default 0;
+
+alter table participants
+    add constraint uk_participants_group_turn unique (group_id, turnOrder);
+
+-- The unique key covers the same columns
+drop index idx_participants_group_turn on participants;
@@ -0,0 +1,18 @@
+-- Paid counters on rounds, so completion checks and receivable totals do not scan the round's payments.
+
+alter table rounds
+    add column expected_count integer not null default 0,
+    add column paid_count integer not null default 0,
+    add column paid_amount decimal(38,2) not null default 0;
+
+update rounds r
+    left join (select round_id,
+                      count(*) as expected,
+                      sum(case when status = 'PAID' then 1 else 0 end) as paid,
+                      coalesce(sum(case when status = 'PAID' then amount end), 0) as paid_amount
+               from payments
+               where round_id is not null
+               group by round_id) p on p.round_id = r.id
+set r.expected_count = coalesce(p.expected, 0),
+    r.paid_count = coalesce(p.paid, 0),
+    r.paid_amount = coalesce(p.paid_amount, 0);
@@ -0,0 +1,36 @@
+-- Per-group money totals, maintained on every payment status transition and rebuilt from the payments table on demand.
+
+create table group_financials (
+    group_id bigint not null,
+    collected_amount decimal(38,2) not null,
+    outstanding_amount decimal(38,2) not null,
+    late_amount decimal(38,2) not null,
+    late_count integer not null,
+    unpaid_count integer not null,
+    paid_out_amount decimal(38,2) not null,
+    fees_amount decimal(38,2) not null,
+    updated_at datetime(6) not null,
+    primary key (group_id)
+) engine=InnoDB;
+
+insert into group_financials (group_id, collected_amount, outstanding_amount, late_amount, late_count,
+                              unpaid_count, paid_out_amount, fees_amount, updated_at)
+select p.group_id,
+       coalesce(sum(case when p.status = 'PAID' then p.amount end), 0),
+       coalesce(sum(case when p.status in ('PENDING', 'LATE') then p.amount end), 0),
+       coalesce(sum(case when p.status = 'LATE' then p.amount end), 0),
+       count(case when p.status = 'LATE' then 1 end),
+       count(case when p.status <> 'PAID' then 1 end),
+       0,
+       coalesce(sum(case when p.status = 'PAID' then p.service_fee end), 0),
+       now(6)
+from payments p
+group by p.group_id;
+
+update group_financials f
+    join (select r.group_id, sum(g.total_amount) as paid_out
+          from rounds r
+          join saving_groups g on g.id = r.group_id
+          where r.status = 'COMPLETED' and r.winner_participant_id is not null
+          group by r.group_id) r on r.group_id = f.group_id
+set f.paid_out_amount = coalesce(r.paid_out, 0);
@@ -0,0 +1,23 @@
+-- Transactional outbox: messages written with the payment and round changes they report, delivered by the dispatcher.
+
+create table outbox (
+    id bigint not null auto_increment,
+    dedupe_key varchar(200) not null,
+    message_type varchar(50) not null,
+    recipient varchar(255),
+    subject varchar(255) not null,
+    body varchar(4000) not null,
+    status enum ('PENDING','SENT','FAILED') not null,
+    attempts integer not null,
+    available_at datetime(6) not null,
+    created_at datetime(6) not null,
+    sent_at datetime(6),
+    last_error varchar(1000),
+    primary key (id)
+) engine=InnoDB;
+
+alter table outbox
+    add constraint uk_outbox_dedupe_key unique (dedupe_key);
+
+-- The dispatcher claims PENDING rows that are due, oldest first
+create index idx_outbox_status_available on outbox (status, available_at, id);
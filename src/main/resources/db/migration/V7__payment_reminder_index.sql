@@ -0,0 +1,6 @@
+-- Payment reminders scan unpaid payments in payer order; the wider index also serves the creator foreign key.
+
+create index idx_payments_creator_status_due
+    on payments (creator_id, status, due_date);
+
+drop index idx_payments_creator on payments;
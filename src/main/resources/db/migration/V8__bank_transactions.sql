@@ -0,0 +1,16 @@
+-- Imported bank transfers, one row per statement line, keyed by the bank's reference.
+-- payment_id is deliberately not a foreign key: the ledger is kept when payments are deleted.
+
+create table bank_transactions (
+    reference varchar(100) not null,
+    booking_date date not null,
+    amount decimal(38,2) not null,
+    clearing_number varchar(255),
+    bank_account varchar(255),
+    payment_id bigint,
+    source varchar(255) not null,
+    imported_at datetime(6) not null,
+    primary key (reference)
+) engine=InnoDB;
+
+create index idx_bank_transactions_payment on bank_transactions (payment_id);
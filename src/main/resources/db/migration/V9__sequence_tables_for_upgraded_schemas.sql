@@ -0,0 +1,29 @@
+-- Databases created by hbm2ddl before the migrator used IDENTITY ids and were recorded as V1 without
+-- running it, so they lack the sequence tables of the pooled Payment, Round and Participant ids.
+-- Each missing table is created and seeded past the highest id in use. With the pooled optimizer
+-- (allocation size 50) a stored value v hands out ids v - 49 .. v, hence max(id) + 50.
+-- Tables that V1 created are left as they are.
+
+create table if not exists participant_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into participant_seq (next_val)
+select seeded.next_val from (select coalesce(max(id), 0) + 50 as next_val from participants) seeded
+where not exists (select 1 from participant_seq);
+
+create table if not exists payment_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into payment_seq (next_val)
+select seeded.next_val from (select coalesce(max(id), 0) + 50 as next_val from payments) seeded
+where not exists (select 1 from payment_seq);
+
+create table if not exists round_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into round_seq (next_val)
+select seeded.next_val from (select coalesce(max(id), 0) + 50 as next_val from rounds) seeded
+where not exists (select 1 from round_seq);